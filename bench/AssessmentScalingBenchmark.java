@@ -0,0 +1,194 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+/**
+ * Measures how {@link ParallelAssessor} scales from one thread up to the requested maximum, printing
+ * the median time and speedup for each thread count next to the sequential two-pass assessment.
+ * It runs on a generated columnar catalog and on a plain list of Space Objects, which is what a
+ * cold load produces. Every run is checked against the sequential results, so the benchmark fails
+ * rather than report a speedup that changed the answer.
+ *
+ * <p>Near-linear scaling on a multi-million-row catalog is the goal but has not been shown: the
+ * only runs so far were on a single-CPU machine, where every thread count takes about as long as
+ * one thread (1M rows, 1 and 2 threads: columnar 33.7 and 31.4 ms, list 53.0 and 53.6 ms). A run on
+ * a multi-core host is still needed before the assessor's scaling can be relied on.</p>
+ *
+ * <p>
+ * Usage (rows, maximum threads, and optionally "columnar" or "list" to run only one layout):
+ * <pre>
+ * java -Xmx4g -cp out AssessmentScalingBenchmark 5000000 32
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class AssessmentScalingBenchmark {
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 7;
+    private static final String[] ORBITS = {"LEO", "MEO", "GEO", "HEO", null};
+
+    /**
+     * A catalog layout the assessor can run on
+     */
+    private interface Layout {
+        void reset();
+
+        void assessSequentially();
+
+        ParallelAssessor.Summary assess(ParallelAssessor assessor);
+
+        long checksum();
+    }
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 5000000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String only = args.length > 2 ? args[2] : "";
+
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int t = 1; t < maxThreads; t *= 2) {
+            threadCounts.add(t);
+        }
+        threadCounts.add(maxThreads);
+
+        System.out.println("layout,threads,median_ms,rows_per_sec,speedup,efficiency");
+        if (!only.equals("list")) {
+            run("columnar", columnar(generate(rows)), rows, threadCounts);
+        }
+        if (!only.equals("columnar")) {
+            run("list", list(generate(rows)), rows, threadCounts);
+        }
+    }
+
+    private static void run(String name, Layout layout, int rows, List<Integer> threadCounts) {
+        double sequential = median(layout::assessSequentially, layout);
+        long expected = layout.checksum();
+        System.out.printf("%s,sequential two-pass,%.1f,%.0f,,%n", name, sequential, rows / (sequential / 1000));
+        double baseline = 0;
+        ParallelAssessor.Summary first = null;
+        for (int threads : threadCounts) {
+            ParallelAssessor assessor = new ParallelAssessor(threads);
+            ParallelAssessor.Summary[] last = new ParallelAssessor.Summary[1];
+            double median = median(() -> last[0] = layout.assess(assessor), layout);
+            if (layout.checksum() != expected || (first != null && !first.equals(last[0]))) {
+                throw new IllegalStateException(threads + " threads assessed the " + name + " catalog differently");
+            }
+            if (threads == 1) {
+                baseline = median;
+                first = last[0];
+            }
+            System.out.printf("%s,%d,%.1f,%.0f,%.2f,%.2f%n", name, threads, median, rows / (median / 1000),
+                              baseline / median, baseline / median / threads);
+        }
+        System.out.println(first);
+    }
+
+    /**
+     * Generates objects whose values fall on both sides of every assessment threshold
+     */
+    private static List<SpaceObject> generate(int rows) {
+        Random random = new Random(2024);
+        List<SpaceObject> objects = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            double longitude = random.nextDouble() * 400 - 200;
+            double averageLongitude = longitude + random.nextGaussian() * 30;
+            objects.add(new SpaceObject(null, null, "USA", ORBITS[random.nextInt(ORBITS.length)], "DEBRIS", 2000,
+                                        "KSC", longitude, averageLongitude, null, random.nextInt(20000),
+                                        random.nextInt(4) == 0 ? 1 : 0, "A"));
+        }
+        return objects;
+    }
+
+    private static Layout columnar(List<SpaceObject> objects) {
+        ColumnarCatalog catalog = ColumnarCatalog.from(objects, new CatalogDictionaries());
+        return new Layout() {
+            @Override
+            public void reset() {
+                for (int row = 0; row < catalog.size(); row++) {
+                    catalog.setRiskCode(row, OrbitalAssessment.RISK_UNASSESSED);
+                    catalog.setStillInOrbit(row, false);
+                }
+            }
+
+            @Override
+            public void assessSequentially() {
+                catalog.assessRiskLevel();
+                catalog.assessStillInOrbit();
+            }
+
+            @Override
+            public ParallelAssessor.Summary assess(ParallelAssessor assessor) {
+                return assessor.assess(catalog);
+            }
+
+            @Override
+            public long checksum() {
+                long sum = 0;
+                for (int row = 0; row < catalog.size(); row++) {
+                    sum = sum * 31 + catalog.getRiskCode(row) * 2 + (catalog.isStillInOrbit(row) ? 1 : 0);
+                }
+                return sum;
+            }
+        };
+    }
+
+    private static Layout list(List<SpaceObject> objects) {
+        return new Layout() {
+            @Override
+            public void reset() {
+                for (SpaceObject object : objects) {
+                    object.setRiskLevel(null);
+                    object.setStillInOrbit(false);
+                }
+            }
+
+            @Override
+            public void assessSequentially() {
+                for (SpaceObject object : objects) {                //The two passes of Scientist on a plain list
+                    byte risk = OrbitalAssessment.riskCode(object.getLongitude(), object.getAverageLongitude());
+                    object.setRiskLevel(OrbitalAssessment.riskLevel(risk));
+                }
+                for (SpaceObject object : objects) {
+                    object.setStillInOrbit(OrbitalAssessment.stillInOrbit(object.getOrbitType(), object.getLongitude(),
+                                                                          object.getDaysOld(), object.getConjunctionCount()));
+                }
+            }
+
+            @Override
+            public ParallelAssessor.Summary assess(ParallelAssessor assessor) {
+                return assessor.assess(objects);
+            }
+
+            @Override
+            public long checksum() {
+                long sum = 0;
+                for (SpaceObject object : objects) {
+                    sum = sum * 31 + OrbitalAssessment.riskCode(object.getRiskLevel()) * 2 + (object.isStillInOrbit() ? 1 : 0);
+                }
+                return sum;
+            }
+        };
+    }
+
+    /**
+     * Returns the median time of one assessment in milliseconds, clearing the results before each run
+     */
+    private static double median(Runnable assessment, Layout layout) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            layout.reset();
+            assessment.run();
+        }
+        List<Double> times = new ArrayList<>();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            layout.reset();
+            long startTime = System.nanoTime();
+            assessment.run();
+            times.add((System.nanoTime() - startTime) / 1e6);
+        }
+        Collections.sort(times);
+        return times.get(times.size() / 2);
+    }
+}
@@ -0,0 +1,207 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+/**
+ * Runs one operation repeatedly and reports its throughput, allocation and latency distribution,
+ * in the manner of a JMH run with the GC profiler: warm-up calls first, then timed calls until
+ * both a minimum time and a minimum number of calls are reached.
+ *
+ * <p>Every call is timed on its own, so the result carries the latency percentiles of a call as
+ * well as the average rate. Allocation is the number of bytes the benchmark thread allocated,
+ * read from the JVM's per-thread counter, so work handed to other threads is not included.
+ * Each call's return value is folded into a field that is never read, so the JIT cannot
+ * discard the work.</p>
+ *
+ * <p>JMH is not used because the project is compiled with plain javac, with no build tool to fetch
+ * JMH and run its annotation processor, and no libraries are kept in the tree.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * BenchmarkHarness harness = new BenchmarkHarness(1, 3, 5);
+ * BenchmarkHarness.Result result = harness.measure("parseLine", 10000, 1000, () -&gt; parseBatch());
+ * System.out.println(result.toCsv());
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class BenchmarkHarness {
+    public static final String CSV_HEADER = "benchmark,rows,calls,ops_per_sec,bytes_per_op,alloc_mb_per_sec,"
+                                            + "gc_count,gc_ms,p50_us,p90_us,p99_us,p999_us,max_us";
+
+    private final long warmupNanos;
+    private final long measureNanos;
+    private final int minCalls;
+    private int sink;                                           //Keeps results alive so calls are not optimized away
+
+    /**
+     * The work being measured
+     */
+    public interface Operation {
+        /**
+         * Performs the work once
+         *
+         * @return Any value computed by the work
+         */
+        Object run() throws Exception;
+    }
+
+    /**
+     * Constructs a harness
+     *
+     * @param warmupSeconds - How long to call the operation before timing it
+     * @param measureSeconds - The least time to spend timing calls
+     * @param minCalls - The least number of timed calls, however long they take
+     */
+    public BenchmarkHarness(double warmupSeconds, double measureSeconds, int minCalls) {
+        this.warmupNanos = (long) (warmupSeconds * 1e9);
+        this.measureNanos = (long) (measureSeconds * 1e9);
+        this.minCalls = minCalls;
+    }
+
+    /**
+     * Warms up and then measures an operation
+     *
+     * @param name - The name reported for the benchmark
+     * @param rows - The size of the catalog the operation works on
+     * @param opsPerCall - How many operations one call performs, such as lines parsed, for the rates
+     * @param operation - The work to measure
+     * @return The measurements
+     */
+    public Result measure(String name, long rows, int opsPerCall, Operation operation) throws Exception {
+        return measure(name, rows, opsPerCall, () -> { }, operation);
+    }
+
+    /**
+     * Warms up and then measures an operation, preparing its input before every call. The setup
+     * is left out of the call times and the rates, but what it allocates is counted.
+     *
+     * @param name - The name reported for the benchmark
+     * @param rows - The size of the catalog the operation works on
+     * @param opsPerCall - How many operations one call performs, such as lines parsed, for the rates
+     * @param setup - Restores the state the operation starts from, such as unassessed objects
+     * @param operation - The work to measure
+     * @return The measurements
+     */
+    public Result measure(String name, long rows, int opsPerCall, Runnable setup, Operation operation) throws Exception {
+        long warmupEnd = System.nanoTime() + warmupNanos;
+        do {
+            setup.run();
+            consume(operation.run());
+        } while (System.nanoTime() < warmupEnd);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long gcCountBefore = gcCount();
+        long gcMillisBefore = gcMillis();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long[] samples = new long[64];
+        int calls = 0;
+        long start = System.nanoTime();
+        long elapsed = 0;                                       //Time inside calls, without their setup
+        do {
+            setup.run();
+            long callStart = System.nanoTime();
+            consume(operation.run());
+            long callEnd = System.nanoTime();
+            if (calls == samples.length) {
+                samples = Arrays.copyOf(samples, calls * 2);
+            }
+            samples[calls++] = callEnd - callStart;
+            elapsed += callEnd - callStart;
+        } while (System.nanoTime() - start < measureNanos || calls < minCalls);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        Arrays.sort(samples, 0, calls);
+        double ops = (double) calls * opsPerCall;
+        return new Result(name, rows, calls, ops / (elapsed / 1e9), allocated / ops,
+                          allocated / 1048576.0 / (elapsed / 1e9), gcCount() - gcCountBefore,
+                          gcMillis() - gcMillisBefore, Arrays.copyOf(samples, calls));
+    }
+
+    private void consume(Object value) {
+        sink += value == null ? 0 : System.identityHashCode(value);
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    /**
+     * The measurements of one benchmark
+     */
+    public static class Result {
+        private final String name;
+        private final long rows;
+        private final int calls;
+        private final double opsPerSecond;
+        private final double bytesPerOp;
+        private final double allocationMegabytesPerSecond;
+        private final long gcCount;
+        private final long gcMillis;
+        private final long[] sortedNanos;                       //The time of every timed call, ascending
+
+        Result(String name, long rows, int calls, double opsPerSecond, double bytesPerOp,
+               double allocationMegabytesPerSecond, long gcCount, long gcMillis, long[] sortedNanos) {
+            this.name = name;
+            this.rows = rows;
+            this.calls = calls;
+            this.opsPerSecond = opsPerSecond;
+            this.bytesPerOp = bytesPerOp;
+            this.allocationMegabytesPerSecond = allocationMegabytesPerSecond;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+            this.sortedNanos = sortedNanos;
+        }
+
+        /**
+         * Returns the operations completed per second
+         */
+        public double getOpsPerSecond() {
+            return opsPerSecond;
+        }
+
+        /**
+         * Returns the bytes allocated per operation by the benchmark thread
+         */
+        public double getBytesPerOp() {
+            return bytesPerOp;
+        }
+
+        /**
+         * Returns the time of a call at a percentile, in nanoseconds
+         *
+         * @param percentile - From 0 to 100
+         */
+        public long percentileNanos(double percentile) {
+            int rank = (int) Math.ceil(percentile / 100 * sortedNanos.length) - 1;
+            return sortedNanos[Math.min(sortedNanos.length - 1, Math.max(0, rank))];
+        }
+
+        /**
+         * Formats the measurements as a row under {@link BenchmarkHarness#CSV_HEADER}
+         */
+        public String toCsv() {
+            return String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.1f,%.1f,%d,%d,%.1f,%.1f,%.1f,%.1f,%.1f",
+                                 name, rows, calls, opsPerSecond, bytesPerOp, allocationMegabytesPerSecond,
+                                 gcCount, gcMillis, percentileNanos(50) / 1e3, percentileNanos(90) / 1e3,
+                                 percentileNanos(99) / 1e3, percentileNanos(99.9) / 1e3,
+                                 sortedNanos[sortedNanos.length - 1] / 1e3);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+/**
+ * Measures the load, filter, assess and export paths of the system on catalogs of several sizes
+ * written by {@link CatalogGenerator}, printing one CSV row per benchmark and size with its
+ * throughput, allocation, garbage collection and call latency percentiles (see
+ * {@link BenchmarkHarness}). It needs no input, so it can run headless, and the rows can also be
+ * written to a file.
+ *
+ * <p>Throughput counts rows for the load and export benchmarks, lines for parseLine, and calls
+ * for the rest. Benchmarks named "indexed" go through the DataManager's filter engine and indexes,
+ * as the consoles do, with the engine's result cache cleared before each call; benchmarks named
+ * "cached" repeat a filter whose result the engine has kept. The others scan the list.</p>
+ *
+ * <p>
+ * Usage (sizes, then an optional name pattern and results file):
+ * <pre>
+ * java -Xmx8g -cp out CatalogBenchmarks 10000,100000,1000000,10000000 "assess.*|filter.*" results.csv
+ * </pre>
+ * Timing can be changed with {@code -Dbench.warmup=2 -Dbench.time=5 -Dbench.calls=5} (seconds, seconds, calls).
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class CatalogBenchmarks {
+    private static final int PARSE_BATCH = 10000;              //Lines parsed per parseLine call
+
+    private final BenchmarkHarness harness;
+    private final Pattern filter;
+    private final List<String> results = new ArrayList<>();
+
+    private CatalogBenchmarks(BenchmarkHarness harness, Pattern filter) {
+        this.harness = harness;
+        this.filter = filter;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] sizes = (args.length > 0 ? args[0] : "10000,100000,1000000").split(",");
+        Pattern filter = Pattern.compile(args.length > 1 ? args[1] : ".*");
+        BenchmarkHarness harness = new BenchmarkHarness(Double.parseDouble(System.getProperty("bench.warmup", "1")),
+                                                        Double.parseDouble(System.getProperty("bench.time", "3")),
+                                                        Integer.getInteger("bench.calls", 5));
+        CatalogBenchmarks benchmarks = new CatalogBenchmarks(harness, filter);
+
+        System.out.println(BenchmarkHarness.CSV_HEADER);
+        Path directory = Files.createTempDirectory("catalog-benchmarks");
+        try {
+            for (String size : sizes) {
+                benchmarks.run(directory, Integer.parseInt(size.trim()));
+            }
+        } finally {
+            Files.deleteIfExists(directory);                    //Each run removes its own files
+        }
+        if (args.length > 2) {
+            List<String> lines = new ArrayList<>();
+            lines.add(BenchmarkHarness.CSV_HEADER);
+            lines.addAll(benchmarks.results);
+            Files.write(Paths.get(args[2]), lines, StandardCharsets.UTF_8);
+        }
+    }
+
+    private void run(Path directory, int rows) throws Exception {
+        Path input = directory.resolve("rso_metrics_" + rows + ".csv");
+        new CatalogGenerator(2024).write(input, rows);
+        String filename = input.toString();
+        CSVParser parser = new CSVParser();
+
+        measure("readCsvFile", rows, rows, () -> parser.readCsvFile(filename));
+
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            reader.readLine();
+            String line;
+            while (lines.size() < PARSE_BATCH && (line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        measure("parseLine", rows, lines.size(), () -> {
+            int fields = 0;
+            for (String line : lines) {
+                fields += CSVParser.parseLine(line).size();
+            }
+            return fields;
+        });
+
+        DataManager manager = new DataManager("streamed metrics");
+        manager.setRso_metrics(parser.readCsvFile(filename));
+        List<SpaceObject> objects = manager.getRso_metrics();    //The list the indexes were built for
+
+        Scientist scanning = new Scientist("Benchmark");
+        scanning.setEntries(objects);
+        Scientist indexed = new Scientist("Benchmark");
+        indexed.setManager(manager);
+        indexed.setEntries(objects);
+        for (String criteria : new String[] {"debris", "leo"}) {
+            measure("filterByField(" + criteria + ")", rows, 1, () -> {
+                List<SpaceObject> matches = new ArrayList<>();
+                scanning.filterByField(matches, criteria);
+                return matches;
+            });
+            measure("filterByField(" + criteria + ") indexed", rows, 1, () -> {
+                manager.getFilterEngine().clearCache();         //Evaluate the filter rather than reuse the last result
+                List<SpaceObject> matches = new ArrayList<>();
+                indexed.filterByField(matches, criteria);
+                return matches;
+            });
+            measure("filterByField(" + criteria + ") cached", rows, 1, () -> {
+                List<SpaceObject> matches = new ArrayList<>();
+                indexed.filterByField(matches, criteria);
+                return matches;
+            });
+        }
+
+        Runnable unassess = () -> {                             //Each call assesses every object again
+            for (SpaceObject object : objects) {
+                object.setRiskLevel(null);
+                object.setStillInOrbit(false);
+            }
+        };
+        measure("assessRiskLevel", rows, 1, unassess, () -> {
+            indexed.assessRiskLevel();
+            return objects;
+        });
+        measure("assessStillInOrbit", rows, 1, unassess, () -> {
+            indexed.assessStillInOrbit();
+            return objects;
+        });
+
+        SpaceAgencyRepresentative scanningRep = new SpaceAgencyRepresentative("Benchmark");
+        scanningRep.setEntries(objects);
+        SpaceAgencyRepresentative indexedRep = new SpaceAgencyRepresentative("Benchmark");
+        indexedRep.setManager(manager);
+        indexedRep.setEntries(objects);
+        measure("filterByLongitude", rows, 1, () -> scanningRep.filterByLongitude(objects.stream(), -10, 10).count());
+        measure("filterByLongitude indexed", rows, 1, () -> indexedRep.filterByLongitude(objects.stream(), -10, 10).count());
+
+        Path output = directory.resolve("updated_" + rows + ".csv");
+        measure("writeRecordsToCsv", rows, rows, () -> {
+            parser.writeRecordsToCsv(objects, output.toString());
+            return output;
+        });
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(output);
+    }
+
+    private void measure(String name, int rows, int opsPerCall, BenchmarkHarness.Operation operation) throws Exception {
+        measure(name, rows, opsPerCall, () -> { }, operation);
+    }
+
+    private void measure(String name, int rows, int opsPerCall, Runnable setup,
+                         BenchmarkHarness.Operation operation) throws Exception {
+        if (!filter.matcher(name).matches()) {
+            return;
+        }
+        String row = harness.measure(name, rows, opsPerCall, setup, operation).toCsv();
+        results.add(row);
+        System.out.println(row);
+    }
+}
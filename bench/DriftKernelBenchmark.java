@@ -0,0 +1,76 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+/**
+ * Compares the scalar {@link DriftKernel} with the one chosen by {@link DriftKernel#best()},
+ * printing the median time per call and rows per second for a block that fits in cache and for
+ * a whole catalog that does not. Both kernels must produce the same codes. It is a main program
+ * rather than a JMH benchmark because the project is built with javac alone, with nothing to supply
+ * the JMH library.
+ *
+ * <p>
+ * Usage (the vector kernel is only found when compiled and its module is added):
+ * <pre>
+ * javac --add-modules jdk.incubator.vector -d out -cp out vector/*.java
+ * java --add-modules jdk.incubator.vector -cp out DriftKernelBenchmark 5000000
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class DriftKernelBenchmark {
+    private static final int WARMUP_CALLS = 20000;
+    private static final int MEASURED_RUNS = 9;
+    private static final int CACHED_ROWS = 4096;
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 5000000;
+        Random random = new Random(2024);
+        double[] longitudes = new double[rows];
+        double[] averages = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            longitudes[i] = random.nextDouble() * 400 - 200;
+            averages[i] = longitudes[i] + random.nextGaussian() * 30;
+        }
+
+        DriftKernel[] kernels = {DriftKernel.scalar(), DriftKernel.best()};
+        byte[][] codes = new byte[kernels.length][rows];
+        for (int i = 0; i < kernels.length; i++) {
+            kernels[i].riskCodes(longitudes, averages, 0, rows, codes[i]);
+        }
+        for (int row = 0; row < rows; row++) {
+            if (codes[0][row] != codes[1][row]) {
+                throw new IllegalStateException(kernels[1].getName() + " disagrees with the scalar kernel at row " + row);
+            }
+        }
+
+        System.out.println("kernel,rows,median_ms,rows_per_sec,speedup");
+        for (int size : new int[] {Math.min(CACHED_ROWS, rows), rows}) {
+            double baseline = 0;
+            for (DriftKernel kernel : kernels) {
+                for (int i = 0; i < WARMUP_CALLS; i++) {
+                    kernel.riskCodes(longitudes, averages, 0, CACHED_ROWS > rows ? rows : CACHED_ROWS, codes[0]);
+                }
+                int calls = Math.max(1, (1 << 24) / size);       //About 16 million rows per measured run
+                List<Double> times = new ArrayList<>();
+                for (int run = 0; run < MEASURED_RUNS; run++) {
+                    long startTime = System.nanoTime();
+                    for (int i = 0; i < calls; i++) {
+                        kernel.riskCodes(longitudes, averages, 0, size, codes[0]);
+                    }
+                    times.add((System.nanoTime() - startTime) / 1e6 / calls);
+                }
+                Collections.sort(times);
+                double median = times.get(times.size() / 2);
+                if (baseline == 0) {
+                    baseline = median;
+                }
+                System.out.printf("%s,%d,%.4f,%.0f,%.2f%n", kernel.getName(), size, median,
+                                  size / (median / 1000), baseline / median);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+/**
+ * Measures how {@link CSVParser#readCsvFileParallel(String, int)} scales from one thread up to
+ * the requested maximum, printing the median load time and speedup for each thread count.
+ *
+ * <p>
+ * Usage:
+ * <pre>
+ * java -cp out LoadScalingBenchmark rso_metrics.csv 32
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class LoadScalingBenchmark {
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 5;
+
+    public static void main(String[] args) {
+        String filename = args.length > 0 ? args[0] : "rso_metrics.csv";
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        CSVParser parser = new CSVParser();
+
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int t = 1; t < maxThreads; t *= 2) {
+            threadCounts.add(t);
+        }
+        threadCounts.add(maxThreads);
+
+        System.out.println("threads,median_ms,rows,rows_per_sec,speedup");
+        double baseline = 0;
+        for (int threads : threadCounts) {
+            int rows = 0;
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                rows = parser.readCsvFileParallel(filename, threads).size();
+            }
+            List<Double> times = new ArrayList<>();
+            for (int i = 0; i < MEASURED_RUNS; i++) {
+                long startTime = System.nanoTime();
+                rows = parser.readCsvFileParallel(filename, threads).size();
+                times.add((System.nanoTime() - startTime) / 1e6);
+            }
+            Collections.sort(times);
+            double median = times.get(times.size() / 2);
+            if (threads == 1) {
+                baseline = median;
+            }
+            System.out.printf("%d,%.1f,%d,%.0f,%.2f%n", threads, median, rows,
+                              rows / (median / 1000), baseline / median);
+        }
+    }
+}
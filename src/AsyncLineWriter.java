@@ -0,0 +1,227 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+/**
+ * Appends lines to a file from a single background thread, so callers only pay for adding a line
+ * to a queue. The writer thread keeps the file open and writes queued lines in batches, once a batch
+ * reaches 64 KB or its oldest line has waited 200 ms. A shutdown hook writes whatever is still queued
+ * before the JVM exits.
+ *
+ * <p>The queue holds at most a fixed number of lines; a caller adding a line to a full queue waits
+ * for the writer to catch up rather than dropping the line. If the writer thread stops, for
+ * instance because the file cannot be opened, callers append lines themselves and never wait.
+ * Lines are encoded in the default charset and end with {@link System#lineSeparator()}, as with a
+ * BufferedWriter over a FileWriter.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * AsyncLineWriter writer = new AsyncLineWriter(Path.of("LOGS.txt"), 8192);
+ * writer.writeLine("[2024-01-01 12:00:00] System initialized");
+ * writer.flush();                                             //Waits until the line is on disk
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class AsyncLineWriter implements Closeable {
+    private static final int BATCH_CHARS = 1 << 16;             //Write once this much text is waiting
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long FULL_QUEUE_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Path file;
+    private final int capacity;
+    private final String lineSeparator = System.lineSeparator();
+    private final ConcurrentLinkedQueue<String> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong submitted = new AtomicLong();     //Lines added by callers
+    private volatile long written;                              //Lines the writer thread has written
+    private volatile boolean flushRequested;
+    private volatile boolean closed;
+    private boolean dropping;                                   //Whether lines are being dropped; guarded by drainAfterClose
+    private final Thread writer;
+    private final Thread shutdownHook;
+
+    /**
+     * Opens a file for appending and starts its writer thread
+     *
+     * @param file - The file to append lines to, created if it does not exist
+     * @param capacity - The most lines that may wait in the queue
+     */
+    public AsyncLineWriter(Path file, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + capacity);
+        }
+        this.file = file;
+        this.capacity = capacity;
+        this.writer = new Thread(this::run, "line-writer-" + file.getFileName());
+        this.writer.setDaemon(true);
+        this.writer.start();
+        this.shutdownHook = new Thread(this::close, "line-writer-shutdown-" + file.getFileName());
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Queues a line to be appended to the file, waiting only if the queue is full. If the writer
+     * thread has stopped, because the writer was closed or the file could not be opened, the
+     * line is appended by the calling thread instead, or dropped with a message if that fails too.
+     *
+     * @param line - The line to append, without a line separator
+     */
+    public void writeLine(String line) {
+        while (true) {
+            int depth = queued.get();
+            if (depth < capacity || closed || !writer.isAlive()) {
+                if (queued.compareAndSet(depth, depth + 1)) {
+                    break;                                      //A place in the queue is reserved
+                }
+            } else {
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(this, FULL_QUEUE_WAIT_NANOS);
+            }
+        }
+        queue.offer(line);
+        submitted.incrementAndGet();
+        if (!writer.isAlive()) {
+            drainAfterClose();                                  //The writer thread has finished or failed
+        }
+    }
+
+    /**
+     * Waits until every line queued before this call has been written to the file
+     */
+    public void flush() {
+        long target = submitted.get();
+        while (written < target && writer.isAlive()) {
+            flushRequested = true;
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(this, FULL_QUEUE_WAIT_NANOS);
+        }
+    }
+
+    /**
+     * Returns how many lines are waiting to be written
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    /**
+     * Writes every queued line, stops the writer thread and closes the file.
+     * Lines written after closing are appended directly by the calling thread.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drainAfterClose();
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // Already shutting down
+            }
+        }
+    }
+
+    private void run() {
+        try (FileChannel channel = open()) {
+            StringBuilder batch = new StringBuilder(BATCH_CHARS + 256);
+            long batchLines = 0;
+            long batchStarted = 0;
+            while (true) {
+                String line = queue.poll();
+                if (line != null) {
+                    queued.decrementAndGet();
+                    if (batch.length() == 0) {
+                        batchStarted = System.nanoTime();
+                    }
+                    batch.append(line).append(lineSeparator);
+                    batchLines++;
+                    if (batch.length() >= BATCH_CHARS) {
+                        writeBatch(channel, batch, batchLines);
+                        batchLines = 0;
+                    }
+                    continue;
+                }
+                long waited = System.nanoTime() - batchStarted;
+                if (batch.length() > 0 && (flushRequested || closed || waited >= FLUSH_INTERVAL_NANOS)) {
+                    writeBatch(channel, batch, batchLines);
+                    batchLines = 0;
+                    continue;
+                }
+                if (closed) {
+                    return;
+                }
+                flushRequested = false;                         //Everything requested so far is written
+                LockSupport.parkNanos(this, batch.length() > 0 ? FLUSH_INTERVAL_NANOS - waited : FLUSH_INTERVAL_NANOS);
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing to " + file + ": " + e.getMessage());
+        }
+    }
+
+    private FileChannel open() throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void writeBatch(FileChannel channel, StringBuilder batch, long batchLines) {
+        ByteBuffer bytes = ByteBuffer.wrap(batch.toString().getBytes(Charset.defaultCharset()));
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing to " + file + ": " + e.getMessage());
+        }
+        batch.setLength(0);
+        written += batchLines;                                  //Only the writer thread updates this
+    }
+
+    /**
+     * Appends any lines left in the queue once the writer thread has stopped, dropping them if
+     * the file cannot be opened
+     */
+    private synchronized void drainAfterClose() {
+        if (queue.isEmpty()) {
+            return;
+        }
+        try (FileChannel channel = open()) {
+            StringBuilder batch = new StringBuilder();
+            long batchLines = 0;
+            String line;
+            while ((line = queue.poll()) != null) {
+                queued.decrementAndGet();
+                batch.append(line).append(lineSeparator);
+                batchLines++;
+            }
+            writeBatch(channel, batch, batchLines);
+        } catch (IOException e) {
+            while (queue.poll() != null) {
+                queued.decrementAndGet();
+            }
+            if (!dropping) {
+                System.err.println("Error writing to " + file + ": " + e.getMessage() + "; dropping lines");
+            }
+            dropping = true;                                    //Report once, not once per line
+            return;
+        }
+        dropping = false;
+    }
+}
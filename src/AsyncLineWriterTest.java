@@ -0,0 +1,54 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class AsyncLineWriterTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testFlushAndCloseWriteEveryLineInOrder() throws Exception {
+        Path file = tempDir.resolve("LOGS.txt");
+        AsyncLineWriter writer = new AsyncLineWriter(file, 4);
+        for (int i = 0; i < 100; i++) {
+            writer.writeLine("line " + i);
+        }
+        writer.flush();
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(100, lines.size());
+        assertEquals("line 0", lines.get(0));
+        assertEquals("line 99", lines.get(99));
+
+        writer.writeLine("before close");
+        writer.close();
+        writer.writeLine("after close");                       //Appended by the calling thread
+        lines = Files.readAllLines(file);
+        assertEquals(102, lines.size());
+        assertEquals("before close", lines.get(100));
+        assertEquals("after close", lines.get(101));
+        assertEquals(0, writer.getQueueDepth());
+    }
+
+    @Test
+    void testUnopenableFileNeverBlocksCallers() throws Exception {
+        Path file = tempDir.resolve("missing").resolve("LOGS.txt");
+        AsyncLineWriter writer = new AsyncLineWriter(file, 4);
+        Thread caller = new Thread(() -> {
+            for (int i = 0; i < 1000; i++) {
+                writer.writeLine("line " + i);
+            }
+            writer.flush();
+        });
+        caller.start();
+        caller.join(10000);
+
+        assertFalse(caller.isAlive());                         //Still waiting means writeLine blocked
+        assertTrue(writer.getQueueDepth() <= 4);
+        assertFalse(Files.exists(file));
+        writer.close();
+    }
+}
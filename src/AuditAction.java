@@ -0,0 +1,24 @@
+/**
+ * The user actions recorded in the audit log
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public enum AuditAction {
+    LOGIN,                                                      //A user opened their console
+    LOGOUT,                                                     //A user left their console
+    CREATE_USER,                                                //An administrator added a user
+    UPDATE_USER,                                                //An administrator changed a user's info
+    DELETE_USER,                                                //An administrator removed a user
+    TRACK_OBJECTS,                                              //A scientist listed objects of one type
+    TRACK_LEO,                                                  //A scientist listed objects in low Earth orbit
+    QUERY_OBJECTS,                                              //A scientist listed the objects matching a query
+    ASSESS_ORBIT,                                               //A scientist assessed which objects are still in orbit
+    ASSESS_RISK,                                                //A scientist assessed the risk level of objects
+    ASSESS_ALL,                                                 //A scientist assessed risk level and orbit status together
+    EXPORT_METRICS,                                             //Updated metrics were written to disk
+    ANALYZE_IMPACT,                                             //A representative analyzed long-term impact
+    DENSITY_REPORT,                                             //A representative generated a density report
+    AREA_QUERY                                                  //A representative listed the objects in an area
+}
@@ -0,0 +1,295 @@
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+/**
+ * One entry of the audit log: which user performed which action, when, for how long and with
+ * which parameters. Events are stored as single-line JSON objects, for example
+ * <pre>
+ * {"timestamp":1760716800000,"user":"S","role":"Scientist","action":"TRACK_OBJECTS","durationMillis":12,"parameters":{"objectType":"DEBRIS"}}
+ * </pre>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class AuditEvent {
+    private final long timestamp;
+    private final String user;
+    private final String role;
+    private final AuditAction action;
+    private final long durationMillis;
+    private final Map<String, String> parameters;
+
+    /**
+     * Constructs an audit event
+     *
+     * @param timestamp - When the action started, in milliseconds since the epoch
+     * @param user - The name of the user who performed the action
+     * @param role - The role of the user, such as "Scientist"
+     * @param action - The action performed
+     * @param durationMillis - How long the action took
+     * @param parameters - The inputs of the action, by name
+     */
+    public AuditEvent(long timestamp, String user, String role, AuditAction action, long durationMillis,
+                      Map<String, String> parameters) {
+        if (user == null || action == null) {
+            throw new IllegalArgumentException("An audit event needs a user and an action");
+        }
+        this.timestamp = timestamp;
+        this.user = user;
+        this.role = role;
+        this.action = action;
+        this.durationMillis = durationMillis;
+        this.parameters = Collections.unmodifiableMap(new LinkedHashMap<>(parameters));
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public AuditAction getAction() {
+        return action;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Returns the parameters of the action in the order they were given
+     */
+    public Map<String, String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Formats this event as a single line of JSON
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"timestamp\":").append(timestamp);
+        json.append(",\"user\":");
+        appendString(json, user);
+        json.append(",\"role\":");
+        appendString(json, role);
+        json.append(",\"action\":\"").append(action.name());
+        json.append("\",\"durationMillis\":").append(durationMillis);
+        json.append(",\"parameters\":{");
+        boolean first = true;
+        for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            appendString(json, parameter.getKey());
+            json.append(':');
+            appendString(json, parameter.getValue());
+            first = false;
+        }
+        return json.append("}}").toString();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Reads an event written by {@link #toJson()}
+     *
+     * @param json - One line of the audit log
+     * @return The event
+     * @throws IllegalArgumentException if the line is not a valid audit event
+     */
+    public static AuditEvent fromJson(String json) {
+        JsonReader reader = new JsonReader(json);
+        long timestamp = 0;
+        long durationMillis = 0;
+        String user = null;
+        String role = null;
+        AuditAction action = null;
+        Map<String, String> parameters = new LinkedHashMap<>();
+
+        reader.expect('{');
+        do {
+            String key = reader.readString();
+            reader.expect(':');
+            switch (key) {
+                case "timestamp":
+                    timestamp = reader.readLong();
+                    break;
+                case "user":
+                    user = reader.readString();
+                    break;
+                case "role":
+                    role = reader.readString();
+                    break;
+                case "action":
+                    action = AuditAction.valueOf(reader.readString());
+                    break;
+                case "durationMillis":
+                    durationMillis = reader.readLong();
+                    break;
+                case "parameters":
+                    reader.expect('{');
+                    if (!reader.skip('}')) {
+                        do {
+                            String name = reader.readString();
+                            reader.expect(':');
+                            parameters.put(name, reader.readString());
+                        } while (reader.skip(','));
+                        reader.expect('}');
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown audit field \"" + key + "\"");
+            }
+        } while (reader.skip(','));
+        reader.expect('}');
+        return new AuditEvent(timestamp, user, role, action, durationMillis, parameters);
+    }
+
+    @Override
+    public String toString() {
+        return Instant.ofEpochMilli(timestamp) + " " + user + " (" + role + ") " + action + " " + parameters
+               + " in " + durationMillis + "ms";
+    }
+
+    /**
+     * Reads the few JSON forms an audit event uses: strings, null, whole numbers and punctuation
+     */
+    private static final class JsonReader {
+        private final String json;
+        private int pos;
+
+        JsonReader(String json) {
+            this.json = json;
+        }
+
+        private void skipSpaces() {
+            while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        boolean skip(char c) {
+            skipSpaces();
+            if (pos < json.length() && json.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void expect(char c) {
+            if (!skip(c)) {
+                throw new IllegalArgumentException("Expected '" + c + "' at " + pos + " in " + json);
+            }
+        }
+
+        long readLong() {
+            skipSpaces();
+            int start = pos;
+            if (pos < json.length() && json.charAt(pos) == '-') {
+                pos++;
+            }
+            while (pos < json.length() && Character.isDigit(json.charAt(pos))) {
+                pos++;
+            }
+            try {
+                return Long.parseLong(json.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Expected a number at " + start + " in " + json, e);
+            }
+        }
+
+        String readString() {
+            skipSpaces();
+            if (json.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (pos < json.length()) {
+                char c = json.charAt(pos++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (pos >= json.length()) {
+                    break;
+                }
+                char escaped = json.charAt(pos++);
+                switch (escaped) {
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'u':
+                        if (pos + 4 > json.length()) {
+                            throw new IllegalArgumentException("Truncated escape in " + json);
+                        }
+                        value.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default:
+                        value.append(escaped);                  //  \" \\ and \/
+                }
+            }
+            throw new IllegalArgumentException("Unterminated string in " + json);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+/**
+ * An append-only log of {@link AuditEvent}s, written as one JSON object per line into numbered
+ * segment files. Once a segment reaches its size limit it is closed, its index is written beside
+ * it, and a new segment is started; see {@link AuditLogReader} for the file layout and queries.
+ *
+ * <p>Events are buffered and written in blocks of 64 KB, and whatever is buffered is written when
+ * the log is flushed, queried or closed, including by a shutdown hook when the JVM exits. Segments
+ * left without an index by an earlier run are indexed when the log is opened.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * AuditLog audit = new AuditLog(Path.of("audit"));
+ * audit.record(new AuditEvent(System.currentTimeMillis(), "S", "Scientist", AuditAction.TRACK_OBJECTS,
+ *                             12, Map.of("objectType", "DEBRIS")));
+ * List&lt;AuditEvent&gt; events = audit.query("S", 0, Long.MAX_VALUE);
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class AuditLog implements Closeable {
+    public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private final Thread shutdownHook = new Thread(this::closeQuietly, "audit-log-shutdown");
+    private int segmentNumber;
+    private Path segment;
+    private FileChannel channel;
+    private long segmentSize;                                   //Bytes in the segment, including buffered ones
+    private AuditLogReader.SegmentIndex.Builder index;
+    private boolean closed;
+
+    /**
+     * Opens the audit log in a directory with segments of up to 64 MB
+     *
+     * @param directory - The directory holding the log, created if needed
+     * @throws IOException if the directory or a new segment cannot be created
+     */
+    public AuditLog(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Opens the audit log in a directory
+     *
+     * @param directory - The directory holding the log, created if needed
+     * @param segmentBytes - The size at which a segment is closed and a new one started
+     * @throws IOException if the directory or a new segment cannot be created
+     */
+    public AuditLog(Path directory, long segmentBytes) throws IOException {
+        if (segmentBytes <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive: " + segmentBytes);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        for (Path existing : AuditLogReader.listSegments(directory)) {
+            segmentNumber = Math.max(segmentNumber, AuditLogReader.segmentNumber(existing));
+            if (!Files.exists(AuditLogReader.indexOf(existing))) {
+                AuditLogReader.buildIndex(existing).write(AuditLogReader.indexOf(existing));
+            }
+        }
+        startSegment();
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    private void startSegment() throws IOException {
+        segmentNumber++;
+        segment = AuditLogReader.segmentPath(directory, segmentNumber);
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentSize = 0;
+        index = new AuditLogReader.SegmentIndex.Builder();
+    }
+
+    /**
+     * Appends an event to the log
+     *
+     * @param event - The event to record
+     * @throws IOException if the event cannot be written
+     */
+    public synchronized void record(AuditEvent event) throws IOException {
+        if (closed) {
+            throw new IOException("Audit log " + directory + " is closed");
+        }
+        byte[] line = (event.toJson() + "\n").getBytes(StandardCharsets.UTF_8);
+        index.add(event.getUser().hashCode(), event.getTimestamp(), segmentSize);
+        if (line.length > buffer.remaining()) {
+            writeBuffer();
+        }
+        if (line.length > buffer.capacity()) {
+            write(ByteBuffer.wrap(line));
+        } else {
+            buffer.put(line);
+        }
+        segmentSize += line.length;
+        if (segmentSize >= segmentBytes) {
+            finishSegment();
+            startSegment();
+        }
+    }
+
+    /**
+     * Finds every event of a user within a time window, including events not yet flushed
+     *
+     * @param user - The user name
+     * @param from - The earliest timestamp, inclusive, in milliseconds since the epoch
+     * @param to - The latest timestamp, inclusive, in milliseconds since the epoch
+     * @return The matching events in timestamp order
+     * @throws IOException if the log cannot be read
+     */
+    public synchronized List<AuditEvent> query(String user, long from, long to) throws IOException {
+        if (!closed) {
+            writeBuffer();
+        }
+        return new AuditLogReader(directory).query(user, from, to, closed ? null : segment,
+                                                   closed ? null : index.build());
+    }
+
+    /**
+     * Writes every buffered event to the current segment
+     *
+     * @throws IOException if the events cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        if (!closed) {
+            writeBuffer();
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+    }
+
+    private void write(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * Writes out and closes the current segment, then writes its index
+     */
+    private void finishSegment() throws IOException {
+        writeBuffer();
+        channel.close();
+        if (index.size() == 0) {
+            Files.deleteIfExists(segment);                      //Nothing was recorded in it
+        } else {
+            index.write(AuditLogReader.indexOf(segment));
+        }
+    }
+
+    /**
+     * Writes any buffered events, indexes the current segment and closes the log
+     *
+     * @throws IOException if the segment or its index cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        finishSegment();
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // Already shutting down
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            System.err.println("Error closing audit log: " + e.getMessage());
+        }
+    }
+}
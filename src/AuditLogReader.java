@@ -0,0 +1,384 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+/**
+ * Answers questions such as "every action by user U between T1 and T2" from the segments of an
+ * audit log without reading the events of other users or other times.
+ *
+ * <p>The log is a directory of numbered segments, {@code audit-000001.jsonl} and so on, each holding
+ * one JSON event per line. Every finished segment has an index file beside it,
+ * {@code audit-000001.idx}, recording the segment's earliest and latest timestamps and, for each event,
+ * the hash of its user name, its timestamp and its byte offset, sorted by user hash then time. A query
+ * skips segments outside the time window, binary-searches each remaining index for the user and reads
+ * only the matching lines. A segment without an index, such as one left by a crash, is scanned.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * AuditLogReader reader = new AuditLogReader(Path.of("audit"));
+ * long now = System.currentTimeMillis();
+ * List&lt;AuditEvent&gt; lastDay = reader.query("S", now - 86_400_000L, now);
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class AuditLogReader {
+    static final String SEGMENT_PREFIX = "audit-";
+    static final String SEGMENT_SUFFIX = ".jsonl";
+    static final String INDEX_SUFFIX = ".idx";
+
+    private final Path directory;
+
+    /**
+     * Constructs a reader for the audit log in a directory
+     *
+     * @param directory - The directory holding the log's segments
+     */
+    public AuditLogReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Finds every event of a user within a time window
+     *
+     * @param user - The user name
+     * @param from - The earliest timestamp, inclusive, in milliseconds since the epoch
+     * @param to - The latest timestamp, inclusive, in milliseconds since the epoch
+     * @return The matching events in timestamp order
+     * @throws IOException if the log cannot be read
+     */
+    public List<AuditEvent> query(String user, long from, long to) throws IOException {
+        return query(user, from, to, null, null);
+    }
+
+    /**
+     * Finds every event of a user within a time window, using an index kept in memory for a
+     * segment that is still being written
+     */
+    List<AuditEvent> query(String user, long from, long to, Path openSegment, SegmentIndex openIndex)
+            throws IOException {
+        List<AuditEvent> events = new ArrayList<>();
+        int userHash = user.hashCode();
+        for (Path segment : listSegments(directory)) {
+            SegmentIndex index;
+            if (segment.equals(openSegment)) {
+                index = openIndex;
+            } else {
+                Path indexFile = indexOf(segment);
+                index = Files.exists(indexFile) ? SegmentIndex.read(indexFile) : null;
+            }
+            if (index == null) {
+                scan(segment, user, from, to, events);
+            } else if (index.getCount() > 0 && index.getMaxTimestamp() >= from && index.getMinTimestamp() <= to) {
+                readAt(segment, index.find(userHash, from, to), user, events);
+            }
+        }
+        events.sort(Comparator.comparingLong(AuditEvent::getTimestamp));
+        return events;
+    }
+
+    private static void readAt(Path segment, long[] offsets, String user, List<AuditEvent> events) throws IOException {
+        if (offsets.length == 0) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            for (long offset : offsets) {
+                String line = readLine(channel, offset, buffer);
+                AuditEvent event = AuditEvent.fromJson(line);
+                if (event.getUser().equals(user)) {                //Different users can share a hash
+                    events.add(event);
+                }
+            }
+        }
+    }
+
+    private static String readLine(FileChannel channel, long offset, ByteBuffer buffer) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        long position = offset;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            byte[] bytes = buffer.array();
+            for (int i = 0; i < read; i++) {
+                if (bytes[i] == '\n') {
+                    line.write(bytes, 0, i);
+                    return line.toString(StandardCharsets.UTF_8);
+                }
+            }
+            line.write(bytes, 0, read);
+            position += read;
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void scan(Path segment, String user, long from, long to, List<AuditEvent> events) throws IOException {
+        forEachEvent(segment, (offset, event) -> {
+            if (event.getUser().equals(user) && event.getTimestamp() >= from && event.getTimestamp() <= to) {
+                events.add(event);
+            }
+        });
+    }
+
+    /**
+     * Receives each event of a segment with its byte offset
+     */
+    interface EventVisitor {
+        void visit(long offset, AuditEvent event);
+    }
+
+    /**
+     * Reads every complete event of a segment in file order, skipping any line that cannot be parsed,
+     * such as one cut short by a crash
+     */
+    static void forEachEvent(Path segment, EventVisitor visitor) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(segment), 1 << 16)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long offset = 0;
+            long lineStart = 0;
+            int b;
+            while ((b = in.read()) >= 0) {
+                offset++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                try {
+                    visitor.visit(lineStart, AuditEvent.fromJson(line.toString(StandardCharsets.UTF_8)));
+                } catch (IllegalArgumentException e) {
+                    // Not a complete event
+                }
+                line.reset();
+                lineStart = offset;
+            }
+        }
+    }
+
+    /**
+     * Builds the index of a segment by scanning it
+     */
+    static SegmentIndex.Builder buildIndex(Path segment) throws IOException {
+        SegmentIndex.Builder builder = new SegmentIndex.Builder();
+        forEachEvent(segment, (offset, event) -> builder.add(event.getUser().hashCode(), event.getTimestamp(), offset));
+        return builder;
+    }
+
+    /**
+     * Lists the segments of a log in the order they were written
+     */
+    static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                if (segmentNumber(file) >= 0) {
+                    segments.add(file);
+                }
+            }
+        }
+        segments.sort(Comparator.comparingInt(AuditLogReader::segmentNumber));
+        return segments;
+    }
+
+    /**
+     * Returns the number of a segment, or -1 if the file is not named like a segment
+     */
+    static int segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    static Path segmentPath(Path directory, int number) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    static Path indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return segment.resolveSibling(name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    /**
+     * The index of one segment: a header with the segment's event count and time range, then one
+     * fixed-width entry per event of [int user hash][long timestamp][long byte offset], sorted by
+     * user hash, then timestamp, then offset
+     */
+    static final class SegmentIndex {
+        private static final int MAGIC = 0x41554458;            //"AUDX"
+        private static final int VERSION = 1;
+        private static final int HEADER_BYTES = 28;
+        private static final int ENTRY_BYTES = 20;
+
+        private final ByteBuffer data;
+        private final int count;
+        private final long minTimestamp;
+        private final long maxTimestamp;
+
+        private SegmentIndex(ByteBuffer data) {
+            if (data.limit() < HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+                throw new IllegalArgumentException("Not an audit index");
+            }
+            this.data = data;
+            this.minTimestamp = data.getLong(8);
+            this.maxTimestamp = data.getLong(16);
+            this.count = data.getInt(24);
+            if ((long) HEADER_BYTES + (long) count * ENTRY_BYTES > data.limit()) {
+                throw new IllegalArgumentException("Truncated audit index");
+            }
+        }
+
+        /**
+         * Maps an index file written by {@link Builder#write(Path)}
+         */
+        static SegmentIndex read(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                return new SegmentIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupt audit index " + file + ": " + e.getMessage(), e);
+            }
+        }
+
+        int getCount() {
+            return count;
+        }
+
+        long getMinTimestamp() {
+            return minTimestamp;
+        }
+
+        long getMaxTimestamp() {
+            return maxTimestamp;
+        }
+
+        private int hashAt(int entry) {
+            return data.getInt(HEADER_BYTES + entry * ENTRY_BYTES);
+        }
+
+        private long timestampAt(int entry) {
+            return data.getLong(HEADER_BYTES + entry * ENTRY_BYTES + 4);
+        }
+
+        private long offsetAt(int entry) {
+            return data.getLong(HEADER_BYTES + entry * ENTRY_BYTES + 12);
+        }
+
+        /**
+         * Finds the offsets of the events of one user hash within a time window
+         *
+         * @return The offsets in timestamp order
+         */
+        long[] find(int userHash, long from, long to) {
+            int low = 0;
+            int high = count;
+            while (low < high) {                                //First entry not before (userHash, from)
+                int mid = (low + high) >>> 1;
+                int hash = hashAt(mid);
+                if (hash < userHash || (hash == userHash && timestampAt(mid) < from)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            long[] offsets = new long[16];
+            int found = 0;
+            for (int entry = low; entry < count && hashAt(entry) == userHash && timestampAt(entry) <= to; entry++) {
+                if (found == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, found * 2);
+                }
+                offsets[found++] = offsetAt(entry);
+            }
+            return Arrays.copyOf(offsets, found);
+        }
+
+        /**
+         * Collects the index entries of a segment as its events are appended
+         */
+        static final class Builder {
+            private int[] hashes = new int[1024];
+            private long[] timestamps = new long[1024];
+            private long[] offsets = new long[1024];
+            private int size;
+
+            void add(int userHash, long timestamp, long offset) {
+                if (size == hashes.length) {
+                    hashes = Arrays.copyOf(hashes, size * 2);
+                    timestamps = Arrays.copyOf(timestamps, size * 2);
+                    offsets = Arrays.copyOf(offsets, size * 2);
+                }
+                hashes[size] = userHash;
+                timestamps[size] = timestamp;
+                offsets[size] = offset;
+                size++;
+            }
+
+            int size() {
+                return size;
+            }
+
+            /**
+             * Sorts the entries collected so far into an index
+             */
+            SegmentIndex build() {
+                Integer[] order = new Integer[size];
+                for (int i = 0; i < size; i++) {
+                    order[i] = i;
+                }
+                Arrays.sort(order, Comparator.<Integer>comparingInt(i -> hashes[i])
+                                             .thenComparingLong(i -> timestamps[i])
+                                             .thenComparingLong(i -> offsets[i]));
+                long min = Long.MAX_VALUE;
+                long max = Long.MIN_VALUE;
+                ByteBuffer data = ByteBuffer.allocate(HEADER_BYTES + size * ENTRY_BYTES);
+                data.position(HEADER_BYTES);
+                for (int i : order) {
+                    data.putInt(hashes[i]).putLong(timestamps[i]).putLong(offsets[i]);
+                    min = Math.min(min, timestamps[i]);
+                    max = Math.max(max, timestamps[i]);
+                }
+                data.putInt(0, MAGIC).putInt(4, VERSION).putLong(8, min).putLong(16, max).putInt(24, size);
+                data.clear();
+                return new SegmentIndex(data);
+            }
+
+            /**
+             * Writes the sorted index to a file, replacing it only once it is complete
+             */
+            void write(Path file) throws IOException {
+                ByteBuffer data = build().data.duplicate();
+                data.clear();
+                Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+                try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    while (data.hasRemaining()) {
+                        channel.write(data);
+                    }
+                }
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+    }
+}
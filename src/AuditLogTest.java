@@ -0,0 +1,69 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+public class AuditLogTest {
+    @TempDir
+    Path tempDir;
+
+    private static AuditEvent event(long timestamp, String user, AuditAction action) {
+        return new AuditEvent(timestamp, user, "Scientist", action, 3, Map.of("objectType", "DEBRIS"));
+    }
+
+    @Test
+    void testEventJsonRoundTrip() {
+        AuditEvent event = new AuditEvent(1000, "S \"Quoted\"", null, AuditAction.CREATE_USER, 0,
+                                          Map.of("userName", "line\nbreak\\"));
+        AuditEvent read = AuditEvent.fromJson(event.toJson());
+
+        assertEquals(event.toJson(), read.toJson());
+        assertEquals("S \"Quoted\"", read.getUser());
+        assertNull(read.getRole());
+        assertEquals("line\nbreak\\", read.getParameters().get("userName"));
+    }
+
+    @Test
+    void testQueryByUserAndTimeAcrossSegments() throws IOException {
+        Path directory = tempDir.resolve("audit");
+        List<Long> expected = List.of(120L, 150L, 180L, 210L, 240L, 270L, 300L);
+        try (AuditLog log = new AuditLog(directory, 1024)) {
+            for (int i = 0; i < 100; i++) {
+                log.record(event(i * 10, i % 3 == 0 ? "A" : "B", AuditAction.TRACK_OBJECTS));
+            }
+            assertEquals(expected, timestamps(log.query("A", 100, 300)));
+        }
+        assertTrue(AuditLogReader.listSegments(directory).size() > 1);
+
+        AuditLogReader reader = new AuditLogReader(directory);
+        assertEquals(expected, timestamps(reader.query("A", 100, 300)));
+        assertTrue(reader.query("C", 0, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void testMissingIndexIsRebuiltOnOpen() throws IOException {
+        Path directory = tempDir.resolve("audit");
+        try (AuditLog log = new AuditLog(directory)) {
+            log.record(event(10, "A", AuditAction.LOGIN));
+            log.record(event(20, "A", AuditAction.LOGOUT));
+        }
+        Path segment = AuditLogReader.listSegments(directory).get(0);
+        Files.delete(AuditLogReader.indexOf(segment));
+        assertEquals(List.of(10L, 20L), timestamps(new AuditLogReader(directory).query("A", 0, 100)));
+
+        try (AuditLog log = new AuditLog(directory)) {
+            assertTrue(Files.exists(AuditLogReader.indexOf(segment)));
+            log.record(event(30, "A", AuditAction.LOGIN));
+            assertEquals(List.of(10L, 20L, 30L), timestamps(log.query("A", 0, 100)));
+        }
+    }
+
+    private static List<Long> timestamps(List<AuditEvent> events) {
+        return events.stream().map(AuditEvent::getTimestamp).toList();
+    }
+}
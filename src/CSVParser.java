@@ -3,9 +3,22 @@ import java.io.BufferedWriter;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 /**
  * Used for reading a list of entries from a file which are stored in Comma Separated Value format
  * while allowing for entries to contain escaped commas so long as they are enclosed in double quotes.
@@ -15,7 +28,12 @@ import java.util.List;
  * @version 1.0
  */
 public class CSVParser {
-    private static HashMap<String, Integer> headers;
+    private static final String METRICS_HEADER = "record_id,norad_cat_id,satellite_name,country,approximate_orbit_type,object_type,launch_year,launch_site,longitude,avg_longitude,geohash,HRR_Category,is_nominated,nominated_at,has_dossier,last_updated_at,justification,focused_analysis,days_old,conjunction_count,is_unk_object,all_maneuvers,days_since_ob,recent_maneuvers,deltaV_90day,has_sister_debris,still_in_orbit,risk_level";
+    private RowBinder binder;                       //Column layout of the most recently read header
+    private ParseErrorPolicy parseErrorPolicy = new ParseErrorPolicy();
+    private CatalogDictionaries dictionaries = new CatalogDictionaries();
+    private static final MetricsRegistry.Timer LOAD_TIMER = MetricsRegistry.global().timer("csv.load", "rows");
+    private static final MetricsRegistry.Timer EXPORT_TIMER = MetricsRegistry.global().timer("csv.export", "bytes");
     /**
      * Parses a String of data from a CSV file into a list of fields, allowing for
      * escaped commas which are enclosed by double quotes
@@ -46,47 +64,38 @@ public class CSVParser {
     }
 
     /**
-     * Creates a new Space Object from the data in the fields, indexed to our CSV file
+     * Creates a new Space Object from the data in the fields, indexed to the header of
+     * the file this parser most recently read
      * 
      * @param fields - The list of fields derived from the file
      * @return A new Space Object with the given attributes
      */
-    public static SpaceObject spaceObjectFromEntry(List<String> fields){
-        // Basic attributes for identification and location
-        String recordID = getField(fields, "record_id");
-        String sattelliteName = getField(fields, "satellite_name");
-        String country = getField(fields, "country");
-        String orbitType = getField(fields, "approximate_orbit_type");
-        String object_type = getField(fields, "object_type");
-        int launchYear = Integer.parseInt(getField(fields, "launch_year"));
-        String launchSite = getField(fields, "launch_site");
-        double longitude = Double.parseDouble(getField(fields, "longitude"));
-        double averageLongitude = Double.parseDouble(getField(fields, "avg_longitude"));
-        String geohash = getField(fields, "geohash");
-        String hrr_category = getField(fields, "HRR_Category");
-
-        // Analytical metrics
-        int daysOld = Integer.parseInt(getField(fields, "days_old"));
-        long conjunctionCount = Long.parseLong(getField(fields, "conjunction_count"));
-
-        return new SpaceObject(recordID, sattelliteName, country, orbitType, object_type,
-                            launchYear, launchSite, longitude, averageLongitude,
-                            geohash, daysOld, conjunctionCount,hrr_category);
+    public SpaceObject spaceObjectFromEntry(List<String> fields){
+        return binder.bind(fields);
     }
 
     /**
-     * Retrieves the data from a column with name columneName from a list of fields
+     * Sets what happens when a numeric cell cannot be parsed in files read from now on
      * 
-     * @param fields - A list of data arrayed in columns, mapped to their header name
-     * @param columnName - The header name that provides the key
-     * @return - The data at the index which matches that of the columnName in headers
+     * @param parseErrorPolicy - The policy for malformed numeric cells
      */
-    private static String getField(List<String> fields, String columnName) {
-        Integer index = headers.get(columnName.toLowerCase());
-        if (index == null || index >= fields.size()) {
-            return "";
-        }
-        return fields.get(index);
+    public void setParseErrorPolicy(ParseErrorPolicy parseErrorPolicy) {
+        this.parseErrorPolicy = parseErrorPolicy;
+    }
+
+    /**
+     * Returns the policy for malformed numeric cells, including the errors it has recorded
+     */
+    public ParseErrorPolicy getParseErrorPolicy() {
+        return parseErrorPolicy;
+    }
+
+    /**
+     * Returns the dictionaries that share the values of low-cardinality columns across every
+     * Space Object this parser creates
+     */
+    public CatalogDictionaries getDictionaries() {
+        return dictionaries;
     }
 
     /**
@@ -97,23 +106,24 @@ public class CSVParser {
      * @return A list of all the created objects
      */
     public List<SpaceObject> readCsvFile(String filename) {
+        long startTime = System.nanoTime();
         List<SpaceObject> entries = new ArrayList<>();                                 //Fields are stored as a list of Strings
 
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {   
             String headerLine = reader.readLine();
-            List<String> headerFields = parseLine(headerLine); 
-
-            headers = new HashMap<>();                                                 
-            for (int i = 0; i < headerFields.size(); i++) {
-                String currHeader = headerFields.get(i);                          
-                headers.put(currHeader.toLowerCase(), i);                              //Parses the header line into a list of fields, mapped to integers
-            }
+            RowBinder rowBinder = RowBinder.compile(parseLine(headerLine),            //Resolves the header once into column indexes
+                                                    parseErrorPolicy, dictionaries);
+            binder = rowBinder;
         
             String line;
             while ((line = reader.readLine()) != null) {
                 List<String> entry = parseLine(line);
-                entries.add(spaceObjectFromEntry(entry));                              //Adds current entry to the list of Space Objects
+                SpaceObject object = rowBinder.bind(entry);
+                if (object != null) {                                                  //Rows with malformed cells may be skipped
+                    entries.add(object);                                               //Adds current entry to the list of Space Objects
+                }
             }
+            LOAD_TIMER.recordSince(startTime, entries.size());
         } catch (IOException e) {
             System.err.println("Error reading file: " + e.getMessage());
         }
@@ -121,6 +131,118 @@ public class CSVParser {
         return entries;
     }
 
+    /**
+     * Reads a CSV file through a memory mapping instead of line by line. Only the columns needed to
+     * build a Space Object are decoded; every other field is skipped over as raw bytes.
+     * Trims the Byte Order Marker from the first line of the file if present
+     * 
+     * @param filename - The given file where the data is stored
+     * @return A list of all the created objects
+     */
+    public List<SpaceObject> readCsvFileMapped(String filename) {
+        long startTime = System.nanoTime();
+        List<SpaceObject> entries = new ArrayList<>();
+
+        try (MappedCsvReader reader = MappedCsvReader.open(Path.of(filename))) {
+            RowBinder rowBinder = RowBinder.compile(reader.readHeader(), parseErrorPolicy, dictionaries);
+            binder = rowBinder;
+            while (reader.nextRecord()) {
+                SpaceObject object = rowBinder.bind(reader);
+                if (object != null) {
+                    entries.add(object);
+                }
+            }
+            LOAD_TIMER.recordSince(startTime, entries.size());
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+        }
+
+        return entries;
+    }
+
+    /**
+     * Streams the Space Objects in a CSV file one record at a time, without holding the catalog in memory.
+     * Records are read from a memory mapping as the stream is consumed, so the stream must be closed
+     * when done, preferably with try-with-resources.
+     * 
+     * @param filename - The given file where the data is stored
+     * @return A sequential stream of the created objects in file order
+     */
+    public Stream<SpaceObject> streamCsvFile(String filename) {
+        MappedCsvReader reader;
+        RowBinder rowBinder;
+        try {
+            reader = MappedCsvReader.open(Path.of(filename));
+            rowBinder = RowBinder.compile(reader.readHeader(), parseErrorPolicy, dictionaries);
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            return Stream.empty();
+        }
+        binder = rowBinder;
+
+        Iterator<SpaceObject> records = new Iterator<SpaceObject>() {
+            private SpaceObject nextObject;                                            //Read but not yet returned
+            private boolean done;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    while (nextObject == null && !done) {
+                        done = !reader.nextRecord();
+                        if (!done) {
+                            nextObject = rowBinder.bind(reader);                       //Null when a malformed row is skipped
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return nextObject != null;
+            }
+
+            @Override
+            public SpaceObject next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                SpaceObject object = nextObject;
+                nextObject = null;
+                return object;
+            }
+        };
+
+        Spliterator<SpaceObject> spliterator = Spliterators.spliteratorUnknownSize(records,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Reads a CSV file through memory mappings, splitting it into chunks that are parsed
+     * in parallel and then merged back together in file order
+     * 
+     * @param filename - The given file where the data is stored
+     * @param threads - The number of worker threads to parse with
+     * @return A list of all the created objects
+     */
+    public List<SpaceObject> readCsvFileParallel(String filename, int threads) {
+        long startTime = System.nanoTime();
+        try {
+            ParallelCsvLoader loader = new ParallelCsvLoader(threads, parseErrorPolicy, dictionaries);
+            List<SpaceObject> entries = loader.load(Path.of(filename));
+            binder = loader.getBinder();
+            LOAD_TIMER.recordSince(startTime, entries.size());
+            return entries;
+        } catch (IOException e) {
+            System.err.println("Error reading file: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
     /**
      * Writes a formatted header followed by a CSV formatted list of entries into a new CSV file
      * 
@@ -128,21 +250,110 @@ public class CSVParser {
      * @param filename - The name of the newly created CSV file
      */
     public void writeRecordsToCsv(List<SpaceObject> records, String filename){
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
-            // Write header
-            writer.write("record_id,norad_cat_id,satellite_name,country,approximate_orbit_type,object_type,launch_year,launch_site,longitude,avg_longitude,geohash,HRR_Category,is_nominated,nominated_at,has_dossier,last_updated_at,justification,focused_analysis,days_old,conjunction_count,is_unk_object,all_maneuvers,days_since_ob,recent_maneuvers,deltaV_90day,has_sister_debris,still_in_orbit,risk_level");
-            writer.newLine();
-
-            // Write each record
-            for (SpaceObject object : records) {
-                writer.write(object.toCsvMetrics());
+        long startTime = System.nanoTime();
+        try {
+            CsvRecordWriter writer = new CsvRecordWriter(filename);
+            try (writer) {
+                // Write header
+                writer.append(METRICS_HEADER);
                 writer.newLine();
+
+                // Write each record straight into the writer's buffer, as toCsvMetrics() would format it
+                for (SpaceObject object : records) {
+                    object.writeCsvMetrics(writer);
+                    writer.newLine();
+                }
             }
+            EXPORT_TIMER.recordSince(startTime, writer.getBytesWritten());
         }catch(IOException e){
             System.out.println(e);
         }
     }
 
+    /**
+     * Adds records to the end of a CSV file in the format of writeRecordsToCsv, writing the
+     * header first if the file does not exist yet
+     * 
+     * @param records - The records to be added
+     * @param filename - The name of the CSV file
+     * @throws IOException if the file cannot be written
+     */
+    public void appendRecordsToCsv(List<SpaceObject> records, String filename) throws IOException {
+        Path file = Paths.get(filename);
+        boolean newFile = !Files.exists(file);
+        long startTime = System.nanoTime();
+        CsvRecordWriter writer = new CsvRecordWriter(file, true);
+        try (writer) {
+            if (newFile) {
+                writer.append(METRICS_HEADER);
+                writer.newLine();
+            }
+            for (SpaceObject object : records) {
+                object.writeCsvMetrics(writer);
+                writer.newLine();
+            }
+        }
+        EXPORT_TIMER.recordSince(startTime, writer.getBytesWritten());
+    }
+
+    /**
+     * Applies a file of changed records to a file written by writeRecordsToCsv. Each row of the
+     * base file is kept as it is unless the changes hold a row with the same record ID, in which case
+     * the last such row replaces it; changed records missing from the base file are added at the end.
+     * The merged file replaces the base file only once it has been written completely.
+     * 
+     * @param filename - The base CSV file
+     * @param changesFilename - The CSV file of changed records, with a header
+     * @throws IOException if either file cannot be read or the merged file cannot be written
+     */
+    public void mergeRecordsCsv(String filename, String changesFilename) throws IOException {
+        Map<String, String> changes = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(changesFilename), Charset.defaultCharset())) {
+            reader.readLine();                                                 //Skip header
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    changes.put(firstField(line), line);                       //Later rows win
+                }
+            }
+        }
+
+        Path base = Paths.get(filename);
+        Path merged = base.resolveSibling(base.getFileName() + ".tmp");
+        try (BufferedReader reader = Files.newBufferedReader(base, Charset.defaultCharset());
+             BufferedWriter writer = Files.newBufferedWriter(merged, Charset.defaultCharset())) {
+            String line = reader.readLine();
+            if (line != null) {
+                writer.write(line);                                            //Header
+                writer.newLine();
+            }
+            while ((line = reader.readLine()) != null) {
+                String changed = line.isEmpty() ? null : changes.remove(firstField(line));
+                writer.write(changed != null ? changed : line);
+                writer.newLine();
+            }
+            for (String added : changes.values()) {
+                writer.write(added);
+                writer.newLine();
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(merged);
+            throw e;
+        }
+        Files.move(merged, base, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the first field of a CSV line, following the quoting rules of parseLine
+     */
+    private static String firstField(String line) {
+        int comma = line.indexOf(',');
+        if (line.indexOf('"') < 0 || (comma >= 0 && line.lastIndexOf('"', comma) < 0)) {
+            return comma < 0 ? line : line.substring(0, comma);                //No quotes before the first comma
+        }
+        return parseLine(line).get(0);
+    }
+
     /**
      * Writes a formatted header followed by a CSV formatted Density_Report with a unique identifier
      * 
@@ -163,4 +374,29 @@ public class CSVParser {
             System.out.println(e);
         }
     }
+
+    /**
+     * Writes a Density_Report as the entries are pulled from a stream, so the report
+     * never needs the filtered entries held in memory at once
+     * 
+     * @param filteredEntries - The stream of objects to be included in the report
+     * @param indentifier - A user chosen addition to the report name for ease of location
+     */
+    public void writeReportsToCsv(Stream<SpaceObject> filteredEntries, String indentifier){
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter("Density_Report_" + indentifier + ".csv"))){
+            writer.write("RecordID,Satellite_Name,Country,Orbit_Type,Launch_Year,Object_Type");
+            writer.newLine();
+            long count = 0;
+            Iterator<SpaceObject> objects = filteredEntries.iterator();
+            while(objects.hasNext()){
+                writer.write(objects.next().toCsvReports());
+                writer.newLine();
+                count++;
+            }
+            writer.write("Number of entries in range: " + count);
+            writer.newLine();
+        }catch(IOException e){
+            System.out.println(e);
+        }
+    }
 }
@@ -0,0 +1,158 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class CSVParserTest {
+    private static final String HEADER = "record_id,satellite_name,country,approximate_orbit_type,object_type,"
+            + "launch_year,launch_site,longitude,avg_longitude,geohash,HRR_Category,days_old,conjunction_count";
+
+    @TempDir
+    Path tempDir;
+    private CSVParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new CSVParser();
+    }
+
+    private String writeCsv(String... lines) throws IOException {
+        Path file = tempDir.resolve("metrics.csv");
+        Files.write(file, List.of(lines), StandardCharsets.UTF_8);
+        return file.toString();
+    }
+
+    @Test
+    void testParseLineKeepsQuotedCommas() {
+        List<String> fields = CSVParser.parseLine("1,\"Sat, One\",USA");
+        assertEquals(List.of("1", "Sat, One", "USA"), fields);
+    }
+
+    @Test
+    void testAllReadersAgree() throws IOException {
+        String file = writeCsv(HEADER,
+                "1,\"Sat, One\",USA,LEO,PAYLOAD,2001,KSC,45.5,44.25,\"dr5rs\",A,300,2",
+                "",
+                "2,Deb,PRC,GEO,DEBRIS,1999,JSC,-120.125,-119,9q8yy,B,16000,0");
+
+        List<SpaceObject> lines = parser.readCsvFile(file);
+        List<SpaceObject> mapped = parser.readCsvFileMapped(file);
+        List<SpaceObject> parallel = parser.readCsvFileParallel(file, 2);
+        List<SpaceObject> streamed;
+        try (Stream<SpaceObject> objects = parser.streamCsvFile(file)) {
+            streamed = objects.toList();
+        }
+
+        assertEquals(2, mapped.size());
+        for (int i = 0; i < mapped.size(); i++) {
+            assertEquals(mapped.get(i).toCsvMetrics(), lines.get(i).toCsvMetrics());
+            assertEquals(mapped.get(i).toCsvMetrics(), parallel.get(i).toCsvMetrics());
+            assertEquals(mapped.get(i).toCsvMetrics(), streamed.get(i).toCsvMetrics());
+        }
+        assertTrue(mapped.get(0).toString().startsWith("1, Sat, One, USA, LEO"));
+        assertEquals(-120.125, mapped.get(1).getLongitude());
+        assertEquals(16000, mapped.get(1).getDaysOld());
+    }
+
+    @Test
+    void testHeaderOrderIsPerFile() throws IOException {
+        Path reordered = tempDir.resolve("reordered.csv");
+        Files.write(reordered, List.of(
+                "conjunction_count,days_old,HRR_Category,geohash,avg_longitude,longitude,launch_site,"
+                        + "launch_year,object_type,approximate_orbit_type,country,satellite_name,record_id",
+                "7,10,A,g,1.5,2.5,KSC,2020,DEBRIS,LEO,USA,Sat,42"), StandardCharsets.UTF_8);
+        String file = writeCsv(HEADER, "1,Sat,USA,LEO,PAYLOAD,2001,KSC,45.5,44.25,g,A,300,2");
+
+        SpaceObject first = parser.readCsvFileMapped(reordered.toString()).get(0);
+        SpaceObject second = parser.readCsvFileMapped(file).get(0);
+        assertEquals(7, first.getConjunctionCount());
+        assertEquals(2.5, first.getLongitude());
+        assertEquals(2, second.getConjunctionCount());
+    }
+
+    @Test
+    void testMalformedRowsAreSkippedByDefault() throws IOException {
+        String file = writeCsv(HEADER,
+                "1,Sat,USA,LEO,PAYLOAD,20x1,KSC,45.5,44.25,g,A,300,2",
+                "2,Sat,USA,LEO,PAYLOAD,2001,KSC,45.5,44.25,g,A,300,2");
+
+        List<SpaceObject> entries = parser.readCsvFileMapped(file);
+        assertEquals(1, entries.size());
+        assertEquals(1, parser.getParseErrorPolicy().getErrorCount());
+        assertTrue(parser.getParseErrorPolicy().getErrors().get(0).contains("launch_year"));
+    }
+
+    @Test
+    void testMalformedCellsCanUseDefaults() throws IOException {
+        String file = writeCsv(HEADER, "1,Sat,USA,LEO,PAYLOAD,2001,KSC,abc,44.25,g,A,,2");
+        ParseErrorPolicy policy = new ParseErrorPolicy(ParseErrorPolicy.Action.USE_DEFAULT);
+        policy.setDefault(RowBinder.Column.LONGITUDE, -999);
+        parser.setParseErrorPolicy(policy);
+
+        SpaceObject object = parser.readCsvFileMapped(file).get(0);
+        assertEquals(-999, object.getLongitude());
+        assertEquals(0, object.getDaysOld());
+        assertEquals(2, policy.getErrorCount());
+    }
+
+    @Test
+    void testMalformedCellsCanFailTheLoad() throws IOException {
+        String file = writeCsv(HEADER, "1,Sat,USA,LEO,PAYLOAD,2001,KSC,45.5,44.25,g,A,300,many");
+        parser.setParseErrorPolicy(new ParseErrorPolicy(ParseErrorPolicy.Action.FAIL));
+
+        assertThrows(NumberFormatException.class, () -> parser.readCsvFileMapped(file));
+    }
+
+    @Test
+    void testWrittenRecordsMatchStringFormat() throws IOException {
+        List<SpaceObject> records = List.of(
+                new SpaceObject("1", "Sat, One", "USA", "LEO", "PAYLOAD", 2001, "KSC", 45.5, -44.123456, "dr5rs", 300, 2, "A"),
+                new SpaceObject("2", null, "PRC", null, "DEBRIS", 1999, null, 0.1 + 0.2, -0.0, null, 16000, 0, null),
+                new SpaceObject("3", "Sat-3", "FR", "GEO", "PAYLOAD", 2010, "CSG", 1e7 / 3, Double.NaN, "9q8yy", 5, -7, "B"));
+        records.get(0).setRiskLevel("High");
+        records.get(2).setStillInOrbit(true);
+        Path file = tempDir.resolve("updated.csv");
+
+        parser.writeRecordsToCsv(records, file.toString());
+
+        List<String> lines = Files.readAllLines(file, java.nio.charset.Charset.defaultCharset());
+        assertEquals(4, lines.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(records.get(i).toCsvMetrics(), lines.get(i + 1));
+        }
+    }
+
+    @Test
+    void testMergedChangesMatchFullRewrite() throws IOException {
+        List<SpaceObject> records = List.of(
+                new SpaceObject("1", "Sat-1", "USA", "LEO", "PAYLOAD", 2001, "KSC", 45.5, 44.25, "dr5rs", 300, 2, "A"),
+                new SpaceObject("2", "Sat, 2", "PRC", "GEO", "DEBRIS", 1999, "JSC", -120.125, -119, "9q8yy", 16000, 0, "B"),
+                new SpaceObject("3", "Sat-3", "FR", "MEO", "PAYLOAD", 2010, "CSG", 10, 80, "u09tu", 5, 1, "A"));
+        String base = tempDir.resolve("updated.csv").toString();
+        String changes = tempDir.resolve("updated.csv.changes").toString();
+        parser.writeRecordsToCsv(records, base);
+        assertFalse(records.get(1).isDirty());
+
+        records.get(1).setRiskLevel("Low");
+        records.get(1).setRiskLevel("High");
+        records.get(2).setStillInOrbit(true);
+        records.get(0).setStillInOrbit(false);                                 //Unchanged value
+        List<SpaceObject> changed = records.stream().filter(SpaceObject::isDirty).toList();
+        assertEquals(List.of(records.get(1), records.get(2)), changed);
+        parser.appendRecordsToCsv(List.of(records.get(1)), changes);
+        parser.appendRecordsToCsv(changed, changes);
+        parser.mergeRecordsCsv(base, changes);
+
+        String full = tempDir.resolve("full.csv").toString();
+        parser.writeRecordsToCsv(records, full);
+        assertEquals(Files.readString(Path.of(full), java.nio.charset.Charset.defaultCharset()),
+                     Files.readString(Path.of(base), java.nio.charset.Charset.defaultCharset()));
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * The dictionaries shared by every Space Object loaded into one catalog, one per
+ * low-cardinality column. Rows keep the canonical String from these dictionaries instead of
+ * their own copy, and columnar stores keep the dictionary codes.
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class CatalogDictionaries {
+    private final StringDictionary countries = new StringDictionary();
+    private final StringDictionary orbitTypes = new StringDictionary();
+    private final StringDictionary objectTypes = new StringDictionary();
+    private final StringDictionary launchSites = new StringDictionary();
+    private final StringDictionary hrrCategories = new StringDictionary();
+
+    /**
+     * Returns the dictionary for a column
+     *
+     * @param column - The column being encoded
+     * @return The dictionary for the column, or null if the column is not dictionary encoded
+     */
+    public StringDictionary forColumn(RowBinder.Column column) {
+        switch (column) {
+            case COUNTRY:
+                return countries;
+            case ORBIT_TYPE:
+                return orbitTypes;
+            case OBJECT_TYPE:
+                return objectTypes;
+            case LAUNCH_SITE:
+                return launchSites;
+            case HRR_CATEGORY:
+                return hrrCategories;
+            default:
+                return null;
+        }
+    }
+
+    public StringDictionary getCountries() {
+        return countries;
+    }
+
+    public StringDictionary getOrbitTypes() {
+        return orbitTypes;
+    }
+
+    public StringDictionary getObjectTypes() {
+        return objectTypes;
+    }
+
+    public StringDictionary getLaunchSites() {
+        return launchSites;
+    }
+
+    public StringDictionary getHrrCategories() {
+        return hrrCategories;
+    }
+}
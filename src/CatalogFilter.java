@@ -0,0 +1,386 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+/**
+ * A condition on the fields of a {@link SpaceObject}, built from comparisons on single columns
+ * combined with AND, OR and NOT. A filter can test one object at a time, and a
+ * {@link FilterEngine} evaluates it over a whole catalog as bitmaps of matching rows.
+ *
+ * <p>Text conditions ignore case. Every filter describes itself through {@link #toString()},
+ * and the engine caches the rows of each single-column condition under that description.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * CatalogFilter longTermImpact = CatalogFilter.and(
+ *         CatalogFilter.contains(RowBinder.Column.ORBIT_TYPE, "LEO"),
+ *         CatalogFilter.compare(RowBinder.Column.DAYS_OLD, CatalogFilter.Comparison.GREATER, 200),
+ *         CatalogFilter.compare(RowBinder.Column.CONJUNCTION_COUNT, CatalogFilter.Comparison.GREATER, 0));
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public abstract class CatalogFilter {
+
+    /**
+     * The comparisons a numeric condition can make
+     */
+    public enum Comparison {
+        LESS("<"),
+        LESS_OR_EQUAL("<="),
+        GREATER(">"),
+        GREATER_OR_EQUAL(">="),
+        EQUAL("="),
+        NOT_EQUAL("!=");
+
+        private final String symbol;
+
+        Comparison(String symbol) {
+            this.symbol = symbol;
+        }
+
+        /**
+         * Returns the operator as written in a condition, such as "&gt;="
+         */
+        public String getSymbol() {
+            return symbol;
+        }
+
+        /**
+         * Applies the comparison to a field value and the value it is compared with
+         */
+        public boolean test(double field, double value) {
+            switch (this) {
+                case LESS:
+                    return field < value;
+                case LESS_OR_EQUAL:
+                    return field <= value;
+                case GREATER:
+                    return field > value;
+                case GREATER_OR_EQUAL:
+                    return field >= value;
+                case EQUAL:
+                    return field == value;
+                default:
+                    return field != value;
+            }
+        }
+    }
+
+    /**
+     * Returns whether an object satisfies this filter
+     */
+    public abstract boolean test(SpaceObject object);
+
+    /**
+     * Describes this filter; equal descriptions mean equal conditions
+     */
+    @Override
+    public abstract String toString();
+
+    /**
+     * Returns whether this filter may depend on the risk level or orbit status of an object, the
+     * only fields that change after loading. Named predicates are assumed to.
+     */
+    boolean readsAssessment() {
+        return true;
+    }
+
+    /**
+     * Matches objects whose text field contains a fragment, ignoring case
+     *
+     * @param column - A text column
+     * @param fragment - The text to look for
+     * @return The filter
+     */
+    public static CatalogFilter contains(RowBinder.Column column, String fragment) {
+        return new TextCondition(column, fragment, false);
+    }
+
+    /**
+     * Matches objects whose text field equals a value, ignoring case
+     *
+     * @param column - A text column
+     * @param value - The value to match
+     * @return The filter
+     */
+    public static CatalogFilter equalTo(RowBinder.Column column, String value) {
+        return new TextCondition(column, value, true);
+    }
+
+    /**
+     * Matches objects whose numeric field compares a certain way with a value
+     *
+     * @param column - LAUNCH_YEAR, LONGITUDE, AVG_LONGITUDE, DAYS_OLD or CONJUNCTION_COUNT
+     * @param comparison - How the field is compared with the value
+     * @param value - The value to compare with
+     * @return The filter
+     */
+    public static CatalogFilter compare(RowBinder.Column column, Comparison comparison, double value) {
+        return new NumberCondition(column, comparison, value);
+    }
+
+    /**
+     * Matches objects accepted by any predicate, such as one on the assessed risk level. The
+     * engine caches its rows under the given name until the catalog's data changes.
+     *
+     * @param name - A name that identifies the predicate
+     * @param predicate - The condition on an object
+     * @return The filter
+     */
+    public static CatalogFilter where(String name, Predicate<SpaceObject> predicate) {
+        return new PredicateCondition(name, predicate);
+    }
+
+    /**
+     * Matches objects that satisfy every one of several filters
+     */
+    public static CatalogFilter and(CatalogFilter... filters) {
+        return new Combination(true, Arrays.asList(filters));
+    }
+
+    /**
+     * Matches objects that satisfy at least one of several filters
+     */
+    public static CatalogFilter or(CatalogFilter... filters) {
+        return new Combination(false, Arrays.asList(filters));
+    }
+
+    /**
+     * Matches objects that do not satisfy a filter
+     */
+    public static CatalogFilter not(CatalogFilter filter) {
+        return new Negation(filter);
+    }
+
+    /**
+     * Returns whether a column holds text rather than numbers
+     */
+    static boolean isTextColumn(RowBinder.Column column) {
+        switch (column) {
+            case LAUNCH_YEAR:
+            case LONGITUDE:
+            case AVG_LONGITUDE:
+            case DAYS_OLD:
+            case CONJUNCTION_COUNT:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Returns an object's value in a text column
+     */
+    static String text(SpaceObject object, RowBinder.Column column) {
+        switch (column) {
+            case RECORD_ID:
+                return object.getRecordID();
+            case SATELLITE_NAME:
+                return object.getSatelliteName();
+            case COUNTRY:
+                return object.getCountry();
+            case ORBIT_TYPE:
+                return object.getOrbitType();
+            case OBJECT_TYPE:
+                return object.getObject_type();
+            case LAUNCH_SITE:
+                return object.getLaunchSite();
+            case GEOHASH:
+                return object.getGeohash();
+            case HRR_CATEGORY:
+                return object.getHrrCategory();
+            default:
+                throw new IllegalArgumentException(column + " is not a text column");
+        }
+    }
+
+    /**
+     * Returns an object's value in a numeric column
+     */
+    static double number(SpaceObject object, RowBinder.Column column) {
+        switch (column) {
+            case LAUNCH_YEAR:
+                return object.getLaunchYear();
+            case LONGITUDE:
+                return object.getLongitude();
+            case AVG_LONGITUDE:
+                return object.getAverageLongitude();
+            case DAYS_OLD:
+                return object.getDaysOld();
+            case CONJUNCTION_COUNT:
+                return object.getConjunctionCount();
+            default:
+                throw new IllegalArgumentException(column + " is not a numeric column");
+        }
+    }
+
+    /**
+     * A text field that contains, or equals, a value
+     */
+    static final class TextCondition extends CatalogFilter {
+        final RowBinder.Column column;
+        final String value;                                     //Lower-cased
+        final boolean exact;
+
+        TextCondition(RowBinder.Column column, String value, boolean exact) {
+            if (!isTextColumn(column)) {
+                throw new IllegalArgumentException(column + " is not a text column");
+            }
+            this.column = column;
+            this.value = value.toLowerCase(Locale.ROOT);
+            this.exact = exact;
+        }
+
+        /**
+         * Applies this condition to a field value
+         */
+        boolean matches(String field) {
+            if (field == null) {
+                return false;
+            }
+            String lower = field.toLowerCase(Locale.ROOT);
+            return exact ? lower.equals(value) : lower.contains(value);
+        }
+
+        @Override
+        public boolean test(SpaceObject object) {
+            return matches(text(object, column));
+        }
+
+        @Override
+        boolean readsAssessment() {
+            return false;                                       //Columns are never assessed fields
+        }
+
+        @Override
+        public String toString() {
+            return column.getHeader() + (exact ? "=" : "~") + value;
+        }
+    }
+
+    /**
+     * A numeric field compared with a value
+     */
+    static final class NumberCondition extends CatalogFilter {
+        final RowBinder.Column column;
+        final Comparison comparison;
+        final double value;
+
+        NumberCondition(RowBinder.Column column, Comparison comparison, double value) {
+            if (isTextColumn(column)) {
+                throw new IllegalArgumentException(column + " is not a numeric column");
+            }
+            this.column = column;
+            this.comparison = comparison;
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(SpaceObject object) {
+            return comparison.test(number(object, column), value);
+        }
+
+        @Override
+        boolean readsAssessment() {
+            return false;                                       //Columns are never assessed fields
+        }
+
+        @Override
+        public String toString() {
+            return column.getHeader() + comparison.getSymbol() + value;
+        }
+    }
+
+    /**
+     * Any named predicate on an object
+     */
+    static final class PredicateCondition extends CatalogFilter {
+        final String name;
+        final Predicate<SpaceObject> predicate;
+
+        PredicateCondition(String name, Predicate<SpaceObject> predicate) {
+            this.name = name;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public boolean test(SpaceObject object) {
+            return predicate.test(object);
+        }
+
+        @Override
+        public String toString() {
+            return "where(" + name + ")";
+        }
+    }
+
+    /**
+     * Several filters joined by AND or by OR
+     */
+    static final class Combination extends CatalogFilter {
+        final boolean all;
+        final List<CatalogFilter> filters;
+
+        Combination(boolean all, List<CatalogFilter> filters) {
+            if (filters.isEmpty()) {
+                throw new IllegalArgumentException("A combination needs at least one filter");
+            }
+            this.all = all;
+            this.filters = Collections.unmodifiableList(filters);
+        }
+
+        @Override
+        public boolean test(SpaceObject object) {
+            for (CatalogFilter filter : filters) {
+                if (filter.test(object) != all) {
+                    return !all;                                //First false of an AND, first true of an OR
+                }
+            }
+            return all;
+        }
+
+        @Override
+        boolean readsAssessment() {
+            return filters.stream().anyMatch(CatalogFilter::readsAssessment);
+        }
+
+        @Override
+        public String toString() {
+            return filters.stream().map(CatalogFilter::toString)
+                          .collect(Collectors.joining(all ? " AND " : " OR ", "(", ")"));
+        }
+    }
+
+    /**
+     * The opposite of a filter
+     */
+    static final class Negation extends CatalogFilter {
+        final CatalogFilter filter;
+
+        Negation(CatalogFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean test(SpaceObject object) {
+            return !filter.test(object);
+        }
+
+        @Override
+        boolean readsAssessment() {
+            return filter.readsAssessment();
+        }
+
+        @Override
+        public String toString() {
+            return "NOT " + filter;
+        }
+    }
+}
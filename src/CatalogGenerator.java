@@ -0,0 +1,281 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+/**
+ * Writes synthetic space object catalogs in the layout of rso_metrics.csv, for reproducing scale
+ * problems without the production file. Rows are streamed through a {@link CsvRecordWriter}, so
+ * a catalog of hundreds of millions of rows is written in constant memory.
+ *
+ * <p>Every row is generated from the seed and its own row number alone, so the same seed always
+ * produces the same file, and a catalog may be written in pieces (or by several processes, each
+ * writing a range of rows) and concatenated into exactly the file written in one go.</p>
+ *
+ * <p>Values follow the skew of the real catalog: most objects are debris in low Earth orbit, a
+ * few countries and launch sites account for most objects, recent launch years are more common,
+ * most objects have never had a conjunction while a few have many, and GEO objects gather around
+ * a handful of longitude slots. Some names contain commas and are quoted, some objects have no
+ * orbit type, and a few longitudes lie outside [-180, 180], as in the real file.</p>
+ *
+ * <p>
+ * Usage:
+ * <pre>
+ * java -cp out CatalogGenerator rso_metrics.csv 100000000 42
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class CatalogGenerator {
+    public static final String HEADER = "record_id,norad_cat_id,satellite_name,country,approximate_orbit_type,"
+            + "object_type,launch_year,launch_site,longitude,avg_longitude,geohash,HRR_Category,is_nominated,"
+            + "nominated_at,has_dossier,last_updated_at,justification,focused_analysis,days_old,conjunction_count,"
+            + "is_unk_object,all_maneuvers,days_since_ob,recent_maneuvers,deltaV_90day,has_sister_debris";
+    public static final int CURRENT_YEAR = 2025;
+
+    private static final String[] OBJECT_TYPES = {"DEBRIS", "PAYLOAD", "ROCKET BODY", "UNKNOWN"};
+    private static final double[] OBJECT_TYPE_WEIGHTS = {58, 28, 8, 6};
+    private static final String[] ORBIT_TYPES = {"LEO", "MEO", "GEO", "HEO", ""};
+    private static final double[] ORBIT_TYPE_WEIGHTS = {78, 5, 8, 6, 3};
+    private static final String[] COUNTRIES = {"US", "CIS", "PRC", "UK", "FR", "JPN", "IND", "ESA", "ISS", "GER",
+                                               "CA", "ITSO", "SES", "KOR", "ISRA", "BRAZ", "AUS", "NZ", "TBD", "UAE"};
+    private static final String[] LAUNCH_SITES = {"AFETR", "AFWTR", "TYMSC", "PKMTR", "JSC", "FRGUI", "SRILR",
+                                                  "TANSC", "KYMSC", "XICLF", "WLPIS", "TAISC", "WRAS", "RLLB",
+                                                  "SEAL", "KODAK", "SVOBO", "YAVNE", "SNMLP", "WSC"};
+    private static final String[] HRR_CATEGORIES = {"A", "B", "C", "D"};
+    private static final double[] HRR_CATEGORY_WEIGHTS = {10, 25, 40, 25};
+    private static final String[] PAYLOAD_NAMES = {"STARLINK", "ONEWEB", "IRIDIUM", "COSMOS", "GLOBALSTAR",
+                                                   "FLOCK", "LEMUR", "YAOGAN", "NAVSTAR", "INTELSAT"};
+    private static final String[] PARENT_NAMES = {"FENGYUN 1C", "COSMOS 2251", "IRIDIUM 33", "NOAA 16", "COSMOS 1408",
+                                                  "DELTA 1", "SL-16", "CZ-6A", "TITAN 3C", "PEGASUS"};
+    private static final double[] GEO_SLOTS = {-105, -75, -30, 0, 13, 19.2, 28.2, 76.5, 105.5, 140};
+    private static final int EARLIEST_YEAR = 1957;
+
+    private static final double[] OBJECT_TYPE_CUMULATIVE = cumulative(OBJECT_TYPE_WEIGHTS);
+    private static final double[] ORBIT_TYPE_CUMULATIVE = cumulative(ORBIT_TYPE_WEIGHTS);
+    private static final double[] HRR_CATEGORY_CUMULATIVE = cumulative(HRR_CATEGORY_WEIGHTS);
+
+    private final long seed;
+    private final RowRandom random = new RowRandom();
+
+    /**
+     * Constructs a generator whose catalogs are determined by a seed
+     *
+     * @param seed - Any number; equal seeds produce equal catalogs
+     */
+    public CatalogGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java CatalogGenerator <file> <rows> [seed]");
+            return;
+        }
+        long rows = Long.parseLong(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        long startTime = System.nanoTime();
+        new CatalogGenerator(seed).write(Paths.get(args[0]), rows);
+        long millis = (System.nanoTime() - startTime) / 1000000;
+        System.out.println("Wrote " + rows + " rows to " + args[0] + " in " + millis + "ms");
+    }
+
+    /**
+     * Writes a catalog file, header first, replacing any existing file
+     *
+     * @param file - The file to write
+     * @param rows - The number of rows after the header
+     */
+    public void write(Path file, long rows) throws IOException {
+        try (CsvRecordWriter writer = new CsvRecordWriter(file)) {
+            writer.append(HEADER).newLine();
+            write(writer, 0, rows);
+        }
+    }
+
+    /**
+     * Writes a range of rows without a header. Writing [0, n) and then [n, m) gives the same
+     * text as writing [0, m).
+     *
+     * @param writer - The writer the rows are appended to
+     * @param firstRow - The row number of the first row, from 0
+     * @param rows - The number of rows to write
+     */
+    public void write(CsvRecordWriter writer, long firstRow, long rows) throws IOException {
+        for (long row = firstRow; row < firstRow + rows; row++) {
+            writeRow(writer, row);
+        }
+    }
+
+    private void writeRow(CsvRecordWriter writer, long row) throws IOException {
+        random.reset(seed, row);
+        long id = row + 1;
+        String objectType = OBJECT_TYPES[random.pick(OBJECT_TYPE_CUMULATIVE)];
+        String orbitType = ORBIT_TYPES[random.pick(ORBIT_TYPE_CUMULATIVE)];
+        boolean geo = orbitType.equals("GEO");
+
+        int launchYear = CURRENT_YEAR - (int) ((CURRENT_YEAR - EARLIEST_YEAR + 1) * Math.pow(random.nextDouble(), 2.5));
+        int daysOld = Math.max(0, (CURRENT_YEAR - launchYear) * 365 + random.nextInt(365));
+
+        double longitude;
+        if (geo) {
+            longitude = GEO_SLOTS[random.nextInt(GEO_SLOTS.length)] + random.nextGaussian() * 2;
+        } else if (random.nextInt(1000) == 0) {
+            longitude = (random.nextDouble() < 0.5 ? -1 : 1) * (180 + random.nextDouble() * 20);    //Out-of-range values seen in the real file
+        } else {
+            longitude = random.nextDouble() * 360 - 180;
+        }
+        double drift = geo ? random.nextGaussian() * 3 : random.nextGaussian() * 20;
+        double averageLongitude = Math.max(-180, Math.min(180, longitude + drift));
+        double latitude = Math.toDegrees(Math.asin(random.nextDouble() * 2 - 1));                   //More objects near the equator
+        String geohash = GeohashIndex.encode(latitude, Math.max(-180, Math.min(180, longitude)), 7);
+
+        long conjunctions = random.nextInt(100) < 72 ? 0 : (long) Math.min(500, Math.floor(Math.pow(random.nextDouble(), -0.8)));
+        int maneuvers = objectType.equals("PAYLOAD") && random.nextInt(3) == 0 ? 1 + random.nextInt(40) : 0;
+        boolean nominated = random.nextInt(50) == 0;
+
+        writer.append(id).append(',').append(id).append(',');
+        appendName(writer, objectType, id);
+        writer.append(',').append(COUNTRIES[random.nextSkewed(COUNTRIES.length)])
+              .append(',').append(orbitType)
+              .append(',').append(objectType)
+              .append(',').append(launchYear)
+              .append(',').append(LAUNCH_SITES[random.nextSkewed(LAUNCH_SITES.length)])
+              .append(',').appendFixed(round(longitude), 4)
+              .append(',').appendFixed(round(averageLongitude), 4)
+              .append(',').append(geohash)
+              .append(',').append(HRR_CATEGORIES[random.pick(HRR_CATEGORY_CUMULATIVE)])
+              .append(',').append(nominated ? "TRUE" : "FALSE")
+              .append(',').append(nominated ? "2024-" + twoDigits(1 + random.nextInt(12)) + "-"
+                                              + twoDigits(1 + random.nextInt(28)) + "T00:00:00Z" : "")
+              .append(',').append(random.nextInt(20) == 0 ? "TRUE" : "FALSE")
+              .append(',').append("2025-01-").append(twoDigits(1 + random.nextInt(28))).append("T12:00:00Z")
+              .append(',').append(nominated ? "\"Close approach, high drift\"" : "")
+              .append(',').append(nominated ? "TRUE" : "")
+              .append(',').append(daysOld)
+              .append(',').append(conjunctions)
+              .append(',').append(objectType.equals("UNKNOWN") ? "TRUE" : "FALSE")
+              .append(',').append(maneuvers)
+              .append(',').append(random.nextInt(30))
+              .append(',').append(Math.min(maneuvers, random.nextInt(3)))
+              .append(',').appendFixed(maneuvers > 0 ? round(random.nextDouble() * 5) : 0, 4)
+              .append(',').append(random.nextInt(4) == 0 ? "TRUE" : "FALSE")
+              .newLine();
+    }
+
+    /**
+     * Names an object after its type, quoting the one in twenty names that contain a comma
+     */
+    private void appendName(CsvRecordWriter writer, String objectType, long id) throws IOException {
+        boolean comma = random.nextInt(20) == 0;
+        if (comma) {
+            writer.append('"');
+        }
+        switch (objectType) {
+            case "PAYLOAD":
+                writer.append(PAYLOAD_NAMES[random.nextSkewed(PAYLOAD_NAMES.length)]).append('-').append(id);
+                break;
+            case "ROCKET BODY":
+                writer.append(PARENT_NAMES[random.nextSkewed(PARENT_NAMES.length)]).append(" R/B");
+                break;
+            case "DEBRIS":
+                writer.append(PARENT_NAMES[random.nextSkewed(PARENT_NAMES.length)]).append(" DEB");
+                break;
+            default:
+                writer.append("OBJECT ").append(id);
+        }
+        if (comma) {
+            writer.append(", FRAGMENT ").append(1 + random.nextInt(99)).append('"');
+        }
+    }
+
+    private static String twoDigits(int value) {
+        return value < 10 ? "0" + value : Integer.toString(value);
+    }
+
+    /**
+     * Rounds to the four decimal places written, so values are printed without String.format
+     */
+    private static double round(double value) {
+        return Math.round(value * 10000) / 10000.0;
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] cumulative = new double[weights.length];
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum / total;
+        }
+        return cumulative;
+    }
+
+    /**
+     * A SplitMix64 generator restarted for every row from the seed and the row number, so each
+     * row's values do not depend on the rows written before it
+     */
+    private static final class RowRandom {
+        private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+        private long state;
+
+        void reset(long seed, long row) {
+            state = mix(seed ^ mix(row * GOLDEN_GAMMA + GOLDEN_GAMMA));
+        }
+
+        long nextLong() {
+            state += GOLDEN_GAMMA;
+            return mix(state);
+        }
+
+        /**
+         * Returns a number in [0, 1)
+         */
+        double nextDouble() {
+            return (nextLong() >>> 11) * 0x1.0p-53;
+        }
+
+        /**
+         * Returns a number in [0, bound)
+         */
+        int nextInt(int bound) {
+            return (int) (((nextLong() >>> 32) * bound) >>> 32);
+        }
+
+        double nextGaussian() {
+            double u = 1 - nextDouble();                        //(0, 1], so the logarithm is finite
+            return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * nextDouble());
+        }
+
+        /**
+         * Returns an index in [0, size) whose likelihood falls off exponentially, so the first few
+         * values dominate
+         */
+        int nextSkewed(int size) {
+            return Math.min(size - 1, (int) (-Math.log(1 - nextDouble()) * size / 4));
+        }
+
+        /**
+         * Returns the index of the weight a uniform number falls under
+         */
+        int pick(double[] cumulative) {
+            double value = nextDouble();
+            for (int i = 0; i < cumulative.length - 1; i++) {
+                if (value < cumulative[i]) {
+                    return i;
+                }
+            }
+            return cumulative.length - 1;
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class CatalogGeneratorTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSeedAloneDeterminesTheCatalog() throws IOException {
+        Path whole = tempDir.resolve("whole.csv");
+        Path again = tempDir.resolve("again.csv");
+        Path pieces = tempDir.resolve("pieces.csv");
+        Path otherSeed = tempDir.resolve("other.csv");
+        new CatalogGenerator(42).write(whole, 5000);
+        new CatalogGenerator(42).write(again, 5000);
+        new CatalogGenerator(43).write(otherSeed, 5000);
+        try (CsvRecordWriter writer = new CsvRecordWriter(pieces)) {
+            CatalogGenerator generator = new CatalogGenerator(42);
+            writer.append(CatalogGenerator.HEADER).newLine();
+            generator.write(writer, 0, 1234);
+            generator.write(writer, 1234, 5000 - 1234);
+        }
+
+        assertEquals(-1, Files.mismatch(whole, again));
+        assertEquals(-1, Files.mismatch(whole, pieces));
+        assertTrue(Files.mismatch(whole, otherSeed) >= 0);
+    }
+
+    @Test
+    void testCatalogParsesWithRealisticSkew() throws IOException {
+        Path file = tempDir.resolve("rso_metrics.csv");
+        int rows = 20000;
+        new CatalogGenerator(7).write(file, rows);
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(CatalogGenerator.HEADER, lines.get(0));
+        long quotedNames = lines.stream().skip(1).filter(line -> line.contains("FRAGMENT")).count();
+        assertTrue(quotedNames > rows / 40 && quotedNames < rows / 10, quotedNames + " quoted names");
+        int columns = CSVParser.parseLine(CatalogGenerator.HEADER).size();
+        assertTrue(lines.stream().skip(1).allMatch(line -> CSVParser.parseLine(line).size() == columns));
+
+        CSVParser parser = new CSVParser();
+        List<SpaceObject> objects = parser.readCsvFile(file.toString());
+        assertEquals(rows, objects.size());
+        assertEquals(0, parser.getParseErrorPolicy().getErrorCount());
+
+        Map<String, Long> types = objects.stream().collect(Collectors.groupingBy(SpaceObject::getObject_type, Collectors.counting()));
+        Map<String, Long> orbits = objects.stream().collect(Collectors.groupingBy(o -> String.valueOf(o.getOrbitType()), Collectors.counting()));
+        assertEquals("DEBRIS", mostCommon(types));
+        assertEquals("LEO", mostCommon(orbits));
+        assertTrue(objects.stream().anyMatch(o -> o.getOrbitType() == null || o.getOrbitType().isEmpty()),
+                   "Some objects have no orbit type");
+        long neverConjoined = objects.stream().filter(o -> o.getConjunctionCount() == 0).count();
+        assertTrue(neverConjoined > rows / 2);
+        assertTrue(objects.stream().anyMatch(o -> o.getConjunctionCount() > 20), "A few objects have many conjunctions");
+        assertTrue(objects.stream().anyMatch(o -> Math.abs(o.getLongitude()) > 180));
+        Map<String, Long> countries = objects.stream().collect(Collectors.groupingBy(SpaceObject::getCountry, Collectors.counting()));
+        assertTrue(countries.get("US") > 5 * countries.getOrDefault("UAE", 0L));
+        assertTrue(objects.stream().allMatch(o -> o.getGeohash().length() == 7));
+    }
+
+    private static String mostCommon(Map<String, Long> counts) {
+        return counts.entrySet().stream().max(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse(null);
+    }
+}
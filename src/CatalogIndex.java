@@ -0,0 +1,197 @@
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+/**
+ * Secondary indexes over the loaded catalog for its low-cardinality text columns: object type,
+ * orbit type, country and HRR category. For each column the index maps every distinct value,
+ * lower-cased, to the set of row numbers holding it, so a filter becomes a lookup instead of a
+ * lower-cased comparison per object.
+ *
+ * <p>Lookups return bit sets of rows, so several criteria can be combined with {@link BitSet#and}
+ * or {@link BitSet#or}. Because the columns only hold a handful of distinct values, the
+ * "contains" lookups used by the filters can still be answered by checking each distinct value
+ * rather than each row.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * CatalogIndex index = CatalogIndex.build(manager.getRso_metrics());
+ * BitSet rows = index.rowsContaining(RowBinder.Column.OBJECT_TYPE, "debris");
+ * rows.and(index.rowsEqualTo(RowBinder.Column.COUNTRY, "PRC"));
+ * index.select(rows, manager.getRso_metrics()).forEach(System.out::println);
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class CatalogIndex {
+    private final Map<RowBinder.Column, Map<String, BitSet>> postings = new EnumMap<>(RowBinder.Column.class);
+    private final int size;
+
+    private CatalogIndex(int size) {
+        this.size = size;
+        for (RowBinder.Column column : indexedColumns()) {
+            postings.put(column, new HashMap<>());
+        }
+    }
+
+    /**
+     * Returns the columns that are indexed
+     */
+    public static RowBinder.Column[] indexedColumns() {
+        return new RowBinder.Column[] {RowBinder.Column.OBJECT_TYPE, RowBinder.Column.ORBIT_TYPE,
+                                       RowBinder.Column.COUNTRY, RowBinder.Column.HRR_CATEGORY};
+    }
+
+    /**
+     * Builds the indexes for a list of space objects, whose positions become the row numbers
+     *
+     * @param objects - The catalog to index
+     * @return The indexes of the catalog
+     */
+    public static CatalogIndex build(List<SpaceObject> objects) {
+        CatalogIndex index = new CatalogIndex(objects.size());
+        Map<String, BitSet> objectTypes = index.postings.get(RowBinder.Column.OBJECT_TYPE);
+        Map<String, BitSet> orbitTypes = index.postings.get(RowBinder.Column.ORBIT_TYPE);
+        Map<String, BitSet> countries = index.postings.get(RowBinder.Column.COUNTRY);
+        Map<String, BitSet> hrrCategories = index.postings.get(RowBinder.Column.HRR_CATEGORY);
+        int row = 0;
+        for (SpaceObject object : objects) {
+            add(objectTypes, object.getObject_type(), row);
+            add(orbitTypes, object.getOrbitType(), row);
+            add(countries, object.getCountry(), row);
+            add(hrrCategories, object.getHrrCategory(), row);
+            row++;
+        }
+        return index;
+    }
+
+    /**
+     * Builds the indexes straight from the dictionary-coded columns of a columnar catalog,
+     * without materializing any row
+     *
+     * @param catalog - The catalog to index
+     * @return The indexes of the catalog
+     */
+    public static CatalogIndex build(ColumnarCatalog catalog) {
+        CatalogIndex index = new CatalogIndex(catalog.size());
+        CatalogDictionaries dictionaries = catalog.getDictionaries();
+        for (RowBinder.Column column : indexedColumns()) {
+            StringDictionary dictionary = dictionaries.forColumn(column);
+            BitSet[] rowsByCode = new BitSet[dictionary.size()];
+            for (int row = 0, n = catalog.size(); row < n; row++) {
+                int code = catalog.getCode(column, row);
+                if (code >= 0) {
+                    if (rowsByCode[code] == null) {
+                        rowsByCode[code] = new BitSet();
+                    }
+                    rowsByCode[code].set(row);
+                }
+            }
+            Map<String, BitSet> values = index.postings.get(column);
+            for (int code = 0; code < rowsByCode.length; code++) {
+                if (rowsByCode[code] != null) {
+                    values.computeIfAbsent(normalize(dictionary.decode(code)), key -> new BitSet()).or(rowsByCode[code]);
+                }
+            }
+        }
+        return index;
+    }
+
+    private static void add(Map<String, BitSet> column, String value, int row) {
+        if (value != null) {
+            column.computeIfAbsent(normalize(value), key -> new BitSet()).set(row);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private Map<String, BitSet> column(RowBinder.Column column) {
+        Map<String, BitSet> values = postings.get(column);
+        if (values == null) {
+            throw new IllegalArgumentException(column + " is not indexed");
+        }
+        return values;
+    }
+
+    /**
+     * Returns the number of rows that were indexed
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the distinct lower-cased values of an indexed column
+     */
+    public Set<String> values(RowBinder.Column column) {
+        return Collections.unmodifiableSet(column(column).keySet());
+    }
+
+    /**
+     * Finds the rows whose value in a column equals a value, ignoring case
+     *
+     * @param column - An indexed column
+     * @param value - The value to look up
+     * @return A new set of the matching row numbers
+     */
+    public BitSet rowsEqualTo(RowBinder.Column column, String value) {
+        BitSet rows = column(column).get(normalize(value));
+        return rows == null ? new BitSet() : (BitSet) rows.clone();
+    }
+
+    /**
+     * Finds the rows whose value in a column contains a fragment, ignoring case
+     *
+     * @param column - An indexed column
+     * @param fragment - The text to look for
+     * @return A new set of the matching row numbers
+     */
+    public BitSet rowsContaining(RowBinder.Column column, String fragment) {
+        String key = normalize(fragment);
+        BitSet rows = new BitSet(size);
+        for (Map.Entry<String, BitSet> value : column(column).entrySet()) {
+            if (value.getKey().contains(key)) {
+                rows.or(value.getValue());
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Finds the rows that satisfy every criterion, where each criterion is a fragment that
+     * the row's value in a column must contain
+     *
+     * @param criteria - The fragment to look for, by column
+     * @return A new set of the rows matching all criteria, or every row if there are none
+     */
+    public BitSet rowsContainingAll(Map<RowBinder.Column, String> criteria) {
+        BitSet rows = new BitSet(size);
+        rows.set(0, size);
+        for (Map.Entry<RowBinder.Column, String> criterion : criteria.entrySet()) {
+            rows.and(rowsContaining(criterion.getKey(), criterion.getValue()));
+        }
+        return rows;
+    }
+
+    /**
+     * Streams the objects of a catalog at a set of row numbers, in row order
+     *
+     * @param rows - The row numbers to select
+     * @param objects - The catalog the index was built from
+     * @return The selected objects
+     */
+    public Stream<SpaceObject> select(BitSet rows, List<SpaceObject> objects) {
+        return rows.stream().mapToObj(objects::get);
+    }
+}
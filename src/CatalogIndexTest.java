@@ -0,0 +1,97 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class CatalogIndexTest {
+
+    /**
+     * Builds a catalog with several values, in mixed case, in every indexed column
+     */
+    private static List<SpaceObject> catalog(int size) {
+        String[] objectTypes = {"DEBRIS", "PAYLOAD", "ROCKET BODY", "Debris", "payload", "ROCKET BODY"};
+        String[] countries = {"USA", "USA", "PRC", "CIS", "prc"};
+        List<SpaceObject> objects = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            objects.add(new SpaceObject(String.valueOf(i), "Sat-" + i, countries[i % 5],
+                                        i % 2 == 0 ? "LEO" : (i % 4 == 1 ? "GEO" : null), objectTypes[i % 6], 2000,
+                                        "KSC", 10, 10, "9q8yy", 100, 0, i % 7 == 0 ? null : (i % 2 == 0 ? "A" : "B")));
+        }
+        return objects;
+    }
+
+    private static Function<SpaceObject, String> field(RowBinder.Column column) {
+        switch (column) {
+            case OBJECT_TYPE:
+                return SpaceObject::getObject_type;
+            case ORBIT_TYPE:
+                return SpaceObject::getOrbitType;
+            case COUNTRY:
+                return SpaceObject::getCountry;
+            default:
+                return SpaceObject::getHrrCategory;
+        }
+    }
+
+    private static BitSet scan(List<SpaceObject> objects, RowBinder.Column column, String fragment) {
+        BitSet rows = new BitSet();
+        for (int row = 0; row < objects.size(); row++) {
+            String value = field(column).apply(objects.get(row));
+            if (value != null && value.toLowerCase(Locale.ROOT).contains(fragment.toLowerCase(Locale.ROOT))) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    void testPostingsMatchAScanOfEveryColumn() {
+        List<SpaceObject> objects = catalog(500);
+        CatalogIndex index = CatalogIndex.build(objects);
+        CatalogIndex columnar = CatalogIndex.build(ColumnarCatalog.from(objects, new CatalogDictionaries()));
+        assertEquals(500, index.size());
+
+        for (RowBinder.Column column : CatalogIndex.indexedColumns()) {
+            assertEquals(objects.stream().map(field(column)).filter(value -> value != null)
+                                .map(value -> value.toLowerCase(Locale.ROOT)).collect(Collectors.toSet()),
+                         index.values(column));
+            assertTrue(index.values(column).size() >= 2);
+            for (String value : index.values(column)) {
+                BitSet expected = scan(objects, column, value);
+                assertEquals(expected, index.rowsEqualTo(column, value.toUpperCase(Locale.ROOT)));
+                assertEquals(expected, columnar.rowsEqualTo(column, value));
+            }
+        }
+        assertEquals(scan(objects, RowBinder.Column.OBJECT_TYPE, "BRI"), index.rowsContaining(RowBinder.Column.OBJECT_TYPE, "BRI"));
+        assertEquals(scan(objects, RowBinder.Column.ORBIT_TYPE, "eo"), index.rowsContaining(RowBinder.Column.ORBIT_TYPE, "eo"));
+        assertEquals(200, index.rowsEqualTo(RowBinder.Column.COUNTRY, "PRC").cardinality());  //Both spellings of PRC
+        assertTrue(index.rowsEqualTo(RowBinder.Column.COUNTRY, "JPN").isEmpty());
+    }
+
+    @Test
+    void testCombinedCriteriaAndSelection() {
+        List<SpaceObject> objects = catalog(500);
+        CatalogIndex index = CatalogIndex.build(objects);
+
+        Map<RowBinder.Column, String> criteria = new EnumMap<>(RowBinder.Column.class);
+        assertEquals(500, index.rowsContainingAll(criteria).cardinality());
+        criteria.put(RowBinder.Column.OBJECT_TYPE, "debris");
+        criteria.put(RowBinder.Column.ORBIT_TYPE, "leo");
+        BitSet rows = index.rowsContainingAll(criteria);
+        assertEquals(84, rows.cardinality());                     //Rows divisible by 6 below 500
+
+        List<SpaceObject> selected = index.select(rows, objects).collect(Collectors.toList());
+        assertEquals(rows.cardinality(), selected.size());
+        for (SpaceObject object : selected) {
+            assertEquals(0, Integer.parseInt(object.getRecordID()) % 6);
+        }
+        assertThrows(IllegalArgumentException.class, () -> index.rowsContaining(RowBinder.Column.GEOHASH, "9q"));
+    }
+}
@@ -0,0 +1,39 @@
+import java.util.AbstractList;
+import java.util.RandomAccess;
+/**
+ * A read-only list over a {@link CatalogStore}. Each call to {@link #get(int)} materializes the
+ * row as a new Space Object, whose assessment setters write through to the store.
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class CatalogListView extends AbstractList<SpaceObject> implements RandomAccess {
+    private final CatalogStore store;
+
+    /**
+     * Constructs a list view over a store
+     *
+     * @param store - The store holding the rows
+     */
+    public CatalogListView(CatalogStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public SpaceObject get(int index) {
+        return store.row(index);
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    /**
+     * Returns the store this list reads from
+     */
+    public CatalogStore getStore() {
+        return store;
+    }
+}
@@ -0,0 +1,782 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+/**
+ * A query over the catalog written as text, such as
+ * <pre>
+ * orbit~LEO AND days_old&gt;200 AND conjunction_count&gt;0
+ * </pre>
+ * The query is parsed once and compiled into a single test that is applied to each object, or
+ * each row of a {@link ColumnarCatalog}, in one pass over the catalog.
+ *
+ * <p>A condition is a field, an operator and a value. Fields are the column headers of
+ * rso_metrics.csv in any case, the short names orbit, type, name, id, site and hrr, and the
+ * assessed fields risk and in_orbit. Text fields take = and != for whole values and ~ for values
+ * containing the text, all ignoring case; numeric fields take =, !=, &lt;, &lt;=, &gt; and &gt;=.
+ * Values containing spaces or operators are written in double quotes. Conditions are combined
+ * with AND, OR, NOT and parentheses, where AND binds tighter than OR.</p>
+ *
+ * <p>When a query is compiled for a catalog, comparisons of the same numeric field under one AND
+ * are merged into a single range check, text conditions on dictionary-coded columns become a
+ * lookup of the row's code, and the terms of each AND are ordered so the one rejecting the most
+ * rows of a sample runs first and the rest are skipped for the rows it rejects.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * CatalogQuery query = CatalogQuery.parse("type=DEBRIS AND (risk=High OR days_old &gt;= 10000)");
+ * query.select(manager.getRso_metrics()).forEach(System.out::println);
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class CatalogQuery {
+    private static final int SAMPLE_ROWS = 1024;                //Rows tested to order the terms of an AND
+    private static final List<String> OPERATORS = Arrays.asList("=", "!=", "~", "<", "<=", ">", ">=");
+    private static final Map<String, Field> FIELDS = new HashMap<>();
+
+    static {
+        for (RowBinder.Column column : RowBinder.Column.values()) {
+            FIELDS.put(column.getHeader().toLowerCase(Locale.ROOT), new Field(column, null));
+        }
+        FIELDS.put("orbit", FIELDS.get("approximate_orbit_type"));
+        FIELDS.put("orbit_type", FIELDS.get("approximate_orbit_type"));
+        FIELDS.put("type", FIELDS.get("object_type"));
+        FIELDS.put("name", FIELDS.get("satellite_name"));
+        FIELDS.put("id", FIELDS.get("record_id"));
+        FIELDS.put("site", FIELDS.get("launch_site"));
+        FIELDS.put("hrr", FIELDS.get("hrr_category"));
+        FIELDS.put("risk", new Field(null, "risk"));
+        FIELDS.put("risk_level", FIELDS.get("risk"));
+        FIELDS.put("in_orbit", new Field(null, "in_orbit"));
+        FIELDS.put("still_in_orbit", FIELDS.get("in_orbit"));
+    }
+
+    private final String text;
+    private final Node root;
+
+    private CatalogQuery(String text, Node root) {
+        this.text = text;
+        this.root = root;
+    }
+
+    /**
+     * Parses a query
+     *
+     * @param query - The query text
+     * @return The parsed query
+     * @throws IllegalArgumentException if the query is not valid, naming the position of the problem
+     */
+    public static CatalogQuery parse(String query) {
+        Parser parser = new Parser(query);
+        Node root = parser.parseOr();
+        if (parser.peek() != null) {
+            throw parser.error("Unexpected \"" + parser.peek() + "\"");
+        }
+        return new CatalogQuery(query, root.simplify());
+    }
+
+    /**
+     * Returns the query as a {@link CatalogFilter}, for a {@link FilterEngine} or
+     * {@link FilterInterface#filterByField(List, CatalogFilter)}
+     */
+    public CatalogFilter toFilter() {
+        return root.toFilter();
+    }
+
+    /**
+     * Compiles the query into a test of one object, ordering its terms by how they behave on a
+     * sample of the catalog it will be applied to
+     *
+     * @param objects - The catalog the test will run over, or an empty list to keep the written order
+     * @return The test
+     */
+    public Predicate<SpaceObject> compile(List<SpaceObject> objects) {
+        List<SpaceObject> sample = new ArrayList<>();
+        if (objects instanceof RandomAccess) {
+            int stride = Math.max(1, objects.size() / SAMPLE_ROWS);
+            for (int row = 0; row < objects.size() && sample.size() < SAMPLE_ROWS; row += stride) {
+                sample.add(objects.get(row));
+            }
+        }
+        return root.compile(sample);
+    }
+
+    /**
+     * Compiles the query into a test of one row of a columnar catalog, read straight from its
+     * column arrays. The test only covers rows present when it was compiled.
+     *
+     * @param catalog - The catalog the test will run over
+     * @return The test, taking a row index
+     */
+    public IntPredicate compile(ColumnarCatalog catalog) {
+        int stride = Math.max(1, catalog.size() / SAMPLE_ROWS);
+        int[] sample = IntStream.iterate(0, row -> row + stride).limit(Math.min(SAMPLE_ROWS, catalog.size())).toArray();
+        return root.compile(catalog, sample);
+    }
+
+    /**
+     * Finds the rows of a columnar catalog matching the query in one pass over its columns
+     *
+     * @param catalog - The catalog to search
+     * @return The matching row indexes in ascending order
+     */
+    public int[] matchingRows(ColumnarCatalog catalog) {
+        IntPredicate test = compile(catalog);
+        int[] rows = new int[16];
+        int count = 0;
+        for (int row = 0, n = catalog.size(); row < n; row++) {
+            if (test.test(row)) {
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, count * 2);
+                }
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Streams the objects of a catalog that match the query, in catalog order. A list backed by
+     * a columnar catalog is searched through its columns.
+     *
+     * @param objects - The catalog to search
+     * @return The matching objects
+     */
+    public Stream<SpaceObject> select(List<SpaceObject> objects) {
+        if (objects instanceof CatalogListView && ((CatalogListView) objects).getStore() instanceof ColumnarCatalog) {
+            ColumnarCatalog catalog = (ColumnarCatalog) ((CatalogListView) objects).getStore();
+            return IntStream.of(matchingRows(catalog)).mapToObj(objects::get);
+        }
+        return objects.stream().filter(compile(objects));
+    }
+
+    /**
+     * Filters a stream of objects by the query, keeping its terms in the written order
+     *
+     * @param objects - The objects to filter
+     * @return The matching objects
+     */
+    public Stream<SpaceObject> select(Stream<SpaceObject> objects) {
+        return objects.filter(compile(Collections.emptyList()));
+    }
+
+    /**
+     * Returns the query as it was written
+     */
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    /**
+     * A queryable field: a column of the CSV, or one of the assessed fields named by special
+     */
+    private static final class Field {
+        final RowBinder.Column column;
+        final String special;
+
+        Field(RowBinder.Column column, String special) {
+            this.column = column;
+            this.special = special;
+        }
+
+        boolean isNumeric() {
+            return column != null && !CatalogFilter.isTextColumn(column);
+        }
+
+        String name() {
+            return column != null ? column.getHeader() : special;
+        }
+    }
+
+    /**
+     * Splits a query into words, quoted values, parentheses and operators, and parses them
+     * into nodes by recursive descent
+     */
+    private static final class Parser {
+        private final String query;
+        private final List<String> tokens = new ArrayList<>();
+        private final List<Integer> positions = new ArrayList<>();
+        private final List<Boolean> quoted = new ArrayList<>();
+        private int next;
+
+        Parser(String query) {
+            this.query = query;
+            int i = 0;
+            while (i < query.length()) {
+                char c = query.charAt(i);
+                int start = i;
+                if (Character.isWhitespace(c)) {
+                    i++;
+                    continue;
+                }
+                if (c == '"') {
+                    StringBuilder value = new StringBuilder();
+                    i++;
+                    while (i < query.length() && query.charAt(i) != '"') {
+                        value.append(query.charAt(i++));
+                    }
+                    if (i == query.length()) {
+                        throw new IllegalArgumentException("Unterminated quote at position " + start + " in " + query);
+                    }
+                    i++;
+                    add(value.toString(), start, true);
+                    continue;
+                }
+                if (c == '(' || c == ')' || c == '~') {
+                    i++;
+                } else if (c == '<' || c == '>' || c == '!' || c == '=') {
+                    i++;
+                    if (i < query.length() && query.charAt(i) == '=') {
+                        i++;
+                    }
+                } else if ((c == '&' || c == '|') && i + 1 < query.length() && query.charAt(i + 1) == c) {
+                    i += 2;
+                } else {
+                    while (i < query.length() && !isBoundary(query.charAt(i))) {
+                        i++;
+                    }
+                }
+                add(query.substring(start, i), start, false);
+            }
+        }
+
+        private static boolean isBoundary(char c) {
+            return Character.isWhitespace(c) || "()<>!=~\"&|".indexOf(c) >= 0;
+        }
+
+        private void add(String token, int position, boolean isQuoted) {
+            tokens.add(token);
+            positions.add(position);
+            quoted.add(isQuoted);
+        }
+
+        String peek() {
+            return next < tokens.size() ? tokens.get(next) : null;
+        }
+
+        private boolean accept(String... alternatives) {
+            String token = peek();
+            if (token == null || quoted.get(next)) {
+                return false;
+            }
+            for (String alternative : alternatives) {
+                if (token.equalsIgnoreCase(alternative)) {
+                    next++;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        IllegalArgumentException error(String message) {
+            int position = next < positions.size() ? positions.get(next) : query.length();
+            return new IllegalArgumentException(message + " at position " + position + " in " + query);
+        }
+
+        Node parseOr() {
+            List<Node> terms = new ArrayList<>();
+            terms.add(parseAnd());
+            while (accept("OR", "||")) {
+                terms.add(parseAnd());
+            }
+            return terms.size() == 1 ? terms.get(0) : new Or(terms);
+        }
+
+        private Node parseAnd() {
+            List<Node> terms = new ArrayList<>();
+            terms.add(parseNot());
+            while (accept("AND", "&&")) {
+                terms.add(parseNot());
+            }
+            return terms.size() == 1 ? terms.get(0) : new And(terms);
+        }
+
+        private Node parseNot() {
+            if (accept("NOT", "!")) {
+                return new Not(parseNot());
+            }
+            if (accept("(")) {
+                Node inner = parseOr();
+                if (!accept(")")) {
+                    throw error("Expected \")\"");
+                }
+                return inner;
+            }
+            return parseCondition();
+        }
+
+        private Node parseCondition() {
+            int start = next;
+            String name = peek();
+            if (name == null) {
+                throw error("Expected a condition");
+            }
+            Field field = quoted.get(next) ? null : FIELDS.get(name.toLowerCase(Locale.ROOT));
+            if (field == null) {
+                throw error("Unknown field \"" + name + "\"");
+            }
+            next++;
+            String operator = peek();
+            if (operator == null || quoted.get(next) || !OPERATORS.contains(operator)) {
+                throw error("Expected an operator after " + name);
+            }
+            next++;
+            String value = peek();
+            if (value == null || (!quoted.get(next) && isBoundary(value.charAt(0)))) {
+                throw error("Expected a value after " + name + operator);
+            }
+            next++;
+            try {
+                return condition(field, operator, value);
+            } catch (IllegalArgumentException e) {
+                next = start;
+                throw error(e.getMessage());
+            }
+        }
+
+        private static Node condition(Field field, String operator, String value) {
+            if (value.isEmpty()) {
+                throw new IllegalArgumentException(field.name() + " needs a value");
+            }
+            if ("risk".equals(field.special)) {
+                if (!operator.equals("=") && !operator.equals("!=")) {
+                    throw new IllegalArgumentException("risk only takes = and !=");
+                }
+                byte code;
+                if (value.equalsIgnoreCase("none") || value.equalsIgnoreCase("unassessed")) {
+                    code = OrbitalAssessment.RISK_UNASSESSED;
+                } else {
+                    String level = value.substring(0, 1).toUpperCase(Locale.ROOT) + value.substring(1).toLowerCase(Locale.ROOT);
+                    code = OrbitalAssessment.riskCode(level);
+                }
+                return new RiskCondition(code, operator.equals("="));
+            }
+            if ("in_orbit".equals(field.special)) {
+                if (!operator.equals("=") && !operator.equals("!=")) {
+                    throw new IllegalArgumentException("in_orbit only takes = and !=");
+                }
+                if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+                    throw new IllegalArgumentException("in_orbit is true or false, not \"" + value + "\"");
+                }
+                return new InOrbitCondition(Boolean.parseBoolean(value.toLowerCase(Locale.ROOT)) == operator.equals("="));
+            }
+            if (!field.isNumeric()) {
+                if (!operator.equals("=") && !operator.equals("!=") && !operator.equals("~")) {
+                    throw new IllegalArgumentException(field.name() + " is text and only takes =, != and ~");
+                }
+                Node text = new TextCondition(field.column, value.toLowerCase(Locale.ROOT), !operator.equals("~"));
+                return operator.equals("!=") ? new Not(text) : text;
+            }
+            double number;
+            try {
+                number = Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(field.name() + " is numeric, not \"" + value + "\"");
+            }
+            switch (operator) {
+                case "=":
+                    return new RangeCondition(field.column, number, number);
+                case "!=":
+                    return new Not(new RangeCondition(field.column, number, number));
+                case "<":
+                    return new RangeCondition(field.column, Double.NEGATIVE_INFINITY, Math.nextDown(number));
+                case "<=":
+                    return new RangeCondition(field.column, Double.NEGATIVE_INFINITY, number);
+                case ">":
+                    return new RangeCondition(field.column, Math.nextUp(number), Double.POSITIVE_INFINITY);
+                case ">=":
+                    return new RangeCondition(field.column, number, Double.POSITIVE_INFINITY);
+                default:
+                    throw new IllegalArgumentException(field.name() + " is numeric and does not take ~");
+            }
+        }
+    }
+
+    /**
+     * A parsed query or part of one
+     */
+    private abstract static class Node {
+        /**
+         * Returns an equivalent node with nested ANDs and ORs flattened and numeric ranges merged
+         */
+        Node simplify() {
+            return this;
+        }
+
+        abstract Predicate<SpaceObject> compile(List<SpaceObject> sample);
+
+        abstract IntPredicate compile(ColumnarCatalog catalog, int[] sample);
+
+        abstract CatalogFilter toFilter();
+    }
+
+    /**
+     * A text column that equals or contains a lower-cased value
+     */
+    private static final class TextCondition extends Node {
+        final RowBinder.Column column;
+        final String value;
+        final boolean exact;
+
+        TextCondition(RowBinder.Column column, String value, boolean exact) {
+            this.column = column;
+            this.value = value;
+            this.exact = exact;
+        }
+
+        boolean matches(String field) {
+            if (field == null) {
+                return false;
+            }
+            String lower = field.toLowerCase(Locale.ROOT);
+            return exact ? lower.equals(value) : lower.contains(value);
+        }
+
+        @Override
+        Predicate<SpaceObject> compile(List<SpaceObject> sample) {
+            RowBinder.Column column = this.column;
+            return object -> matches(CatalogFilter.text(object, column));
+        }
+
+        @Override
+        IntPredicate compile(ColumnarCatalog catalog, int[] sample) {
+            switch (column) {
+                case RECORD_ID:
+                case SATELLITE_NAME:
+                case GEOHASH:
+                    return row -> matches(catalog.getText(column, row));
+                default:
+                    // Decide once per distinct value, leaving a table lookup per row
+                    StringDictionary dictionary = catalog.getDictionaries().forColumn(column);
+                    boolean[] codes = new boolean[dictionary.size()];
+                    for (int code = 0; code < codes.length; code++) {
+                        codes[code] = matches(dictionary.decode(code));
+                    }
+                    return catalog.codeIn(column, codes);
+            }
+        }
+
+        @Override
+        CatalogFilter toFilter() {
+            return exact ? CatalogFilter.equalTo(column, value) : CatalogFilter.contains(column, value);
+        }
+    }
+
+    /**
+     * A numeric column between two inclusive bounds
+     */
+    private static final class RangeCondition extends Node {
+        final RowBinder.Column column;
+        final double min;
+        final double max;
+
+        RangeCondition(RowBinder.Column column, double min, double max) {
+            this.column = column;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        Predicate<SpaceObject> compile(List<SpaceObject> sample) {
+            RowBinder.Column column = this.column;
+            double min = this.min;
+            double max = this.max;
+            return object -> {
+                double value = CatalogFilter.number(object, column);
+                return value >= min & value <= max;
+            };
+        }
+
+        @Override
+        IntPredicate compile(ColumnarCatalog catalog, int[] sample) {
+            return catalog.numberBetween(column, min, max);
+        }
+
+        @Override
+        CatalogFilter toFilter() {
+            CatalogFilter atLeast = CatalogFilter.compare(column, CatalogFilter.Comparison.GREATER_OR_EQUAL, min);
+            CatalogFilter atMost = CatalogFilter.compare(column, CatalogFilter.Comparison.LESS_OR_EQUAL, max);
+            if (max == Double.POSITIVE_INFINITY) {
+                return atLeast;
+            }
+            return min == Double.NEGATIVE_INFINITY ? atMost : CatalogFilter.and(atLeast, atMost);
+        }
+    }
+
+    /**
+     * The assessed risk level, compared by its code
+     */
+    private static final class RiskCondition extends Node {
+        final byte code;
+        final boolean equal;
+
+        RiskCondition(byte code, boolean equal) {
+            this.code = code;
+            this.equal = equal;
+        }
+
+        @Override
+        Predicate<SpaceObject> compile(List<SpaceObject> sample) {
+            return object -> (OrbitalAssessment.riskCode(object.getRiskLevel()) == code) == equal;
+        }
+
+        @Override
+        IntPredicate compile(ColumnarCatalog catalog, int[] sample) {
+            return row -> (catalog.getRiskCode(row) == code) == equal;
+        }
+
+        @Override
+        CatalogFilter toFilter() {
+            String name = "risk" + (equal ? "=" : "!=") + OrbitalAssessment.riskLevel(code);
+            return CatalogFilter.where(name, object -> (OrbitalAssessment.riskCode(object.getRiskLevel()) == code) == equal);
+        }
+    }
+
+    /**
+     * The assessed orbit status
+     */
+    private static final class InOrbitCondition extends Node {
+        final boolean inOrbit;
+
+        InOrbitCondition(boolean inOrbit) {
+            this.inOrbit = inOrbit;
+        }
+
+        @Override
+        Predicate<SpaceObject> compile(List<SpaceObject> sample) {
+            return object -> object.isStillInOrbit() == inOrbit;
+        }
+
+        @Override
+        IntPredicate compile(ColumnarCatalog catalog, int[] sample) {
+            return row -> catalog.isStillInOrbit(row) == inOrbit;
+        }
+
+        @Override
+        CatalogFilter toFilter() {
+            return CatalogFilter.where("in_orbit=" + inOrbit, object -> object.isStillInOrbit() == inOrbit);
+        }
+    }
+
+    private static final class Not extends Node {
+        final Node inner;
+
+        Not(Node inner) {
+            this.inner = inner;
+        }
+
+        @Override
+        Node simplify() {
+            Node simplified = inner.simplify();
+            return simplified instanceof Not ? ((Not) simplified).inner : new Not(simplified);
+        }
+
+        @Override
+        Predicate<SpaceObject> compile(List<SpaceObject> sample) {
+            return inner.compile(sample).negate();
+        }
+
+        @Override
+        IntPredicate compile(ColumnarCatalog catalog, int[] sample) {
+            return inner.compile(catalog, sample).negate();
+        }
+
+        @Override
+        CatalogFilter toFilter() {
+            return CatalogFilter.not(inner.toFilter());
+        }
+    }
+
+    /**
+     * Terms joined by AND, where each term after the first only runs for rows the earlier ones accept
+     */
+    private static final class And extends Node {
+        final List<Node> terms;
+
+        And(List<Node> terms) {
+            this.terms = terms;
+        }
+
+        @Override
+        Node simplify() {
+            List<Node> flat = new ArrayList<>();
+            for (Node term : terms) {
+                Node simplified = term.simplify();
+                if (simplified instanceof And) {
+                    flat.addAll(((And) simplified).terms);
+                } else {
+                    flat.add(simplified);
+                }
+            }
+            // Merge every range on the same column into one, e.g. days_old>200 AND days_old<1000
+            Map<RowBinder.Column, RangeCondition> ranges = new HashMap<>();
+            List<Node> merged = new ArrayList<>();
+            for (Node term : flat) {
+                if (!(term instanceof RangeCondition)) {
+                    merged.add(term);
+                    continue;
+                }
+                RangeCondition range = (RangeCondition) term;
+                RangeCondition earlier = ranges.get(range.column);
+                if (earlier == null) {
+                    ranges.put(range.column, range);
+                    merged.add(range);
+                } else {
+                    RangeCondition both = new RangeCondition(range.column, Math.max(earlier.min, range.min),
+                                                             Math.min(earlier.max, range.max));
+                    ranges.put(range.column, both);
+                    merged.set(merged.indexOf(earlier), both);
+                }
+            }
+            return merged.size() == 1 ? merged.get(0) : new And(merged);
+        }
+
+        @Override
+        Predicate<SpaceObject> compile(List<SpaceObject> sample) {
+            List<Predicate<SpaceObject>> tests = new ArrayList<>();
+            for (Node term : terms) {
+                tests.add(term.compile(sample));
+            }
+            return allOf(mostSelectiveFirst(tests, test -> (int) sample.stream().filter(test).count()));
+        }
+
+        @Override
+        IntPredicate compile(ColumnarCatalog catalog, int[] sample) {
+            List<IntPredicate> tests = new ArrayList<>();
+            for (Node term : terms) {
+                tests.add(term.compile(catalog, sample));
+            }
+            return allOfRows(mostSelectiveFirst(tests, test -> (int) IntStream.of(sample).filter(test).count()));
+        }
+
+        @Override
+        CatalogFilter toFilter() {
+            return CatalogFilter.and(terms.stream().map(Node::toFilter).toArray(CatalogFilter[]::new));
+        }
+    }
+
+    /**
+     * Terms joined by OR, ordered so the term accepting the most sampled rows runs first
+     */
+    private static final class Or extends Node {
+        final List<Node> terms;
+
+        Or(List<Node> terms) {
+            this.terms = terms;
+        }
+
+        @Override
+        Node simplify() {
+            List<Node> flat = new ArrayList<>();
+            for (Node term : terms) {
+                Node simplified = term.simplify();
+                if (simplified instanceof Or) {
+                    flat.addAll(((Or) simplified).terms);
+                } else {
+                    flat.add(simplified);
+                }
+            }
+            return new Or(flat);
+        }
+
+        @Override
+        Predicate<SpaceObject> compile(List<SpaceObject> sample) {
+            List<Predicate<SpaceObject>> tests = new ArrayList<>();
+            for (Node term : terms) {
+                Predicate<SpaceObject> test = term.compile(sample);
+                tests.add(test.negate());                       //NOT (NOT a AND NOT b) is a OR b
+            }
+            return allOf(mostSelectiveFirst(tests, test -> (int) sample.stream().filter(test).count())).negate();
+        }
+
+        @Override
+        IntPredicate compile(ColumnarCatalog catalog, int[] sample) {
+            List<IntPredicate> tests = new ArrayList<>();
+            for (Node term : terms) {
+                tests.add(term.compile(catalog, sample).negate());
+            }
+            return allOfRows(mostSelectiveFirst(tests, test -> (int) IntStream.of(sample).filter(test).count())).negate();
+        }
+
+        @Override
+        CatalogFilter toFilter() {
+            return CatalogFilter.or(terms.stream().map(Node::toFilter).toArray(CatalogFilter[]::new));
+        }
+    }
+
+    /**
+     * Orders tests by how many sampled rows they accept, fewest first; ties keep the written order
+     */
+    private static <T> List<T> mostSelectiveFirst(List<T> tests, ToIntFunction<T> accepted) {
+        int[] counts = new int[tests.size()];
+        Integer[] order = new Integer[tests.size()];
+        for (int i = 0; i < order.length; i++) {
+            counts[i] = accepted.applyAsInt(tests.get(i));
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(counts[a], counts[b]));
+        List<T> sorted = new ArrayList<>();
+        for (int i : order) {
+            sorted.add(tests.get(i));
+        }
+        return sorted;
+    }
+
+    /**
+     * Joins tests with a short-circuit AND, unrolled for the common short queries
+     */
+    private static Predicate<SpaceObject> allOf(List<Predicate<SpaceObject>> tests) {
+        switch (tests.size()) {
+            case 1:
+                return tests.get(0);
+            case 2: {
+                Predicate<SpaceObject> a = tests.get(0), b = tests.get(1);
+                return object -> a.test(object) && b.test(object);
+            }
+            case 3: {
+                Predicate<SpaceObject> a = tests.get(0), b = tests.get(1), c = tests.get(2);
+                return object -> a.test(object) && b.test(object) && c.test(object);
+            }
+            default: {
+                Predicate<SpaceObject> first = allOf(tests.subList(0, 3));
+                Predicate<SpaceObject> rest = allOf(tests.subList(3, tests.size()));
+                return object -> first.test(object) && rest.test(object);
+            }
+        }
+    }
+
+    private static IntPredicate allOfRows(List<IntPredicate> tests) {
+        switch (tests.size()) {
+            case 1:
+                return tests.get(0);
+            case 2: {
+                IntPredicate a = tests.get(0), b = tests.get(1);
+                return row -> a.test(row) && b.test(row);
+            }
+            case 3: {
+                IntPredicate a = tests.get(0), b = tests.get(1), c = tests.get(2);
+                return row -> a.test(row) && b.test(row) && c.test(row);
+            }
+            default: {
+                IntPredicate first = allOfRows(tests.subList(0, 3));
+                IntPredicate rest = allOfRows(tests.subList(3, tests.size()));
+                return row -> first.test(row) && rest.test(row);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class CatalogQueryTest {
+    private static final String HEADER = "record_id,satellite_name,country,approximate_orbit_type,object_type,"
+            + "launch_year,launch_site,longitude,avg_longitude,geohash,HRR_Category,days_old,conjunction_count";
+
+    @TempDir
+    Path tempDir;
+
+    private List<SpaceObject> catalog() throws IOException {
+        Path file = tempDir.resolve("metrics.csv");
+        Files.write(file, List.of(HEADER,
+                "1,\"Sat, One\",USA,LEO,PAYLOAD,2001,KSC,45.5,44.25,dr5rs,A,300,2",
+                "2,Deb,PRC,GEO,DEBRIS,1999,JSC,-120.125,-119,9q8yy,B,16000,0",
+                "3,Old Rocket,US,LEO-Polar,ROCKET BODY,1965,KSC,10,80,9q8yy,A,20000,4",
+                "4,Frag,CIS,MEO,DEBRIS,1980,,170,100,,C,150,1"), StandardCharsets.UTF_8);
+        List<SpaceObject> objects = new CSVParser().readCsvFile(file.toString());
+        for (SpaceObject object : objects) {
+            object.setRiskLevel(OrbitalAssessment.riskLevel(
+                    OrbitalAssessment.riskCode(object.getLongitude(), object.getAverageLongitude())));
+        }
+        return objects;
+    }
+
+    private static List<String> ids(List<SpaceObject> objects) {
+        return objects.stream().map(SpaceObject::getRecordID).collect(Collectors.toList());
+    }
+
+    @Test
+    void testEveryEvaluationPathAgrees() throws IOException {
+        List<SpaceObject> objects = catalog();
+        ColumnarCatalog columns = ColumnarCatalog.from(objects, new CatalogDictionaries());
+        String[][] cases = {
+            {"orbit~LEO AND days_old>200 AND conjunction_count>0", "1,3"},
+            {"type=debris OR (country=US AND NOT launch_year >= 2000)", "2,3,4"},
+            {"type != DEBRIS && days_old > 200 && days_old <= 16000", "1"},
+            {"type=\"ROCKET BODY\" || risk=High", "3,4"},
+            {"site=ksc AND risk!=low", "3"},
+            {"longitude < 0 OR geohash ~ 9Q8", "2,3"}};
+
+        for (String[] c : cases) {
+            CatalogQuery query = CatalogQuery.parse(c[0]);
+            List<String> expected = List.of(c[1].split(","));
+            assertEquals(expected, ids(query.select(objects).collect(Collectors.toList())), c[0]);
+            assertEquals(expected, ids(objects.stream().filter(query.toFilter()::test).collect(Collectors.toList())), c[0]);
+            assertEquals(expected, IntStream.of(query.matchingRows(columns)).mapToObj(row -> objects.get(row).getRecordID())
+                                            .collect(Collectors.toList()), c[0]);
+        }
+    }
+
+    @Test
+    void testInvalidQueriesNamePosition() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                                                  () -> CatalogQuery.parse("orbit~LEO AND speed>3"));
+        assertTrue(e.getMessage().contains("Unknown field \"speed\" at position 14"), e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> CatalogQuery.parse("days_old~3"));
+        assertThrows(IllegalArgumentException.class, () -> CatalogQuery.parse("(type=DEBRIS"));
+        assertThrows(IllegalArgumentException.class, () -> CatalogQuery.parse("type=DEBRIS OR"));
+        assertThrows(IllegalArgumentException.class, () -> CatalogQuery.parse("risk=extreme"));
+        assertThrows(IllegalArgumentException.class, () -> CatalogQuery.parse("risk=\"\""));
+        assertThrows(IllegalArgumentException.class, () -> CatalogQuery.parse("in_orbit=\"\""));
+        assertThrows(IllegalArgumentException.class, () -> CatalogQuery.parse("days_old>\"\""));
+    }
+}
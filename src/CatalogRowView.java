@@ -0,0 +1,51 @@
+/**
+ * A Space Object materialized from one row of a {@link CatalogStore}. It behaves like any other
+ * Space Object, except that setting its risk level or orbit status also updates the store.
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+class CatalogRowView extends SpaceObject {
+    private final CatalogStore store;
+    private final int row;
+
+    CatalogRowView(CatalogStore store, int row, String recordID, String satelliteName, String country,
+                   String orbitType, String object_type, int launchYear, String launchSite, double longitude,
+                   double averageLongitude, String geohash, int daysOld, long conjunctionCount,
+                   String hrr_category, byte riskCode, boolean stillInOrbit) {
+        super(recordID, satelliteName, country, orbitType, object_type, launchYear, launchSite, longitude,
+              averageLongitude, geohash, daysOld, conjunctionCount, hrr_category);
+        initAssessment(OrbitalAssessment.riskLevel(riskCode), stillInOrbit);   // Dirtiness is tracked by the store
+        this.store = store;
+        this.row = row;
+    }
+
+    @Override
+    public void setRiskLevel(String riskLevel) {
+        store.setRiskCode(row, OrbitalAssessment.riskCode(riskLevel));
+        super.setRiskLevel(riskLevel);
+    }
+
+    @Override
+    public void setStillInOrbit(boolean stillInOrbit) {
+        store.setStillInOrbit(row, stillInOrbit);
+        super.setStillInOrbit(stillInOrbit);
+    }
+
+    @Override
+    void updateAssessment(String riskLevel, boolean stillInOrbit) {
+        setRiskLevel(riskLevel);                                // Writes through to the store
+        setStillInOrbit(stillInOrbit);
+    }
+
+    @Override
+    public boolean isDirty() {
+        return store.isDirty(row);
+    }
+
+    @Override
+    public void clearDirty() {
+        store.clearDirty(row);
+    }
+}
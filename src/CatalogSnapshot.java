@@ -0,0 +1,273 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+/**
+ * Saves a {@link ColumnarCatalog} as a binary snapshot of its columns so that later runs can
+ * restore the catalog without parsing the CSV file it came from. A snapshot records the size,
+ * modification time and CRC32C hash of that CSV file and is only used while all three still match.
+ *
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ * int    magic "RSOS"            int    format version
+ * long   source size             long   source modification time (ms)
+ * long   source CRC32C           int    row count
+ * 5 x    dictionary: int entry count, then each entry as a string
+ *        (countries, orbit types, object types, launch sites, HRR categories)
+ * 3 x    text column: one string per row (record IDs, names, geohashes)
+ * 7 x    int column (country, orbit type, object type, launch site and HRR category codes,
+ *        launch years, days old)
+ * 2 x    double column (longitudes, average longitudes)
+ * 1 x    long column (conjunction counts)
+ * 2 x    byte column (risk codes, still in orbit)
+ * int    magic "RSOS" again, to detect a truncated file
+ * </pre>
+ * A string is written as its UTF-8 length followed by its bytes, with a length of -1 for null.
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public final class CatalogSnapshot {
+    private static final int MAGIC = 0x52534F53;                //"RSOS"
+    private static final int VERSION = 1;
+    private static final long WINDOW_SIZE = 1L << 30;           //Largest slice of a file mapped at once
+
+    private CatalogSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of a catalog loaded from a CSV file. The snapshot is written beside its
+     * final name and then moved into place, so a failed write never leaves a partial snapshot.
+     *
+     * @param catalog - The catalog to save
+     * @param source - The CSV file the catalog was loaded from
+     * @param snapshot - The snapshot file to create or replace
+     * @throws IOException if the source cannot be read or the snapshot cannot be written
+     */
+    public static void write(ColumnarCatalog catalog, Path source, Path snapshot) throws IOException {
+        long sourceSize = Files.size(source);
+        long sourceModified = Files.getLastModifiedTime(source).toMillis();
+        long sourceHash = hashOf(source);
+
+        Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sourceSize);
+            out.writeLong(sourceModified);
+            out.writeLong(sourceHash);
+            out.writeInt(catalog.size());
+            CatalogDictionaries dictionaries = catalog.getDictionaries();
+            for (StringDictionary dictionary : dictionariesOf(dictionaries)) {
+                int entries = dictionary.size();
+                out.writeInt(entries);
+                for (int code = 0; code < entries; code++) {
+                    writeString(out, dictionary.decode(code));
+                }
+            }
+            catalog.writeColumns(out);
+            out.writeInt(MAGIC);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restores a catalog from a snapshot if the snapshot still describes its source CSV file
+     *
+     * @param snapshot - The snapshot file
+     * @param source - The CSV file the snapshot was taken from
+     * @return The restored catalog, or null if there is no snapshot, it has another format version,
+     *         or the source has changed since it was taken
+     * @throws IOException if the snapshot cannot be read or is corrupt
+     */
+    public static ColumnarCatalog read(Path snapshot, Path source) throws IOException {
+        if (!Files.isRegularFile(snapshot) || !Files.isRegularFile(source)) {
+            return null;
+        }
+        try (MappedInput in = new MappedInput(FileChannel.open(snapshot, StandardOpenOption.READ))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            long sourceSize = in.readLong();
+            long sourceModified = in.readLong();
+            long sourceHash = in.readLong();
+            if (sourceSize != Files.size(source)                                 //Cheap checks first
+                    || sourceModified != Files.getLastModifiedTime(source).toMillis()
+                    || sourceHash != hashOf(source)) {
+                return null;
+            }
+            int rows = in.readInt();
+            if (rows < 0) {
+                throw new IOException("Corrupt snapshot " + snapshot + ": negative row count");
+            }
+            CatalogDictionaries dictionaries = new CatalogDictionaries();
+            for (StringDictionary dictionary : dictionariesOf(dictionaries)) {
+                int entries = in.readInt();
+                for (int code = 0; code < entries; code++) {
+                    dictionary.encode(in.readString());                          //Codes come back in saved order
+                }
+            }
+            ColumnarCatalog catalog = ColumnarCatalog.readColumns(in, dictionaries, rows);
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Corrupt snapshot " + snapshot + ": missing end marker");
+            }
+            return catalog;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Corrupt snapshot " + snapshot, e);
+        }
+    }
+
+    /**
+     * Computes the CRC32C hash of a file's contents
+     */
+    static long hashOf(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += WINDOW_SIZE) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position)));
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static StringDictionary[] dictionariesOf(CatalogDictionaries dictionaries) {
+        return new StringDictionary[] {dictionaries.getCountries(), dictionaries.getOrbitTypes(),
+                dictionaries.getObjectTypes(), dictionaries.getLaunchSites(), dictionaries.getHrrCategories()};
+    }
+
+    /**
+     * Writes a String as its UTF-8 length and bytes, or a length of -1 for null
+     */
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a snapshot through memory-mapped windows of at most 1 GB, so column blocks are
+     * copied into arrays in bulk and files larger than one mapping can still be read
+     */
+    static final class MappedInput implements Closeable {
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        MappedInput(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            mapWindow(0);
+        }
+
+        private void mapWindow(long start) throws IOException {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, size - start));
+            windowStart = start;
+        }
+
+        /**
+         * Returns the window, moved forward if needed so that it holds at least the given number of bytes
+         */
+        private ByteBuffer require(int bytes) throws IOException {
+            if (window.remaining() < bytes) {
+                long position = windowStart + window.position();
+                if (size - position < bytes) {
+                    throw new EOFException("Snapshot ends " + (size - position) + " bytes early");
+                }
+                mapWindow(position);
+            }
+            return window;
+        }
+
+        /**
+         * Returns how many elements of a given width can be read before the window must move, at least one
+         */
+        private int available(int remaining, int width) {
+            return Math.max(1, Math.min(remaining, window.remaining() / width));
+        }
+
+        int readInt() throws IOException {
+            return require(Integer.BYTES).getInt();
+        }
+
+        long readLong() throws IOException {
+            return require(Long.BYTES).getLong();
+        }
+
+        String readString() throws IOException {
+            int length = readInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            readBytes(bytes, length);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        void readBytes(byte[] values, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                int n = available(count - offset, 1);
+                require(n).get(values, offset, n);
+                offset += n;
+            }
+        }
+
+        void readInts(int[] values, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                int n = available(count - offset, Integer.BYTES);
+                ByteBuffer buffer = require(n * Integer.BYTES);
+                buffer.asIntBuffer().get(values, offset, n);
+                buffer.position(buffer.position() + n * Integer.BYTES);
+                offset += n;
+            }
+        }
+
+        void readLongs(long[] values, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                int n = available(count - offset, Long.BYTES);
+                ByteBuffer buffer = require(n * Long.BYTES);
+                buffer.asLongBuffer().get(values, offset, n);
+                buffer.position(buffer.position() + n * Long.BYTES);
+                offset += n;
+            }
+        }
+
+        void readDoubles(double[] values, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                int n = available(count - offset, Double.BYTES);
+                ByteBuffer buffer = require(n * Double.BYTES);
+                buffer.asDoubleBuffer().get(values, offset, n);
+                buffer.position(buffer.position() + n * Double.BYTES);
+                offset += n;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
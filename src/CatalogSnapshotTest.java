@@ -0,0 +1,83 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CatalogSnapshotTest {
+    private static final RowBinder.Column[] TEXT_COLUMNS = {
+        RowBinder.Column.RECORD_ID, RowBinder.Column.SATELLITE_NAME, RowBinder.Column.COUNTRY,
+        RowBinder.Column.ORBIT_TYPE, RowBinder.Column.OBJECT_TYPE, RowBinder.Column.LAUNCH_SITE,
+        RowBinder.Column.GEOHASH, RowBinder.Column.HRR_CATEGORY
+    };
+    private static final RowBinder.Column[] NUMBER_COLUMNS = {
+        RowBinder.Column.LAUNCH_YEAR, RowBinder.Column.LONGITUDE, RowBinder.Column.AVG_LONGITUDE,
+        RowBinder.Column.DAYS_OLD, RowBinder.Column.CONJUNCTION_COUNT
+    };
+
+    @TempDir
+    Path tempDir;
+
+    private ColumnarCatalog columns() {
+        List<SpaceObject> objects = new ArrayList<>();
+        objects.add(new SpaceObject("1", "ISS (ZARYA)", "ISS", "LEO", "PAYLOAD", 1998, "TYMSC", 12.5, 13.25,
+                                    "9q8yy", 9000, 40, "A"));
+        objects.add(new SpaceObject("2", null, "US", null, "DEBRIS", 2001, "AFETR", -170.125, -169.5,
+                                    null, 120, 0, null));
+        ColumnarCatalog catalog = ColumnarCatalog.from(objects, new CatalogDictionaries());
+        catalog.setRiskCode(1, OrbitalAssessment.riskCode("High"));
+        catalog.setStillInOrbit(1, true);
+        return catalog;
+    }
+
+    @Test
+    void testRoundTripRestoresEveryColumn() throws Exception {
+        Path source = Files.writeString(tempDir.resolve("rso_metrics.csv"), "record_id\n1\n2\n");
+        Path snapshot = tempDir.resolve("rso_metrics.snapshot");
+        ColumnarCatalog written = columns();
+        CatalogSnapshot.write(written, source, snapshot);
+
+        ColumnarCatalog read = CatalogSnapshot.read(snapshot, source);
+        assertEquals(written.size(), read.size());
+        for (int row = 0; row < written.size(); row++) {
+            assertEquals(written.row(row).toString(), read.row(row).toString());
+            for (RowBinder.Column column : TEXT_COLUMNS) {
+                assertEquals(written.getText(column, row), read.getText(column, row));
+            }
+            for (RowBinder.Column column : NUMBER_COLUMNS) {
+                assertEquals(written.getNumber(column, row), read.getNumber(column, row));
+            }
+            assertEquals(written.getRiskCode(row), read.getRiskCode(row));
+            assertEquals(written.isStillInOrbit(row), read.isStillInOrbit(row));
+        }
+        assertFalse(Files.exists(tempDir.resolve("rso_metrics.snapshot.tmp")));
+    }
+
+    @Test
+    void testChangedSourceIsNotRestored() throws Exception {
+        Path source = Files.writeString(tempDir.resolve("rso_metrics.csv"), "record_id\n1\n2\n");
+        Path snapshot = tempDir.resolve("rso_metrics.snapshot");
+        FileTime modified = Files.getLastModifiedTime(source);
+        CatalogSnapshot.write(columns(), source, snapshot);
+
+        Files.writeString(source, "record_id\n1\n2\n3\n");          //Size
+        Files.setLastModifiedTime(source, modified);
+        assertNull(CatalogSnapshot.read(snapshot, source));
+
+        Files.writeString(source, "record_id\n1\n2\n");
+        Files.setLastModifiedTime(source, FileTime.fromMillis(modified.toMillis() + 60000));
+        assertNull(CatalogSnapshot.read(snapshot, source));                //Modification time
+
+        Files.writeString(source, "record_id\n1\n3\n");
+        Files.setLastModifiedTime(source, modified);
+        assertNull(CatalogSnapshot.read(snapshot, source));                //Content of the same size and time
+
+        Files.writeString(source, "record_id\n1\n2\n");
+        Files.setLastModifiedTime(source, modified);
+        assertNotNull(CatalogSnapshot.read(snapshot, source));
+    }
+}
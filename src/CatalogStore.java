@@ -0,0 +1,76 @@
+/**
+ * A store that holds the space object catalog in some form other than a list of objects, such as
+ * columns or off-heap memory. Rows are handed out as Space Objects that write their assessment
+ * results back into the store, so code written against {@code List<SpaceObject>} can work on any
+ * store through {@link CatalogListView}.
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public interface CatalogStore {
+    /**
+     * Returns the number of rows in the store
+     */
+    public int size();
+
+    /**
+     * Materializes one row as a Space Object. Setting the risk level or orbit status
+     * on the returned object updates the store as well.
+     *
+     * @param row - The row index, from 0 to size() - 1
+     * @return A Space Object holding the row's values
+     */
+    public SpaceObject row(int row);
+
+    /**
+     * Stores the risk level of a row, marking it dirty if the level changes
+     *
+     * @param row - The row index
+     * @param riskCode - The risk code, as defined by {@link OrbitalAssessment}
+     */
+    public void setRiskCode(int row, byte riskCode);
+
+    /**
+     * Stores whether a row is still in orbit, marking it dirty if the status changes
+     *
+     * @param row - The row index
+     * @param stillInOrbit - True if the object is still orbiting
+     */
+    public void setStillInOrbit(int row, boolean stillInOrbit);
+
+    /**
+     * Returns whether a row's risk level or orbit status has changed since it was loaded or last exported
+     *
+     * @param row - The row index
+     */
+    public boolean isDirty(int row);
+
+    /**
+     * Finds the next row whose assessment has changed since it was loaded or last exported
+     *
+     * @param fromRow - The first row index to check
+     * @return The index of the next changed row, or -1 if there is none
+     */
+    public int nextDirtyRow(int fromRow);
+
+    /**
+     * Records that a row's current assessment has been exported
+     *
+     * @param row - The row index
+     */
+    public void clearDirty(int row);
+
+    /**
+     * Returns a number that advances whenever the risk level or orbit status of a row changes.
+     * Results computed from the store's assessments are current as long as it has not moved.
+     */
+    public long getAssessmentVersion();
+
+    /**
+     * Returns a list view of the store for code that works on lists of Space Objects
+     */
+    public default CatalogListView asList() {
+        return new CatalogListView(this);
+    }
+}
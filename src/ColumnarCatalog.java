@@ -0,0 +1,674 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+/**
+ * Holds the space object catalog as columns rather than as a list of objects. Numeric fields live
+ * in primitive arrays and low-cardinality fields as dictionary codes, so scans over the catalog
+ * read contiguous memory instead of chasing one pointer per object and per field.
+ *
+ * <p>Row {@code i} of the catalog corresponds to element {@code i} of the list it was built from.
+ * A {@link SpaceObject} is only created when a caller asks for one through {@link #row(int)}, and
+ * assessment results set on it are written back to the columns.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * ColumnarCatalog catalog = ColumnarCatalog.from(manager.getRso_metrics(), new CatalogDictionaries());
+ * catalog.assessRiskLevel();
+ * int[] rows = catalog.rowsWithLongitudeBetween(-10, 10);
+ * SpaceObject first = catalog.row(rows[0]);
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class ColumnarCatalog implements CatalogStore {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int DRIFT_BLOCK_ROWS = 4096;          //Codes for one block stay in cache until compared
+
+    private final CatalogDictionaries dictionaries;
+    private int size;
+
+    // High-cardinality text columns
+    private String[] recordIDs;
+    private String[] satelliteNames;
+    private String[] geohashes;
+
+    // Dictionary-coded columns
+    private int[] countryCodes;
+    private int[] orbitTypeCodes;
+    private int[] objectTypeCodes;
+    private int[] launchSiteCodes;
+    private int[] hrrCategoryCodes;
+
+    // Numeric columns
+    private int[] launchYears;
+    private double[] longitudes;
+    private double[] averageLongitudes;
+    private int[] daysOld;
+    private long[] conjunctionCounts;
+
+    // Assessment columns
+    private byte[] riskCodes;
+    private boolean[] stillInOrbit;
+    private final BitSet dirtyRows = new BitSet();             //Rows whose assessment changed since the last export
+    private final AtomicLong assessmentVersion = new AtomicLong();
+
+    /**
+     * Constructs an empty catalog whose categorical columns are coded through the given dictionaries
+     *
+     * @param dictionaries - The dictionaries for the low-cardinality columns
+     */
+    public ColumnarCatalog(CatalogDictionaries dictionaries) {
+        this(dictionaries, INITIAL_CAPACITY);
+    }
+
+    private ColumnarCatalog(CatalogDictionaries dictionaries, int capacity) {
+        this.dictionaries = dictionaries;
+        allocate(Math.max(capacity, 1));
+    }
+
+    /**
+     * Builds a catalog holding the same objects, in the same order, as a list
+     *
+     * @param objects - The space objects to store
+     * @param dictionaries - The dictionaries for the low-cardinality columns
+     * @return The filled catalog
+     */
+    public static ColumnarCatalog from(List<SpaceObject> objects, CatalogDictionaries dictionaries) {
+        ColumnarCatalog catalog = new ColumnarCatalog(dictionaries, objects.size());
+        for (SpaceObject object : objects) {
+            catalog.add(object);
+        }
+        return catalog;
+    }
+
+    private void allocate(int capacity) {
+        recordIDs = new String[capacity];
+        satelliteNames = new String[capacity];
+        geohashes = new String[capacity];
+        countryCodes = new int[capacity];
+        orbitTypeCodes = new int[capacity];
+        objectTypeCodes = new int[capacity];
+        launchSiteCodes = new int[capacity];
+        hrrCategoryCodes = new int[capacity];
+        launchYears = new int[capacity];
+        longitudes = new double[capacity];
+        averageLongitudes = new double[capacity];
+        daysOld = new int[capacity];
+        conjunctionCounts = new long[capacity];
+        riskCodes = new byte[capacity];
+        stillInOrbit = new boolean[capacity];
+    }
+
+    private void grow() {
+        int capacity = recordIDs.length * 2;
+        recordIDs = Arrays.copyOf(recordIDs, capacity);
+        satelliteNames = Arrays.copyOf(satelliteNames, capacity);
+        geohashes = Arrays.copyOf(geohashes, capacity);
+        countryCodes = Arrays.copyOf(countryCodes, capacity);
+        orbitTypeCodes = Arrays.copyOf(orbitTypeCodes, capacity);
+        objectTypeCodes = Arrays.copyOf(objectTypeCodes, capacity);
+        launchSiteCodes = Arrays.copyOf(launchSiteCodes, capacity);
+        hrrCategoryCodes = Arrays.copyOf(hrrCategoryCodes, capacity);
+        launchYears = Arrays.copyOf(launchYears, capacity);
+        longitudes = Arrays.copyOf(longitudes, capacity);
+        averageLongitudes = Arrays.copyOf(averageLongitudes, capacity);
+        daysOld = Arrays.copyOf(daysOld, capacity);
+        conjunctionCounts = Arrays.copyOf(conjunctionCounts, capacity);
+        riskCodes = Arrays.copyOf(riskCodes, capacity);
+        stillInOrbit = Arrays.copyOf(stillInOrbit, capacity);
+    }
+
+    /**
+     * Appends a space object as the last row of the catalog
+     *
+     * @param object - The space object to store
+     */
+    public void add(SpaceObject object) {
+        if (size == recordIDs.length) {
+            grow();
+        }
+        int row = size++;
+        recordIDs[row] = object.getRecordID();
+        satelliteNames[row] = object.getSatelliteName();
+        geohashes[row] = object.getGeohash();
+        countryCodes[row] = encode(dictionaries.getCountries(), object.getCountry());
+        orbitTypeCodes[row] = encode(dictionaries.getOrbitTypes(), object.getOrbitType());
+        objectTypeCodes[row] = encode(dictionaries.getObjectTypes(), object.getObject_type());
+        launchSiteCodes[row] = encode(dictionaries.getLaunchSites(), object.getLaunchSite());
+        hrrCategoryCodes[row] = encode(dictionaries.getHrrCategories(), object.getHrrCategory());
+        launchYears[row] = object.getLaunchYear();
+        longitudes[row] = object.getLongitude();
+        averageLongitudes[row] = object.getAverageLongitude();
+        daysOld[row] = object.getDaysOld();
+        conjunctionCounts[row] = object.getConjunctionCount();
+        riskCodes[row] = OrbitalAssessment.riskCode(object.getRiskLevel());
+        stillInOrbit[row] = object.isStillInOrbit();
+    }
+
+    /**
+     * Writes every column of the catalog as one contiguous block, in the order read back by
+     * {@link #readColumns(CatalogSnapshot.MappedInput, CatalogDictionaries, int)}
+     *
+     * @param out - The snapshot being written
+     */
+    void writeColumns(DataOutputStream out) throws IOException {
+        for (String[] column : new String[][] {recordIDs, satelliteNames, geohashes}) {
+            for (int row = 0; row < size; row++) {
+                CatalogSnapshot.writeString(out, column[row]);
+            }
+        }
+        for (int[] column : new int[][] {countryCodes, orbitTypeCodes, objectTypeCodes, launchSiteCodes,
+                                         hrrCategoryCodes, launchYears, daysOld}) {
+            for (int row = 0; row < size; row++) {
+                out.writeInt(column[row]);
+            }
+        }
+        for (double[] column : new double[][] {longitudes, averageLongitudes}) {
+            for (int row = 0; row < size; row++) {
+                out.writeDouble(column[row]);
+            }
+        }
+        for (int row = 0; row < size; row++) {
+            out.writeLong(conjunctionCounts[row]);
+        }
+        out.write(riskCodes, 0, size);
+        for (int row = 0; row < size; row++) {
+            out.writeByte(stillInOrbit[row] ? 1 : 0);
+        }
+    }
+
+    /**
+     * Reads a catalog written by {@link #writeColumns(DataOutputStream)}
+     *
+     * @param in - The snapshot, positioned at the first column block
+     * @param dictionaries - The dictionaries the snapshot's codes refer to
+     * @param rows - The number of rows in the snapshot
+     * @return The restored catalog
+     */
+    static ColumnarCatalog readColumns(CatalogSnapshot.MappedInput in, CatalogDictionaries dictionaries, int rows)
+            throws IOException {
+        ColumnarCatalog catalog = new ColumnarCatalog(dictionaries, rows);
+        for (String[] column : new String[][] {catalog.recordIDs, catalog.satelliteNames, catalog.geohashes}) {
+            for (int row = 0; row < rows; row++) {
+                column[row] = in.readString();
+            }
+        }
+        for (int[] column : new int[][] {catalog.countryCodes, catalog.orbitTypeCodes, catalog.objectTypeCodes,
+                                         catalog.launchSiteCodes, catalog.hrrCategoryCodes, catalog.launchYears,
+                                         catalog.daysOld}) {
+            in.readInts(column, rows);
+        }
+        in.readDoubles(catalog.longitudes, rows);
+        in.readDoubles(catalog.averageLongitudes, rows);
+        in.readLongs(catalog.conjunctionCounts, rows);
+        in.readBytes(catalog.riskCodes, rows);
+        byte[] inOrbit = new byte[rows];
+        in.readBytes(inOrbit, rows);
+        for (int row = 0; row < rows; row++) {
+            catalog.stillInOrbit[row] = inOrbit[row] != 0;
+        }
+        catalog.size = rows;
+        return catalog;
+    }
+
+    /**
+     * Encodes a value, using -1 for a missing (null) value
+     */
+    private static int encode(StringDictionary dictionary, String value) {
+        return value == null ? -1 : dictionary.encode(value);
+    }
+
+    private static String decode(StringDictionary dictionary, int code) {
+        return code < 0 ? null : dictionary.decode(code);
+    }
+
+    /**
+     * Returns the number of rows in the catalog
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the dictionaries the categorical columns are coded through
+     */
+    public CatalogDictionaries getDictionaries() {
+        return dictionaries;
+    }
+
+    /**
+     * Materializes one row as a Space Object, including its assessment results
+     *
+     * @param row - The row index, from 0 to size() - 1
+     * @return A new Space Object holding the row's values
+     */
+    @Override
+    public SpaceObject row(int row) {
+        checkRow(row);
+        return new CatalogRowView(this, row, recordIDs[row], satelliteNames[row],
+                decode(dictionaries.getCountries(), countryCodes[row]),
+                decode(dictionaries.getOrbitTypes(), orbitTypeCodes[row]),
+                decode(dictionaries.getObjectTypes(), objectTypeCodes[row]), launchYears[row],
+                decode(dictionaries.getLaunchSites(), launchSiteCodes[row]), longitudes[row],
+                averageLongitudes[row], geohashes[row], daysOld[row], conjunctionCounts[row],
+                decode(dictionaries.getHrrCategories(), hrrCategoryCodes[row]), riskCodes[row], stillInOrbit[row]);
+    }
+
+    @Override
+    public void setRiskCode(int row, byte riskCode) {
+        checkRow(row);
+        if (riskCodes[row] != riskCode) {
+            riskCodes[row] = riskCode;
+            dirtyRows.set(row);
+            assessmentVersion.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void setStillInOrbit(int row, boolean stillInOrbit) {
+        checkRow(row);
+        if (this.stillInOrbit[row] != stillInOrbit) {
+            this.stillInOrbit[row] = stillInOrbit;
+            dirtyRows.set(row);
+            assessmentVersion.incrementAndGet();
+        }
+    }
+
+    @Override
+    public boolean isDirty(int row) {
+        checkRow(row);
+        return dirtyRows.get(row);
+    }
+
+    @Override
+    public int nextDirtyRow(int fromRow) {
+        return dirtyRows.nextSetBit(fromRow);
+    }
+
+    @Override
+    public void clearDirty(int row) {
+        checkRow(row);
+        dirtyRows.clear(row);
+    }
+
+    @Override
+    public long getAssessmentVersion() {
+        return assessmentVersion.get();
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " outside catalog of size " + size);
+        }
+    }
+
+    /**
+     * Returns the current longitude of a row
+     */
+    public double getLongitude(int row) {
+        checkRow(row);
+        return longitudes[row];
+    }
+
+    /**
+     * Returns the average longitude of a row
+     */
+    public double getAverageLongitude(int row) {
+        checkRow(row);
+        return averageLongitudes[row];
+    }
+
+    /**
+     * Returns the geohash of a row
+     */
+    public String getGeohash(int row) {
+        checkRow(row);
+        return geohashes[row];
+    }
+
+    /**
+     * Returns the age in days of a row
+     */
+    public int getDaysOld(int row) {
+        checkRow(row);
+        return daysOld[row];
+    }
+
+    /**
+     * Returns the conjunction count of a row
+     */
+    public long getConjunctionCount(int row) {
+        checkRow(row);
+        return conjunctionCounts[row];
+    }
+
+    /**
+     * Returns the launch year of a row
+     */
+    public int getLaunchYear(int row) {
+        checkRow(row);
+        return launchYears[row];
+    }
+
+    /**
+     * Returns the orbit type dictionary code of a row, or -1 if it has none
+     */
+    public int getOrbitTypeCode(int row) {
+        checkRow(row);
+        return orbitTypeCodes[row];
+    }
+
+    /**
+     * Returns the object type dictionary code of a row, or -1 if it has none
+     */
+    public int getObjectTypeCode(int row) {
+        checkRow(row);
+        return objectTypeCodes[row];
+    }
+
+    /**
+     * Returns the country dictionary code of a row, or -1 if it has none
+     */
+    public int getCountryCode(int row) {
+        checkRow(row);
+        return countryCodes[row];
+    }
+
+    /**
+     * Returns the HRR category dictionary code of a row, or -1 if it has none
+     */
+    public int getHrrCategoryCode(int row) {
+        checkRow(row);
+        return hrrCategoryCodes[row];
+    }
+
+    /**
+     * Returns the dictionary code of a row in one of the dictionary-coded columns
+     *
+     * @param column - COUNTRY, ORBIT_TYPE, OBJECT_TYPE, LAUNCH_SITE or HRR_CATEGORY
+     * @param row - The row index
+     * @return The code, or -1 if the row has no value
+     */
+    public int getCode(RowBinder.Column column, int row) {
+        checkRow(row);
+        switch (column) {
+            case COUNTRY:
+                return countryCodes[row];
+            case ORBIT_TYPE:
+                return orbitTypeCodes[row];
+            case OBJECT_TYPE:
+                return objectTypeCodes[row];
+            case LAUNCH_SITE:
+                return launchSiteCodes[row];
+            case HRR_CATEGORY:
+                return hrrCategoryCodes[row];
+            default:
+                throw new IllegalArgumentException(column + " is not dictionary coded");
+        }
+    }
+
+    /**
+     * Returns the value of a row in one of the numeric columns
+     *
+     * @param column - LAUNCH_YEAR, LONGITUDE, AVG_LONGITUDE, DAYS_OLD or CONJUNCTION_COUNT
+     * @param row - The row index
+     * @return The value as a double
+     */
+    public double getNumber(RowBinder.Column column, int row) {
+        checkRow(row);
+        switch (column) {
+            case LAUNCH_YEAR:
+                return launchYears[row];
+            case LONGITUDE:
+                return longitudes[row];
+            case AVG_LONGITUDE:
+                return averageLongitudes[row];
+            case DAYS_OLD:
+                return daysOld[row];
+            case CONJUNCTION_COUNT:
+                return conjunctionCounts[row];
+            default:
+                throw new IllegalArgumentException(column + " is not a numeric column");
+        }
+    }
+
+    /**
+     * Returns the value of a row in a text column, decoding dictionary-coded columns
+     *
+     * @param column - Any column other than the numeric ones
+     * @param row - The row index
+     * @return The value, or null if the row has none
+     */
+    public String getText(RowBinder.Column column, int row) {
+        checkRow(row);
+        switch (column) {
+            case RECORD_ID:
+                return recordIDs[row];
+            case SATELLITE_NAME:
+                return satelliteNames[row];
+            case GEOHASH:
+                return geohashes[row];
+            default:
+                int code = getCode(column, row);
+                return code < 0 ? null : dictionaries.forColumn(column).decode(code);
+        }
+    }
+
+    /**
+     * Builds a test of whether a row's value in a numeric column lies within a range. The test
+     * reads the column array directly, so it only covers rows present when it was built.
+     *
+     * @param column - LAUNCH_YEAR, LONGITUDE, AVG_LONGITUDE, DAYS_OLD or CONJUNCTION_COUNT
+     * @param min - The smallest matching value, inclusive
+     * @param max - The largest matching value, inclusive
+     * @return The test, taking a row index
+     */
+    public IntPredicate numberBetween(RowBinder.Column column, double min, double max) {
+        switch (column) {
+            case LAUNCH_YEAR: {
+                int[] values = launchYears;
+                return row -> values[row] >= min & values[row] <= max;
+            }
+            case LONGITUDE: {
+                double[] values = longitudes;
+                return row -> values[row] >= min & values[row] <= max;
+            }
+            case AVG_LONGITUDE: {
+                double[] values = averageLongitudes;
+                return row -> values[row] >= min & values[row] <= max;
+            }
+            case DAYS_OLD: {
+                int[] values = daysOld;
+                return row -> values[row] >= min & values[row] <= max;
+            }
+            case CONJUNCTION_COUNT: {
+                long[] values = conjunctionCounts;
+                return row -> values[row] >= min & values[row] <= max;
+            }
+            default:
+                throw new IllegalArgumentException(column + " is not a numeric column");
+        }
+    }
+
+    /**
+     * Builds a test of whether a row's code in a dictionary-coded column is one of a set of codes.
+     * The test reads the column array directly, so it only covers rows present when it was built.
+     *
+     * @param column - COUNTRY, ORBIT_TYPE, OBJECT_TYPE, LAUNCH_SITE or HRR_CATEGORY
+     * @param codes - Whether each code matches; codes beyond the array and missing values do not
+     * @return The test, taking a row index
+     */
+    public IntPredicate codeIn(RowBinder.Column column, boolean[] codes) {
+        int[] values;
+        switch (column) {
+            case COUNTRY:
+                values = countryCodes;
+                break;
+            case ORBIT_TYPE:
+                values = orbitTypeCodes;
+                break;
+            case OBJECT_TYPE:
+                values = objectTypeCodes;
+                break;
+            case LAUNCH_SITE:
+                values = launchSiteCodes;
+                break;
+            case HRR_CATEGORY:
+                values = hrrCategoryCodes;
+                break;
+            default:
+                throw new IllegalArgumentException(column + " is not dictionary coded");
+        }
+        boolean[] matches = Arrays.copyOf(codes, codes.length + 1);  //Last slot is for missing values
+        int missing = codes.length;
+        return row -> {
+            int code = values[row];
+            return matches[code >= 0 && code < missing ? code : missing];
+        };
+    }
+
+    /**
+     * Returns the risk code of a row, as defined by {@link OrbitalAssessment}
+     */
+    public byte getRiskCode(int row) {
+        checkRow(row);
+        return riskCodes[row];
+    }
+
+    /**
+     * Returns whether a row was assessed as still in orbit
+     */
+    public boolean isStillInOrbit(int row) {
+        checkRow(row);
+        return stillInOrbit[row];
+    }
+
+    /**
+     * Finds the rows whose longitude lies strictly between two limits
+     *
+     * @param lowerLimit - The exclusive lower longitude
+     * @param upperLimit - The exclusive upper longitude
+     * @return The matching row indexes in ascending order
+     */
+    public int[] rowsWithLongitudeBetween(double lowerLimit, double upperLimit) {
+        double[] lon = longitudes;
+        int n = size;
+        int[] rows = new int[Math.min(n, 16)];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            double value = lon[i];
+            if (value < upperLimit && value > lowerLimit) {
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, Math.max(16, count * 2));
+                }
+                rows[count++] = i;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Assesses the risk level of every row from its orbital drift in one pass over the longitude columns.
+     * Codes are computed a block at a time by {@link DriftKernel#best()}, and only the rows whose
+     * code differs from the stored one are written and marked dirty.
+     */
+    public void assessRiskLevel() {
+        DriftKernel kernel = DriftKernel.best();
+        byte[] block = new byte[Math.min(size, DRIFT_BLOCK_ROWS)];
+        boolean changed = false;
+        for (int start = 0; start < size; start += block.length) {
+            int length = Math.min(block.length, size - start);
+            kernel.riskCodes(longitudes, averageLongitudes, start, start + length, block);
+            int k = 0;
+            int mismatch;
+            while ((mismatch = Arrays.mismatch(riskCodes, start + k, start + length, block, k, length)) >= 0) {
+                int row = start + k + mismatch;
+                riskCodes[row] = block[k + mismatch];
+                dirtyRows.set(row);
+                k += mismatch + 1;
+                changed = true;
+            }
+        }
+        if (changed) {
+            assessmentVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * Evaluates whether every row is still in orbit in one pass over the relevant columns
+     */
+    public void assessStillInOrbit() {
+        double[] lon = longitudes;
+        int[] days = daysOld;
+        long[] conjunctions = conjunctionCounts;
+        int[] orbits = orbitTypeCodes;
+        boolean[] inOrbit = stillInOrbit;
+        boolean changed = false;
+        for (int i = 0, n = size; i < n; i++) {
+            String orbitType = orbits[i] < 0 ? null : "";       //Only whether an orbit type exists matters
+            boolean orbiting = OrbitalAssessment.stillInOrbit(orbitType, lon[i], days[i], conjunctions[i]);
+            if (inOrbit[i] != orbiting) {
+                inOrbit[i] = orbiting;
+                dirtyRows.set(i);
+                changed = true;
+            }
+        }
+        if (changed) {
+            assessmentVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * Assesses both the risk level and the orbit status of rows [from, to) in one pass over the
+     * columns. Changed rows are recorded in a bitmap laid out like {@link BitSet#toLongArray()}
+     * instead of being marked dirty, so ranges starting on a multiple of 64 can be assessed on
+     * different threads; {@link #markDirty(long[])} applies the bitmap afterwards.
+     *
+     * @param from - The first row, a multiple of 64
+     * @param to - One past the last row
+     * @param changed - The bitmap that rows whose assessment changed are set in
+     * @return The tally of the assessed rows
+     */
+    ParallelAssessor.Summary assessRows(int from, int to, long[] changed) {
+        double[] lon = longitudes;
+        double[] avg = averageLongitudes;
+        int[] days = daysOld;
+        long[] conjunctions = conjunctionCounts;
+        int[] orbits = orbitTypeCodes;
+        byte[] risk = riskCodes;
+        boolean[] inOrbit = stillInOrbit;
+        ParallelAssessor.Summary summary = new ParallelAssessor.Summary();
+        for (int i = from; i < to; i++) {
+            byte code = OrbitalAssessment.riskCode(lon[i], avg[i]);
+            String orbitType = orbits[i] < 0 ? null : "";       //Only whether an orbit type exists matters
+            boolean orbiting = OrbitalAssessment.stillInOrbit(orbitType, lon[i], days[i], conjunctions[i]);
+            if (risk[i] != code || inOrbit[i] != orbiting) {
+                risk[i] = code;
+                inOrbit[i] = orbiting;
+                changed[i >>> 6] |= 1L << i;
+                summary.changed++;
+            }
+            summary.count(code, orbiting);
+        }
+        return summary;
+    }
+
+    /**
+     * Marks every row set in a bitmap of changed rows as dirty
+     *
+     * @param changed - A bitmap filled by {@link #assessRows(int, int, long[])}
+     */
+    void markDirty(long[] changed) {
+        dirtyRows.or(BitSet.valueOf(changed));
+        assessmentVersion.incrementAndGet();
+    }
+}
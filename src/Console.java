@@ -18,20 +18,22 @@ public class Console {
      */
     public void runAdminConsole(Administrator admin, Scanner scanner, DataManager manager, Log logger) {
         logger.updateLog("Administrator " + admin.getName() + " logged in");
+        logger.audit(admin, AuditAction.LOGIN);
         boolean exit = false;
         while (!exit) {
             System.out.println("\n===== Administrator Console ====="
                     + "\n1. Create User"
                     + "\n2. Manage User"
                     + "\n3. Delete User"
-                    + "\n4. Back to Main Menu");
-            System.out.print("Select an option (1-4): ");
+                    + "\n4. View Metrics"
+                    + "\n5. Back to Main Menu");
+            System.out.print("Select an option (1-5): ");
 
             int adminChoice;
             try {
                 adminChoice = Integer.parseInt(scanner.nextLine());
             } catch (NumberFormatException e) {
-                System.out.println("Invalid input. Choose a number between 1 and 4.");
+                System.out.println("Invalid input. Choose a number between 1 and 5.");
                 continue;
             }
 
@@ -50,6 +52,7 @@ public class Console {
                         try {
                             admin.createUser(typeIn, nameIn, scanner);
                             logger.updateLog(admin.getName() + " added " + typeIn + " " + nameIn + " to the USERS list");
+                            logger.audit(admin, AuditAction.CREATE_USER, "userType", typeIn, "userName", nameIn);
                         } catch (IllegalArgumentException e) {
                             System.out.println(e.getMessage());
                             System.out.println("Please try again or enter 'B' to discard operation and return to admin console.");
@@ -69,6 +72,7 @@ public class Console {
                         if (admin.getUserByName(name) != null) {
                             admin.manageUser(name, scanner);
                             logger.updateLog(admin.getName() + " updated user " + name + "'s info");
+                            logger.audit(admin, AuditAction.UPDATE_USER, "userName", name);
                         } else {
                             System.out.println("No user found with Name: " + name + ". Try again or 'B' to discard operation and return to admin console.");
                         }
@@ -87,6 +91,7 @@ public class Console {
                         if (admin.getUserByName(name) != null) {
                             admin.deleteUser(name);
                             logger.updateLog(admin.getName() + " deleted user " + name);
+                            logger.audit(admin, AuditAction.DELETE_USER, "userName", name);
                         } else {
                             System.out.println("No user found with Name: " + name + ". Try again or 'B' to discard operation and return to admin console.");
                         }
@@ -94,14 +99,20 @@ public class Console {
                     break;
 
                 case 4:
+                    System.out.print(MetricsRegistry.global().report());
+                    logger.updateLog(admin.getName() + " viewed system metrics");
+                    break;
+
+                case 5:
                     exit = true;
                     manager.updateUserData("USERS.csv");
                     logger.updateLog(admin.getName() + " logged out");
+                    logger.audit(admin, AuditAction.LOGOUT);
                     System.out.println("\n***Exited Administrative Console Gracefully.***");
                     break;
 
                 default:
-                    System.out.println("Invalid option. Choose a number between 1 and 4.");
+                    System.out.println("Invalid option. Choose a number between 1 and 5.");
             }
         }
     }
@@ -116,19 +127,21 @@ public class Console {
      */
     public void runScientistConsole(Scientist s, Scanner scanner, DataManager manager, Log logger) {
         logger.updateLog("Scientist " + s.getName() + " logged in");
+        logger.audit(s, AuditAction.LOGIN);
         boolean exit = false;
         while (!exit) {
             System.out.println("\n===== Scientist Console ====="
                     + "\n1. Track Objects in Space"
                     + "\n2. Assess Object Orbital Status"
-                    + "\n3. Go Back");
-            System.out.print("Select an option (1-3): ");
+                    + "\n3. Query Objects"
+                    + "\n4. Go Back");
+            System.out.print("Select an option (1-4): ");
 
             int scientistChoice;
             try {
                 scientistChoice = Integer.parseInt(scanner.nextLine());
             } catch (NumberFormatException e) {
-                System.out.println("Invalid input. Please enter a number between 1 and 3.");
+                System.out.println("Invalid input. Please enter a number between 1 and 4.");
                 continue;
             }
 
@@ -138,8 +151,11 @@ public class Console {
                     System.out.println("Select the type of object to track:");
                     System.out.println("ROCKET BODY | PAYLOAD | DEBRIS | UNKNOWN");
                     String objectType = scanner.nextLine();
-                    s.trackObjectsInSpace(objectType);
+                    ResultRenderer trackRenderer = promptRenderer(scanner);
+                    long trackStart = System.nanoTime();
+                    long tracked = s.trackObjectsInSpace(objectType, trackRenderer);
                     logger.updateLog(s.getName() + " requested a " + objectType + " list");
+                    logger.audit(s, AuditAction.TRACK_OBJECTS, trackStart, "objectType", objectType, "count", String.valueOf(tracked));
                     break;
 
                 case 2:
@@ -150,34 +166,50 @@ public class Console {
                                 + "\n1. Track Objects In Low Earth Orbit"
                                 + "\n2. Assess Objects Still in Orbit"
                                 + "\n3. Assess Risk Level of Objects"
-                                + "\n4. Go Back");
-                        System.out.print("Select an option (1-4): ");
+                                + "\n4. Assess Risk Level and Orbit Status Together"
+                                + "\n5. Go Back");
+                        System.out.print("Select an option (1-5): ");
                         int subChoice;
                         try {
                             subChoice = Integer.parseInt(scanner.nextLine());
                         } catch (NumberFormatException e) {
-                            System.out.println("Invalid input. Please enter a number 1 - 4.");
+                            System.out.println("Invalid input. Please enter a number 1 - 5.");
                             continue;
                         }
 
                         switch (subChoice) {
                             case 1:
                                 logger.updateLog(s.getName() + " requested a list of objects in LEO");
-                                s.trackObjectsInLEO();
+                                ResultRenderer leoRenderer = promptRenderer(scanner);
+                                long leoStart = System.nanoTime();
+                                long inLeo = s.trackObjectsInLEO(leoRenderer);
+                                logger.audit(s, AuditAction.TRACK_LEO, leoStart, "count", String.valueOf(inLeo));
                                 break;
                             case 2:
                                 System.out.println("Assessing objects still in orbit...");
+                                long orbitStart = System.nanoTime();
                                 s.assessStillInOrbit();
                                 System.out.println("Records updated");
                                 logger.updateLog(s.getName() + " added results to still_in_orbit column");
+                                logger.audit(s, AuditAction.ASSESS_ORBIT, orbitStart);
                                 break;
                             case 3:
                                 System.out.println("Assessing risk level of objects...");
+                                long riskStart = System.nanoTime();
                                 s.assessRiskLevel();
                                 System.out.println("Records updated");
                                 logger.updateLog(s.getName() + " added results to risk_level column");
+                                logger.audit(s, AuditAction.ASSESS_RISK, riskStart);
                                 break;
                             case 4:
+                                System.out.println("Assessing risk level and orbit status of objects...");
+                                long assessStart = System.nanoTime();
+                                ParallelAssessor.Summary summary = s.assessObjects();
+                                System.out.println(summary);
+                                logger.updateLog(s.getName() + " added results to risk_level and still_in_orbit columns");
+                                logger.audit(s, AuditAction.ASSESS_ALL, assessStart, "updated", String.valueOf(summary.getChangedCount()));
+                                break;
+                            case 5:
                                 subExit = true;
                                 logger.updateLog(s.getName() + " ceased adding to Updated_RSO_Metrics.csv");
                                 break;
@@ -189,8 +221,23 @@ public class Console {
                     break;
 
                 case 3:
+                    System.out.println("Enter a query, for example: orbit~LEO AND days_old>200 AND conjunction_count>0");
+                    String query = scanner.nextLine();
+                    ResultRenderer queryRenderer = promptRenderer(scanner);
+                    long queryStart = System.nanoTime();
+                    try {
+                        long matched = s.queryObjects(query, queryRenderer);
+                        logger.updateLog(s.getName() + " queried objects: " + query);
+                        logger.audit(s, AuditAction.QUERY_OBJECTS, queryStart, "query", query, "count", String.valueOf(matched));
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Invalid query: " + e.getMessage());
+                    }
+                    break;
+
+                case 4:
                     exit = true;
                     logger.updateLog(s.getName() + " logged out");
+                    logger.audit(s, AuditAction.LOGOUT);
                     break;
 
                 default:
@@ -200,8 +247,10 @@ public class Console {
 
         System.out.println("Generating Updated Metrics...");
         logger.updateLog("Writing Updated_RSO_Metrics.csv...");
-        manager.updateMetricData("Updated_RSO_Metrics_test.csv");
+        long exportStart = System.nanoTime();
+        manager.exportMetricChanges("Updated_RSO_Metrics_test.csv");
         logger.updateLog("Update complete");
+        logger.audit(s, AuditAction.EXPORT_METRICS, exportStart, "file", "Updated_RSO_Metrics_test.csv");
     }
 
     /**
@@ -214,37 +263,102 @@ public class Console {
      */
     public void runSpaceAgencyRepConsole(SpaceAgencyRepresentative s, Scanner scanner, DataManager manager, Log logger){
         logger.updateLog("Space Agency Representative " + s.getName() + " logged in");
+        logger.audit(s, AuditAction.LOGIN);
         boolean exit = false;
         while(!exit){
             System.out.println("\n====Space Agency Rep Console===="+
                                 "\n1. Analyze Long-Term Impact" +
                                 "\n2. Generate Density Report" +
-                                "\n3. Go Back");
-            System.out.println("Select an option 1 - 3:");
+                                "\n3. Display Longitude Density" +
+                                "\n4. Query Objects by Area" +
+                                "\n5. Display Geohash Density" +
+                                "\n6. Go Back");
+            System.out.println("Select an option 1 - 6:");
             int spAgRepChoice;
             try{
                 spAgRepChoice = Integer.parseInt(scanner.nextLine());
             }catch(NumberFormatException e){
-                System.out.println("Invalid input. Please enter a number between 1 - 3");
+                System.out.println("Invalid input. Please enter a number between 1 - 6");
                 continue;
             }
 
             switch(spAgRepChoice){
                 case 1:
                     logger.updateLog(s.getName() + " began analyzing long term impacts");
-                    s.analyzeLongTermImpact();
+                    ResultRenderer impactRenderer = promptRenderer(scanner);
+                    long impactStart = System.nanoTime();
+                    long impacts = s.analyzeLongTermImpact(impactRenderer);
+                    logger.audit(s, AuditAction.ANALYZE_IMPACT, impactStart, "count", String.valueOf(impacts));
                     break;
 
                 case 2:
                     logger.updateLog(s.getName() + " began generating a density report");
+                    long reportStart = System.nanoTime();
                     s.generateDensityReport(scanner);
+                    logger.audit(s, AuditAction.DENSITY_REPORT, reportStart);
                     break;
 
                 case 3:
+                    logger.updateLog(s.getName() + " began displaying longitude density");
+                    long densityStart = System.nanoTime();
+                    try {
+                        s.displayLongitudeDensity(scanner);
+                        logger.audit(s, AuditAction.DENSITY_REPORT, densityStart);
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Invalid band width: " + e.getMessage());
+                    }
+                    break;
+
+                case 4:
+                    logger.updateLog(s.getName() + " began querying objects by area");
+                    ResultRenderer areaRenderer = promptRenderer(scanner);
+                    long areaStart = System.nanoTime();
+                    try {
+                        long inArea = s.displayObjectsInArea(scanner, areaRenderer);
+                        if (inArea >= 0) {
+                            logger.audit(s, AuditAction.AREA_QUERY, areaStart, "count", String.valueOf(inArea));
+                        }
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Invalid area: " + e.getMessage());
+                    }
+                    break;
+
+                case 5:
+                    logger.updateLog(s.getName() + " began displaying geohash density");
+                    long cellStart = System.nanoTime();
+                    try {
+                        s.displayGeohashDensity(scanner);
+                        logger.audit(s, AuditAction.DENSITY_REPORT, cellStart);
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Invalid precision: " + e.getMessage());
+                    }
+                    break;
+
+                case 6:
                     exit = true;
                     logger.updateLog(s.getName() + " logged out");
+                    logger.audit(s, AuditAction.LOGOUT);
                     break;
             }
         }
     }
+
+    /**
+     * Asks how a list of objects should be displayed: every object, a page at a time, or only
+     * how many there are. Anything other than P or C shows every object.
+     * 
+     * @param scanner - A scanner for prompting user input
+     * @return A renderer for the chosen display
+     */
+    private ResultRenderer promptRenderer(Scanner scanner) {
+        System.out.print("Display [A]ll, [P]ages of " + ResultRenderer.DEFAULT_PAGE_SIZE + ", or [C]ount only: ");
+        String choice = scanner.nextLine().trim();
+        if (choice.equalsIgnoreCase("P")) {
+            return new ResultRenderer(System.out, ResultRenderer.Mode.PAGED, ResultRenderer.DEFAULT_PAGE_SIZE, scanner);
+        }
+        if (choice.equalsIgnoreCase("C")) {
+            return new ResultRenderer(System.out, ResultRenderer.Mode.COUNT, ResultRenderer.DEFAULT_PAGE_SIZE, null);
+        }
+        return new ResultRenderer(System.out);
+    }
 }
@@ -0,0 +1,46 @@
+/**
+ * A single record of a CSV file whose fields can be read by column index, either as text
+ * or directly as numbers
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public interface CsvRecord {
+    /**
+     * Returns the text of a field with any enclosing double quotes removed
+     *
+     * @param index - The column index of the field
+     * @return The field value, or an empty String if the record has no such column
+     */
+    public String field(int index);
+
+    /**
+     * Parses a field as a whole number
+     *
+     * @param index - The column index of the field
+     * @return The value of the field
+     * @throws NumberFormatException if the field is missing or is not a whole number
+     */
+    public long longField(int index);
+
+    /**
+     * Parses a field as a decimal number
+     *
+     * @param index - The column index of the field
+     * @return The value of the field
+     * @throws NumberFormatException if the field is missing or is not a number
+     */
+    public double doubleField(int index);
+
+    /**
+     * Returns the text of a field as the shared instance held by a dictionary
+     *
+     * @param index - The column index of the field
+     * @param dictionary - The dictionary of the field's column
+     * @return The canonical value of the field
+     */
+    public default String internedField(int index, StringDictionary dictionary) {
+        return dictionary.intern(field(index));
+    }
+}
@@ -0,0 +1,275 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+/**
+ * Writes CSV text by appending each value straight into a reusable character buffer, which is
+ * encoded and written through a FileChannel, or any other channel, in large blocks. Values are
+ * formatted exactly as {@code String.format("%s")} and {@code String.format("%.8f")} would, and the
+ * file is encoded in the default charset with {@link System#lineSeparator()} between rows, so output
+ * is byte-identical to a BufferedWriter over a FileWriter fed with String.format.
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * try (CsvRecordWriter writer = new CsvRecordWriter("Updated_RSO_Metrics.csv")) {
+ *     writer.append("record_id,longitude").newLine();
+ *     writer.append(object.getRecordID()).append(',').appendFixed(object.getLongitude(), 8).newLine();
+ * }
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class CsvRecordWriter implements Closeable {
+    private static final int BUFFER_CHARS = 1 << 16;
+    private static final int BUFFER_BYTES = 1 << 20;            //Size of each block written to the file
+    private static final int MAX_FAST_DIGITS = 8;
+    private static final double MAX_FAST_MAGNITUDE = 1e6;       //Doubles here are far closer together than 1e-8
+    private static final long[] POWERS_OF_TEN = new long[MAX_FAST_DIGITS + 1];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_FAST_DIGITS; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_CHARS);
+    private final char[] digits = new char[20];
+    private final String lineSeparator = System.lineSeparator();
+    private final boolean plainDecimals;                        //Whether the locale formats decimals as 1234.5
+    private long bytesWritten;
+
+    /**
+     * Creates or truncates a file and opens it for writing
+     *
+     * @param filename - The file to write
+     * @throws IOException if the file cannot be opened
+     */
+    public CsvRecordWriter(String filename) throws IOException {
+        this(Paths.get(filename));
+    }
+
+    /**
+     * Creates or truncates a file and opens it for writing
+     *
+     * @param file - The file to write
+     * @throws IOException if the file cannot be opened
+     */
+    public CsvRecordWriter(Path file) throws IOException {
+        this(file, false);
+    }
+
+    /**
+     * Opens a file for writing, creating it if it does not exist
+     *
+     * @param file - The file to write
+     * @param append - True to add to the end of an existing file, false to truncate it
+     * @throws IOException if the file cannot be opened
+     */
+    public CsvRecordWriter(Path file, boolean append) throws IOException {
+        this(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                              append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    /**
+     * Writes to an open channel, such as one over a console stream, which is closed with the writer
+     *
+     * @param channel - The channel to write
+     */
+    public CsvRecordWriter(WritableByteChannel channel) {
+        this.channel = channel;
+        this.encoder = Charset.defaultCharset().newEncoder()                  //Same error handling as FileWriter
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT));
+        this.plainDecimals = symbols.getDecimalSeparator() == '.' && symbols.getZeroDigit() == '0'
+                             && symbols.getMinusSign() == '-';
+    }
+
+    /**
+     * Appends a String, or "null" for null as String.format("%s") does
+     */
+    public CsvRecordWriter append(String value) throws IOException {
+        if (value == null) {
+            value = "null";
+        }
+        int start = 0;
+        int length = value.length();
+        while (start < length) {
+            if (!chars.hasRemaining()) {
+                encodeChars(false);
+            }
+            int end = Math.min(length, start + chars.remaining());
+            chars.put(value, start, end);
+            start = end;
+        }
+        return this;
+    }
+
+    /**
+     * Appends a single character
+     */
+    public CsvRecordWriter append(char value) throws IOException {
+        if (!chars.hasRemaining()) {
+            encodeChars(false);
+        }
+        chars.put(value);
+        return this;
+    }
+
+    /**
+     * Appends a whole number in decimal, as String.format("%s") does
+     */
+    public CsvRecordWriter append(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            return append(Long.toString(value));                                //Has no positive counterpart
+        }
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        int start = digits.length;
+        do {
+            digits[--start] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        if (chars.remaining() < digits.length - start) {
+            encodeChars(false);
+        }
+        chars.put(digits, start, digits.length - start);
+        return this;
+    }
+
+    /**
+     * Appends "true" or "false"
+     */
+    public CsvRecordWriter append(boolean value) throws IOException {
+        return append(value ? "true" : "false");
+    }
+
+    /**
+     * Appends any other value as its toString(), or "null", as String.format("%s") does
+     */
+    public CsvRecordWriter append(Object value) throws IOException {
+        return append(String.valueOf(value));
+    }
+
+    /**
+     * Appends a decimal number with a fixed number of fraction digits, exactly as
+     * String.format("%.Nf") does. Numbers below one million that are exact to the requested
+     * number of digits, such as coordinates read from a CSV file, are formatted without
+     * String.format; any other number is passed to it.
+     *
+     * @param value - The number to append
+     * @param fractionDigits - The number of digits after the decimal point
+     */
+    public CsvRecordWriter appendFixed(double value, int fractionDigits) throws IOException {
+        if (plainDecimals && fractionDigits >= 0 && fractionDigits <= MAX_FAST_DIGITS
+                && Math.abs(value) < MAX_FAST_MAGNITUDE && !isNegativeZero(value)) {
+            long scale = POWERS_OF_TEN[fractionDigits];
+            long scaled = Math.round(value * scale);
+            if ((double) scaled / scale == value) {                             //The digits print the double exactly
+                if (scaled < 0) {
+                    append('-');
+                    scaled = -scaled;
+                }
+                append(scaled / scale);
+                if (fractionDigits > 0) {
+                    append('.');
+                    long fraction = scaled % scale;
+                    for (long place = scale / 10; place > 0; place /= 10) {
+                        append((char) ('0' + fraction / place % 10));
+                    }
+                }
+                return this;
+            }
+        }
+        return append(String.format("%." + fractionDigits + "f", value));
+    }
+
+    private static boolean isNegativeZero(double value) {
+        return value == 0 && Double.doubleToRawLongBits(value) != 0;
+    }
+
+    /**
+     * Ends the current row with the platform line separator, as BufferedWriter.newLine() does
+     */
+    public CsvRecordWriter newLine() throws IOException {
+        return append(lineSeparator);
+    }
+
+    /**
+     * Encodes the buffered characters into the byte buffer, writing full byte blocks to the file
+     */
+    private void encodeChars(boolean endOfInput) throws IOException {
+        chars.flip();
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, endOfInput);
+            if (result.isOverflow()) {
+                writeBytes();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        chars.compact();                                                        //Keeps a split surrogate pair
+    }
+
+    private void writeBytes() throws IOException {
+        bytes.flip();
+        bytesWritten += bytes.remaining();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    /**
+     * Writes everything appended so far to the file
+     */
+    public void flush() throws IOException {
+        encodeChars(false);
+        writeBytes();
+    }
+
+    /**
+     * Returns how many bytes have been written to the file, not counting any still buffered
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Writes everything appended so far and closes the file
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            encodeChars(true);
+            while (encoder.flush(bytes).isOverflow()) {
+                writeBytes();
+            }
+            writeBytes();
+        } finally {
+            channel.close();
+        }
+    }
+}
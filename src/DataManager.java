@@ -3,13 +3,30 @@ import java.io.BufferedWriter;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public class DataManager {
+    private static final String METRICS_FILE = "rso_metrics.csv";
+    private static final String METRICS_SNAPSHOT = "rso_metrics.snapshot";
+    private static final String CHANGES_SUFFIX = ".changes";
     private CSVParser parser = new CSVParser();
     private List<SpaceObject> rso_metrics;
+    private ColumnarCatalog columnarCatalog;                    //Built on demand from rso_metrics
+    private CatalogIndex catalogIndex;                          //Row numbers by object type, orbit type, country and HRR category
+    private LongitudeIndex longitudeIndex;                      //Row numbers sorted by longitude
+    private GeohashIndex geohashIndex;                          //Row numbers sorted by geohash
+    private FilterEngine filterEngine;                          //Evaluates filters over rso_metrics as bitmaps
+    private Set<Path> fullExports = new HashSet<>();            //Files written in full from rso_metrics this session
     private Map<String, User> users;
 
     public DataManager(String datatype){
@@ -19,6 +36,10 @@ public class DataManager {
         if("metrics".equalsIgnoreCase(datatype)){
             loadMetricData();
         }
+        if("off-heap metrics".equalsIgnoreCase(datatype)){
+            loadMetricDataOffHeap();
+        }
+        // "streamed metrics" loads nothing up front, for callers that set their own list; until one is set, streamMetricData() reads the CSV file
     }
 
     /**
@@ -97,9 +118,82 @@ public class DataManager {
 
     /**
      * Loads the space object data from a CSV file into the entries list.
+     * If a snapshot of the file is still current, the catalog is restored from it instead of parsing.
+     * Otherwise the file is memory-mapped so that only the columns used by Space Objects are decoded,
+     * and is parsed in chunks across every available processor; a clean parse is then snapshotted.
      */
     public void loadMetricData(){
-        this.rso_metrics = parser.readCsvFile("rso_metrics.csv");
+        ColumnarCatalog snapshot = readSnapshot();
+        if(snapshot != null){
+            setRso_metrics(snapshot.asList());
+            buildIndexes();
+            return;
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        setRso_metrics(parser.readCsvFileParallel(METRICS_FILE, threads));
+        reportParseErrors();
+        if(parser.getParseErrorPolicy().getErrorCount() == 0){                                      // Keep reporting malformed files until fixed
+            writeSnapshot();
+        }
+        buildIndexes();
+    }
+
+    private ColumnarCatalog readSnapshot(){
+        try {
+            return CatalogSnapshot.read(Paths.get(METRICS_SNAPSHOT), Paths.get(METRICS_FILE));
+        } catch (IOException e) {
+            System.err.println("Ignoring metrics snapshot: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeSnapshot(){
+        try {
+            ColumnarCatalog columns = ColumnarCatalog.from(rso_metrics, parser.getDictionaries());   // Dropped once written, so the objects are not held twice
+            CatalogSnapshot.write(columns, Paths.get(METRICS_FILE), Paths.get(METRICS_SNAPSHOT));
+        } catch (IOException e) {
+            System.err.println("Error writing metrics snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the space object data from a CSV file into an off-heap store, so that a full-size
+     * catalog does not fill the Java heap. The entries list becomes a view over the store whose
+     * objects are created on access; risk levels and orbit status set on them are kept off-heap.
+     */
+    public void loadMetricDataOffHeap(){
+        OffHeapCatalog catalog = new OffHeapCatalog(parser.getDictionaries());
+        try (Stream<SpaceObject> objects = parser.streamCsvFile(METRICS_FILE)) {
+            objects.forEach(catalog::add);
+        }
+        setRso_metrics(catalog.asList());
+        reportParseErrors();
+        buildIndexes();
+    }
+
+    private void reportParseErrors(){
+        ParseErrorPolicy policy = parser.getParseErrorPolicy();
+        if(policy.getErrorCount() > 0){
+            System.err.println("Found " + policy.getErrorCount() + " malformed cells in " + METRICS_FILE + ":");
+            for(String error : policy.getErrors()){
+                System.err.println("  " + error);
+            }
+        }
+    }
+
+    /**
+     * Streams the space object data, either from the loaded entries list or, if nothing has
+     * been loaded, straight from the CSV file. RunSimulation always loads a list, so only a
+     * manager built for "streamed metrics" without one reads the file.
+     * The returned stream should be closed once consumed.
+     *
+     * @return A stream over every space object in the catalog
+     */
+    public Stream<SpaceObject> streamMetricData(){
+        if(rso_metrics != null){
+            return rso_metrics.stream();
+        }
+        return parser.streamCsvFile(METRICS_FILE);
     }
 
     /**
@@ -111,11 +205,101 @@ public class DataManager {
     public void updateMetricData(String filename){
         long startTime = System.nanoTime();
         parser.writeRecordsToCsv(rso_metrics, filename);
+        fullExports.add(Paths.get(filename).toAbsolutePath().normalize());
+        try {
+            Files.deleteIfExists(Paths.get(filename + CHANGES_SUFFIX));                            // The full file supersedes any changes
+        } catch (IOException e) {
+            System.err.println("Error removing changes file: " + e.getMessage());
+        }
+        for (SpaceObject object : changedMetrics()) {
+            object.clearDirty();
+        }
         long endTime = System.nanoTime();
         long updateTime = (endTime - startTime) / 1000000;
         System.out.println("Time to load " + rso_metrics.size() + " entries: " + updateTime + "ms");
     }
 
+    /**
+     * Writes only the space objects whose risk level or orbit status changed since the last export.
+     * The changed rows are added to a changes file beside the metrics file, named by adding
+     * ".changes" to it, and are folded into the metrics file by {@link #compactMetricData(String)}
+     * once the changes file grows past half the metrics file's size.
+     * The first export to a file in a session, or one where most objects changed, rewrites the
+     * file in full instead, since only a file written from the loaded objects can take their changes.
+     *
+     * @param filename the metrics file previously written by updateMetricData
+     */
+    public void exportMetricChanges(String filename){
+        Path base = Paths.get(filename);
+        long startTime = System.nanoTime();
+        List<SpaceObject> changed = changedMetrics();
+        if(!isCurrentExport(base) || changed.size() > rso_metrics.size() / 2){                   // Rewriting is cheaper than merging most rows
+            updateMetricData(filename);
+            return;
+        }
+        try {
+            if(!changed.isEmpty()){
+                parser.appendRecordsToCsv(changed, filename + CHANGES_SUFFIX);
+                for (SpaceObject object : changed) {
+                    object.clearDirty();
+                }
+            }
+            Path changes = Paths.get(filename + CHANGES_SUFFIX);
+            if(Files.exists(changes) && Files.size(changes) > Files.size(base) / 2){
+                compactMetricData(filename);
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing metric changes: " + e.getMessage());
+            return;
+        }
+        long updateTime = (System.nanoTime() - startTime) / 1000000;
+        System.out.println("Time to export " + changed.size() + " changed entries: " + updateTime + "ms");
+    }
+
+    /**
+     * Folds the changes file written by {@link #exportMetricChanges(String)} into its metrics file
+     * and removes it, so the metrics file alone holds the latest row of every space object
+     *
+     * @param filename the metrics file
+     * @throws IOException if the files cannot be read or written
+     */
+    public void compactMetricData(String filename) throws IOException {
+        Path changes = Paths.get(filename + CHANGES_SUFFIX);
+        if(Files.exists(changes)){
+            parser.mergeRecordsCsv(filename, changes.toString());
+            Files.delete(changes);
+        }
+    }
+
+    /**
+     * Checks that an exported metrics file exists and was written in full from the loaded space
+     * objects this session, so the rows its changes file adds belong to the same catalog
+     */
+    private boolean isCurrentExport(Path base){
+        return Files.exists(base) && fullExports.contains(base.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Collects the loaded space objects whose assessment changed since the last export,
+     * asking a catalog store for its changed rows rather than materializing every row
+     */
+    private List<SpaceObject> changedMetrics(){
+        List<SpaceObject> changed = new ArrayList<>();
+        if(rso_metrics instanceof CatalogListView){
+            CatalogStore store = ((CatalogListView) rso_metrics).getStore();
+            for(int row = store.nextDirtyRow(0); row >= 0; row = store.nextDirtyRow(row + 1)){
+                changed.add(store.row(row));
+            }
+        } else if(rso_metrics != null){
+            for(SpaceObject object : rso_metrics){
+                if(object.isDirty()){
+                    changed.add(object);
+                }
+            }
+        }
+        return changed;
+    }
+
     /**
      * Generates a CSV formatted Density Report of filtered Space Objects
      * 
@@ -127,7 +311,18 @@ public class DataManager {
     }
 
     /**
-     * Used to retrieve the current unfiltered list of space objects
+     * Generates a CSV formatted Density Report while consuming a stream of filtered Space Objects
+     * 
+     * @param filteredObjects - The stream of space Objects to be included in the report
+     * @param identifier - A user chosen addition to the report name for ease of location
+     */
+    public void generateDensityReport(Stream<SpaceObject> filteredObjects, String identifier){
+        parser.writeReportsToCsv(filteredObjects, identifier);
+    }
+
+    /**
+     * Used to retrieve the current unfiltered list of space objects. The list cannot be changed
+     * structurally, because the indexes and cached filter results hold its row numbers.
      */
     public List<SpaceObject> getRso_metrics() {
         return rso_metrics;
@@ -141,10 +336,122 @@ public class DataManager {
     }
 
     /**
-     * Used to alter the current list of unfiltered list of space objects
+     * Used to alter the current list of unfiltered list of space objects. A new list is kept behind
+     * an unmodifiable view, and the caller must not add, remove or reorder its objects afterwards;
+     * passing back the list returned by {@link #getRso_metrics()} keeps the indexes, since only
+     * assessments can have changed.
+     * @param rso_metrics - the catalog, or the current list after its objects were assessed
      */
     public void setRso_metrics(List<SpaceObject> rso_metrics) {
+        if (rso_metrics != this.rso_metrics) {
+            if (rso_metrics != null && !(rso_metrics instanceof CatalogListView)) {
+                rso_metrics = Collections.unmodifiableList(rso_metrics);                            // Rows must stay where the indexes put them
+            }
+            this.catalogIndex = null;                                                               // Assessments never change indexed fields
+            this.longitudeIndex = null;
+            this.geohashIndex = null;
+            this.filterEngine = null;
+            this.fullExports.clear();                                                               // Earlier exports came from other objects
+        } else if (filterEngine != null) {
+            filterEngine.invalidateAssessments();                                                   // Only results reading assessed fields can be stale
+        }
         this.rso_metrics = rso_metrics;
+        this.columnarCatalog = null;                                                                // Columns are rebuilt from the new data
+    }
+
+    /**
+     * Returns the secondary indexes over object type, orbit type, country and HRR category of the
+     * loaded space objects, whose row i is element i of {@link #getRso_metrics()}. The indexes are
+     * built when metrics are loaded, or on first use after the list is replaced.
+     *
+     * @return The catalog indexes, or null if no metrics are loaded
+     */
+    public CatalogIndex getCatalogIndex() {
+        if (catalogIndex == null && rso_metrics != null) {
+            ColumnarCatalog columns = rso_metrics instanceof CatalogListView ? getColumnarCatalog() : null;
+            catalogIndex = columns != null ? CatalogIndex.build(columns) : CatalogIndex.build(rso_metrics);
+        }
+        return catalogIndex;
+    }
+
+    /**
+     * Returns the loaded space objects' longitudes in sorted order, whose row i is element i of
+     * {@link #getRso_metrics()}. The index is built on first use after the list is replaced.
+     *
+     * @return The longitude index, or null if no metrics are loaded
+     */
+    public LongitudeIndex getLongitudeIndex() {
+        if (longitudeIndex == null && rso_metrics != null) {
+            ColumnarCatalog columns = rso_metrics instanceof CatalogListView ? getColumnarCatalog() : null;
+            longitudeIndex = columns != null ? LongitudeIndex.build(columns) : LongitudeIndex.build(rso_metrics);
+        }
+        return longitudeIndex;
+    }
+
+    /**
+     * Returns the prefix index over the loaded space objects' geohashes, whose row i is element i
+     * of {@link #getRso_metrics()}. The index is built when metrics are loaded, or on first use
+     * after the list is replaced.
+     *
+     * @return The geohash index, or null if no metrics are loaded
+     */
+    public GeohashIndex getGeohashIndex() {
+        if (geohashIndex == null && rso_metrics != null) {
+            ColumnarCatalog columns = rso_metrics instanceof CatalogListView ? getColumnarCatalog() : null;
+            geohashIndex = columns != null ? GeohashIndex.build(columns) : GeohashIndex.build(rso_metrics);
+        }
+        return geohashIndex;
+    }
+
+    /**
+     * Returns the engine that evaluates filters over the loaded space objects, whose row i is
+     * element i of {@link #getRso_metrics()}. It reads the columnar catalog and secondary indexes
+     * where they exist and keeps the rows of recently used filters, dropping those that read
+     * assessments when the assessments change.
+     *
+     * @return The filter engine, or null if no metrics are loaded
+     */
+    public FilterEngine getFilterEngine() {
+        if (filterEngine == null && rso_metrics != null) {
+            ColumnarCatalog columns = rso_metrics instanceof CatalogListView ? getColumnarCatalog() : null;
+            FilterEngine engine = new FilterEngine(rso_metrics, columns, getCatalogIndex());
+            MetricsRegistry metrics = MetricsRegistry.global();
+            metrics.gauge("filter.cache.hits", engine::getCacheHits);                               // Statistics of the engine in use
+            metrics.gauge("filter.cache.misses", engine::getCacheMisses);
+            metrics.gauge("filter.cache.evictions", engine::getCacheEvictions);
+            metrics.gauge("filter.cache.invalidations", engine::getCacheInvalidations);
+            metrics.gauge("filter.cache.size", engine::getCacheSize);
+            filterEngine = engine;
+        }
+        return filterEngine;
+    }
+
+    /**
+     * Builds the indexes that the consoles query, so the first query does not pay for them
+     */
+    private void buildIndexes(){
+        getCatalogIndex();
+        getGeohashIndex();
+    }
+
+    /**
+     * Returns the loaded space objects as a column store, whose row i is element i of
+     * {@link #getRso_metrics()}. The store is built on first use after each load or update.
+     *
+     * @return The columnar catalog, or null if no metrics are loaded or they are held off-heap
+     */
+    public ColumnarCatalog getColumnarCatalog() {
+        if (columnarCatalog == null && rso_metrics instanceof CatalogListView) {
+            CatalogStore store = ((CatalogListView) rso_metrics).getStore();
+            if (store instanceof ColumnarCatalog) {
+                columnarCatalog = (ColumnarCatalog) store;
+            }
+            return columnarCatalog;                                                                 // Copying an off-heap store back onto the heap would defeat it
+        }
+        if (columnarCatalog == null && rso_metrics != null) {
+            columnarCatalog = ColumnarCatalog.from(rso_metrics, parser.getDictionaries());
+        }
+        return columnarCatalog;
     }
 
     /**
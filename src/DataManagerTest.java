@@ -0,0 +1,59 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DataManagerTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testFirstExportOfASessionRewritesTheFile() throws Exception {
+        List<SpaceObject> objects = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            objects.add(new SpaceObject(String.valueOf(i), "Sat-" + i, "USA", "LEO", "DEBRIS", 2000, "KSC",
+                                        10, 10, "9q8yy", 100, 0, "A"));
+        }
+        DataManager manager = new DataManager("none");
+        manager.setRso_metrics(objects);
+        Path export = tempDir.resolve("Updated_RSO_Metrics.csv");
+        Files.writeString(export, "written by another catalog\n");      //Newer than any source, but not ours
+        objects.get(3).setRiskLevel("High");
+
+        manager.exportMetricChanges(export.toString());
+        assertEquals(11, Files.readAllLines(export).size());
+        assertFalse(Files.exists(tempDir.resolve("Updated_RSO_Metrics.csv.changes")));
+
+        objects.get(4).setRiskLevel("Low");
+        manager.exportMetricChanges(export.toString());
+        assertEquals(2, Files.readAllLines(tempDir.resolve("Updated_RSO_Metrics.csv.changes")).size());   //Header and one row
+
+        manager.setRso_metrics(new ArrayList<>(objects));                  //Other objects start a new export
+        manager.exportMetricChanges(export.toString());
+        assertFalse(Files.exists(tempDir.resolve("Updated_RSO_Metrics.csv.changes")));
+    }
+
+    @Test
+    void testLoadedCatalogCannotChangeUnderItsIndexes() {
+        List<SpaceObject> objects = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            objects.add(new SpaceObject(String.valueOf(i), "Sat-" + i, "USA", i % 2 == 0 ? "LEO" : "GEO", "DEBRIS",
+                                        2000, "KSC", 10, 10, "9q8yy", 100, 0, "A"));
+        }
+        DataManager manager = new DataManager("none");
+        manager.setRso_metrics(objects);
+        List<SpaceObject> catalog = manager.getRso_metrics();
+        CatalogIndex index = manager.getCatalogIndex();
+
+        assertThrows(UnsupportedOperationException.class, () -> catalog.add(objects.get(0)));
+        assertThrows(UnsupportedOperationException.class, () -> catalog.remove(0));
+        manager.setRso_metrics(catalog);                                   //Assessed in place, so the indexes stay
+        assertSame(index, manager.getCatalogIndex());
+        manager.setRso_metrics(new ArrayList<>(objects));
+        assertNotSame(index, manager.getCatalogIndex());
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Computes risk codes from orbital drift over primitive longitude arrays, the kernel of the
+ * Scientist's risk assessment. Each code follows {@link OrbitalAssessment#riskCode(double, double)}
+ * exactly, including for NaN longitudes.
+ *
+ * <p>{@link #best()} returns a SIMD implementation built on the incubating Vector API when the
+ * {@code VectorDriftKernel} class was compiled from the {@code vector} directory and the JVM was
+ * started with {@code --add-modules jdk.incubator.vector}, and a plain loop otherwise. Setting
+ * {@code -Drso.vector=false} forces the plain loop.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * byte[] codes = new byte[longitudes.length];
+ * DriftKernel.best().riskCodes(longitudes, averageLongitudes, 0, longitudes.length, codes);
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public abstract class DriftKernel {
+    private static final String VECTOR_KERNEL = "VectorDriftKernel";
+
+    /**
+     * Writes the risk code of rows [from, to) to the start of an array, so that {@code codes[k]}
+     * is the code of row {@code from + k}
+     *
+     * @param longitudes - The current longitude of every row
+     * @param averageLongitudes - The long-term average longitude of every row
+     * @param from - The first row
+     * @param to - One past the last row
+     * @param codes - The array receiving to - from codes
+     */
+    public abstract void riskCodes(double[] longitudes, double[] averageLongitudes, int from, int to, byte[] codes);
+
+    /**
+     * Returns a short name for the implementation, such as "scalar"
+     */
+    public abstract String getName();
+
+    /**
+     * Returns the plain loop implementation, which is always available
+     */
+    public static DriftKernel scalar() {
+        return Scalar.INSTANCE;
+    }
+
+    /**
+     * Returns the fastest implementation this JVM can run, chosen once
+     */
+    public static DriftKernel best() {
+        return Best.INSTANCE;
+    }
+
+    /**
+     * Holds the chosen implementation, so that the vector class is only looked up on first use
+     */
+    private static class Best {
+        static final DriftKernel INSTANCE = load();
+
+        private static DriftKernel load() {
+            if (!Boolean.parseBoolean(System.getProperty("rso.vector", "true"))) {
+                return Scalar.INSTANCE;
+            }
+            try {
+                return (DriftKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return Scalar.INSTANCE;                         //Not compiled, module not added, or no usable vector shape
+            }
+        }
+    }
+
+    private static final class Scalar extends DriftKernel {
+        static final Scalar INSTANCE = new Scalar();
+
+        @Override
+        public void riskCodes(double[] longitudes, double[] averageLongitudes, int from, int to, byte[] codes) {
+            for (int row = from; row < to; row++) {
+                codes[row - from] = OrbitalAssessment.riskCode(longitudes[row], averageLongitudes[row]);
+            }
+        }
+
+        @Override
+        public String getName() {
+            return "scalar";
+        }
+    }
+}
@@ -0,0 +1,60 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class DriftKernelTest {
+    private static final double[] EDGES = {0, 9.999999999999998, 10, 10.000000000000002, 49.99999999999999, 50,
+                                           50.00000000000001, -0.0, Double.NaN, Double.POSITIVE_INFINITY,
+                                           Double.NEGATIVE_INFINITY, Double.MIN_VALUE, 1e300};
+
+    @Test
+    void testEveryKernelMatchesTheAssessmentRule() {
+        Random random = new Random(7);
+        int size = 1003;                                        //Not a multiple of any vector length
+        double[] longitudes = new double[size];
+        double[] averages = new double[size];
+        for (int i = 0; i < size; i++) {
+            longitudes[i] = i < EDGES.length * 2 ? (i % 2 == 0 ? EDGES[i / 2] : -EDGES[i / 2]) : random.nextDouble() * 400 - 200;
+            averages[i] = i < EDGES.length * 2 ? 0 : longitudes[i] + random.nextGaussian() * 40;
+        }
+
+        for (DriftKernel kernel : new DriftKernel[] {DriftKernel.scalar(), DriftKernel.best()}) {
+            for (int[] range : new int[][] {{0, size}, {3, 3}, {5, 22}, {1, size - 1}}) {
+                byte[] codes = new byte[size];
+                kernel.riskCodes(longitudes, averages, range[0], range[1], codes);
+                for (int row = range[0]; row < range[1]; row++) {
+                    assertEquals(OrbitalAssessment.riskCode(longitudes[row], averages[row]), codes[row - range[0]],
+                                 kernel.getName() + " row " + row);
+                }
+                for (int k = range[1] - range[0]; k < size; k++) {
+                    assertEquals((byte) 0, codes[k], kernel.getName() + " wrote past the range");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCatalogMarksOnlyChangedRiskLevelsDirty() {
+        List<SpaceObject> objects = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            objects.add(new SpaceObject(String.valueOf(i), "Sat", "USA", "LEO", "DEBRIS", 2000, "KSC",
+                                        i % 180, (i % 180) + i % 70, "9q8yy", 100, 1, "A"));
+        }
+        for (int i = 0; i < objects.size(); i += 3) {
+            SpaceObject object = objects.get(i);
+            object.setRiskLevel(OrbitalAssessment.riskLevel(
+                    OrbitalAssessment.riskCode(object.getLongitude(), object.getAverageLongitude())));
+        }
+        ColumnarCatalog catalog = ColumnarCatalog.from(objects, new CatalogDictionaries());
+        catalog.assessRiskLevel();
+
+        for (int row = 0; row < objects.size(); row++) {
+            SpaceObject object = objects.get(row);
+            assertEquals(OrbitalAssessment.riskCode(object.getLongitude(), object.getAverageLongitude()), catalog.getRiskCode(row));
+            assertEquals(row % 3 != 0, catalog.isDirty(row), "Row " + row);
+        }
+    }
+}
@@ -0,0 +1,323 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+/**
+ * Evaluates {@link CatalogFilter}s over a catalog as {@link RowBitmap}s. Each single-column
+ * condition becomes a bitmap of the rows satisfying it, and AND, OR and NOT become bitmap
+ * operations, so a combination of conditions never tests an object more than once per condition.
+ *
+ * <p>Conditions on object type, orbit type, country and HRR category are read from the
+ * {@link CatalogIndex} when one is given, and other conditions scan the columns of a
+ * {@link ColumnarCatalog} when one is given, or the objects otherwise.</p>
+ *
+ * <p>The bitmaps of the {@value #CACHE_ENTRIES} most recently used filters and conditions are
+ * kept, up to {@value #CACHE_BYTES} bytes, so the questions asked most often are answered without
+ * a scan. Only risk levels and orbit statuses change once a catalog is loaded, so only results of
+ * filters that read them go stale: they are dropped by {@link #invalidateAssessments()}, and are
+ * recomputed if an assessment in this catalog has changed since they were cached. A catalog store
+ * keeps its own assessment version, and the objects of a plain list report their changes to a
+ * version the engine attaches to them, so changes to other catalogs or detached objects leave
+ * this engine's results alone.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * FilterEngine engine = manager.getFilterEngine();
+ * RowBitmap rows = engine.evaluate(CatalogFilter.and(
+ *         CatalogFilter.contains(RowBinder.Column.ORBIT_TYPE, "LEO"),
+ *         CatalogFilter.compare(RowBinder.Column.DAYS_OLD, CatalogFilter.Comparison.GREATER, 200)));
+ * engine.select(rows).forEach(System.out::println);
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class FilterEngine {
+    private static final int CACHE_ENTRIES = 64;
+    private static final long CACHE_BYTES = 64L << 20;
+
+    private final List<SpaceObject> objects;
+    private final ColumnarCatalog columns;
+    private final CatalogIndex index;
+    private final LongSupplier assessmentVersion;               //Advances when an assessment in the catalog changes
+    private final Map<String, CachedRows> cache = new LinkedHashMap<>(16, 0.75f, true);   //Keyed by filter description, least recently used first
+    private long cacheBytes;
+    private long cacheHits;
+    private long cacheMisses;
+    private long cacheEvictions;
+    private long cacheInvalidations;
+
+    /**
+     * Creates an engine that evaluates conditions by testing each object of a catalog
+     *
+     * @param objects - The catalog; row i is element i
+     */
+    public FilterEngine(List<SpaceObject> objects) {
+        this(objects, null, null);
+    }
+
+    /**
+     * Creates an engine that reads conditions from a catalog's columns and indexes where it can.
+     * The objects of a list that does not view a {@link CatalogStore} start reporting their
+     * assessment changes to this engine, in place of any engine built over them before.
+     *
+     * @param objects - The catalog; row i is element i
+     * @param columns - The catalog as columns, or null to test the objects instead
+     * @param index - The secondary indexes of the catalog, or null if there are none
+     */
+    public FilterEngine(List<SpaceObject> objects, ColumnarCatalog columns, CatalogIndex index) {
+        this.objects = objects;
+        this.columns = columns;
+        this.index = index;
+        if (objects instanceof CatalogListView) {
+            this.assessmentVersion = ((CatalogListView) objects).getStore()::getAssessmentVersion;
+        } else {
+            AtomicLong version = new AtomicLong();
+            for (SpaceObject object : objects) {
+                object.watchAssessments(version);
+            }
+            this.assessmentVersion = version::get;
+        }
+    }
+
+    /**
+     * Returns the number of rows in the catalog
+     */
+    public int size() {
+        return objects.size();
+    }
+
+    /**
+     * Finds the rows of the catalog that satisfy a filter
+     *
+     * @param filter - The filter to evaluate
+     * @return The matching rows
+     */
+    public synchronized RowBitmap evaluate(CatalogFilter filter) {
+        String key = filter.toString();
+        CachedRows cached = cache.get(key);
+        if (cached != null) {
+            if (!cached.readsAssessment || cached.version == assessmentVersion.getAsLong()) {
+                cacheHits++;
+                return cached.rows;
+            }
+            removeFromCache(key);
+            cacheInvalidations++;
+        }
+        cacheMisses++;
+        long version = assessmentVersion.getAsLong();        //Read first, so a change during the scan leaves it stale
+        RowBitmap rows = compute(filter);
+        addToCache(key, new CachedRows(rows, filter.readsAssessment(), version));
+        return rows;
+    }
+
+    /**
+     * Evaluates a filter without looking it up, though its parts are looked up
+     */
+    private RowBitmap compute(CatalogFilter filter) {
+        if (filter instanceof CatalogFilter.Combination) {
+            CatalogFilter.Combination combination = (CatalogFilter.Combination) filter;
+            RowBitmap result = null;
+            for (CatalogFilter part : combination.filters) {
+                RowBitmap rows = evaluate(part);
+                result = result == null ? rows : combination.all ? result.and(rows) : result.or(rows);
+                if (combination.all && result.isEmpty()) {
+                    break;                                      //Nothing left for the other conditions to remove
+                }
+            }
+            return result;
+        }
+        if (filter instanceof CatalogFilter.Negation) {
+            return RowBitmap.range(0, size()).andNot(evaluate(((CatalogFilter.Negation) filter).filter));
+        }
+        return evaluateCondition(filter);
+    }
+
+    /**
+     * Adds a result to the cache, then evicts the least recently used results until the cache is
+     * within its entry and byte limits
+     */
+    private void addToCache(String key, CachedRows cached) {
+        removeFromCache(key);
+        cache.put(key, cached);
+        cacheBytes += cached.rows.getSizeInBytes();
+        Iterator<CachedRows> eldest = cache.values().iterator();
+        while (cache.size() > 1 && (cache.size() > CACHE_ENTRIES || cacheBytes > CACHE_BYTES)) {
+            cacheBytes -= eldest.next().rows.getSizeInBytes();
+            eldest.remove();
+            cacheEvictions++;
+        }
+    }
+
+    private void removeFromCache(String key) {
+        CachedRows removed = cache.remove(key);
+        if (removed != null) {
+            cacheBytes -= removed.rows.getSizeInBytes();
+        }
+    }
+
+    /**
+     * Streams the objects of the catalog that satisfy a filter, in catalog order
+     *
+     * @param filter - The filter to evaluate
+     * @return The matching objects
+     */
+    public Stream<SpaceObject> select(CatalogFilter filter) {
+        return select(evaluate(filter));
+    }
+
+    /**
+     * Streams the objects of the catalog at a set of rows, in catalog order
+     *
+     * @param rows - Rows returned by {@link #evaluate(CatalogFilter)}
+     * @return The objects at those rows
+     */
+    public Stream<SpaceObject> select(RowBitmap rows) {
+        return rows.stream().mapToObj(objects::get);
+    }
+
+    /**
+     * Drops every cached condition, for when the catalog's data has changed
+     */
+    public synchronized void clearCache() {
+        cache.clear();
+        cacheBytes = 0;
+    }
+
+    /**
+     * Drops the cached results of filters that read risk levels or orbit statuses, for when the
+     * catalog has been assessed again; results of every other filter are still correct
+     */
+    public synchronized void invalidateAssessments() {
+        Iterator<CachedRows> entries = cache.values().iterator();
+        while (entries.hasNext()) {
+            CachedRows cached = entries.next();
+            if (cached.readsAssessment) {
+                cacheBytes -= cached.rows.getSizeInBytes();
+                entries.remove();
+                cacheInvalidations++;
+            }
+        }
+    }
+
+    /**
+     * Returns how many filters and conditions were answered from the cache
+     */
+    public synchronized long getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * Returns how many filters and conditions had to be evaluated
+     */
+    public synchronized long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /**
+     * Returns how many cached results were dropped to stay within the cache's limits
+     */
+    public synchronized long getCacheEvictions() {
+        return cacheEvictions;
+    }
+
+    /**
+     * Returns how many cached results were dropped because an assessment changed
+     */
+    public synchronized long getCacheInvalidations() {
+        return cacheInvalidations;
+    }
+
+    /**
+     * Returns how many results are cached
+     */
+    public synchronized int getCacheSize() {
+        return cache.size();
+    }
+
+    private RowBitmap evaluateCondition(CatalogFilter filter) {
+        if (filter instanceof CatalogFilter.TextCondition) {
+            CatalogFilter.TextCondition condition = (CatalogFilter.TextCondition) filter;
+            if (index != null && Arrays.asList(CatalogIndex.indexedColumns()).contains(condition.column)) {
+                return RowBitmap.of(condition.exact ? index.rowsEqualTo(condition.column, condition.value)
+                                                    : index.rowsContaining(condition.column, condition.value));
+            }
+            if (columns != null && isDictionaryCoded(condition.column)) {
+                return scanCodes(condition);
+            }
+        }
+        if (filter instanceof CatalogFilter.NumberCondition && columns != null) {
+            CatalogFilter.NumberCondition condition = (CatalogFilter.NumberCondition) filter;
+            RowBitmap.Builder rows = new RowBitmap.Builder();
+            for (int row = 0, n = columns.size(); row < n; row++) {
+                if (condition.comparison.test(columns.getNumber(condition.column, row), condition.value)) {
+                    rows.add(row);
+                }
+            }
+            return rows.build();
+        }
+        RowBitmap.Builder rows = new RowBitmap.Builder();
+        int row = 0;
+        for (SpaceObject object : objects) {
+            if (filter.test(object)) {
+                rows.add(row);
+            }
+            row++;
+        }
+        return rows.build();
+    }
+
+    private static boolean isDictionaryCoded(RowBinder.Column column) {
+        switch (column) {
+            case COUNTRY:
+            case ORBIT_TYPE:
+            case OBJECT_TYPE:
+            case LAUNCH_SITE:
+            case HRR_CATEGORY:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Tests each distinct value of a dictionary-coded column once, then scans the codes
+     */
+    private RowBitmap scanCodes(CatalogFilter.TextCondition condition) {
+        StringDictionary dictionary = columns.getDictionaries().forColumn(condition.column);
+        boolean[] matchingCodes = new boolean[dictionary.size()];
+        for (int code = 0; code < matchingCodes.length; code++) {
+            matchingCodes[code] = condition.matches(dictionary.decode(code));
+        }
+        RowBitmap.Builder rows = new RowBitmap.Builder();
+        for (int row = 0, n = columns.size(); row < n; row++) {
+            int code = columns.getCode(condition.column, row);
+            if (code >= 0 && code < matchingCodes.length && matchingCodes[code]) {
+                rows.add(row);
+            }
+        }
+        return rows.build();
+    }
+
+    /**
+     * The rows of a cached filter, and the assessment version they were computed at
+     */
+    private static final class CachedRows {
+        final RowBitmap rows;
+        final boolean readsAssessment;
+        final long version;
+
+        CachedRows(RowBitmap rows, boolean readsAssessment, long version) {
+            this.rows = rows;
+            this.readsAssessment = readsAssessment;
+            this.version = version;
+        }
+    }
+}
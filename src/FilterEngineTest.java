@@ -0,0 +1,85 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FilterEngineTest {
+
+    private static List<SpaceObject> catalog() {
+        List<SpaceObject> objects = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            objects.add(new SpaceObject(String.valueOf(i), "Sat-" + i, "USA", i % 2 == 0 ? "LEO" : "GEO",
+                                        i % 3 == 0 ? "DEBRIS" : "PAYLOAD", 2000, "KSC", 10, 10, "9q8yy",
+                                        100, 0, "A"));
+        }
+        return objects;
+    }
+
+    @Test
+    void testRepeatedFiltersAreAnsweredFromTheCache() {
+        List<SpaceObject> objects = catalog();
+        FilterEngine engine = new FilterEngine(objects);
+        CatalogFilter leoDebris = CatalogFilter.and(CatalogFilter.contains(RowBinder.Column.ORBIT_TYPE, "leo"),
+                                                    CatalogFilter.contains(RowBinder.Column.OBJECT_TYPE, "debris"));
+
+        RowBitmap first = engine.evaluate(leoDebris);
+        long misses = engine.getCacheMisses();
+        RowBitmap second = engine.evaluate(CatalogFilter.and(CatalogFilter.contains(RowBinder.Column.ORBIT_TYPE, "LEO"),
+                                                             CatalogFilter.contains(RowBinder.Column.OBJECT_TYPE, "DEBRIS")));
+
+        assertSame(first, second);
+        assertEquals(misses, engine.getCacheMisses());
+        assertEquals(1, engine.getCacheHits());
+        assertEquals(17, first.cardinality());
+
+        for (int i = 0; i < 100; i++) {
+            engine.evaluate(CatalogFilter.compare(RowBinder.Column.DAYS_OLD, CatalogFilter.Comparison.GREATER, i));
+        }
+        assertEquals(64, engine.getCacheSize());
+        assertTrue(engine.getCacheEvictions() > 0);
+    }
+
+    @Test
+    void testOnlyResultsReadingAssessmentsAreInvalidated() {
+        List<SpaceObject> objects = catalog();
+        FilterEngine engine = new FilterEngine(objects);
+        CatalogFilter debris = CatalogFilter.contains(RowBinder.Column.OBJECT_TYPE, "debris");
+        CatalogFilter high = CatalogFilter.where("risk=high", object -> "High".equals(object.getRiskLevel()));
+
+        RowBitmap debrisRows = engine.evaluate(debris);
+        assertEquals(0, engine.evaluate(high).cardinality());
+
+        objects.get(5).setRiskLevel("High");
+        assertEquals(1, engine.evaluate(high).cardinality());
+        assertEquals(1, engine.getCacheInvalidations());
+        assertSame(debrisRows, engine.evaluate(debris));
+
+        engine.invalidateAssessments();
+        assertEquals(2, engine.getCacheInvalidations());
+        assertEquals(1, engine.getCacheSize());
+        assertSame(debrisRows, engine.evaluate(debris));
+    }
+
+    @Test
+    void testChangesToOtherCatalogsKeepCachedResults() {
+        CatalogFilter high = CatalogFilter.where("risk=high", object -> "High".equals(object.getRiskLevel()));
+        List<SpaceObject> objects = catalog();
+        FilterEngine engine = new FilterEngine(objects);
+        ColumnarCatalog columns = ColumnarCatalog.from(catalog(), new CatalogDictionaries());
+        FilterEngine columnEngine = new FilterEngine(columns.asList(), columns, null);
+        RowBitmap rows = engine.evaluate(high);
+        RowBitmap columnRows = columnEngine.evaluate(high);
+
+        catalog().get(5).setRiskLevel("High");                    //A detached object
+        ColumnarCatalog.from(objects, new CatalogDictionaries()).setRiskCode(5, OrbitalAssessment.RISK_HIGH);
+        assertSame(rows, engine.evaluate(high));
+        assertSame(columnRows, columnEngine.evaluate(high));
+
+        columns.asList().get(7).setRiskLevel("High");
+        assertSame(rows, engine.evaluate(high));
+        assertEquals(1, columnEngine.evaluate(high).cardinality());
+        assertEquals(0, engine.getCacheInvalidations());
+        assertEquals(1, columnEngine.getCacheInvalidations());
+    }
+}
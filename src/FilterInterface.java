@@ -5,4 +5,5 @@ import java.util.List;
  */
 public interface FilterInterface {
 public void filterByField(List<SpaceObject> filteredEntries, String criteria);
+public void filterByField(List<SpaceObject> filteredEntries, CatalogFilter filter);
 }
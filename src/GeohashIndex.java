@@ -0,0 +1,402 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+/**
+ * A prefix index over the geohashes of the catalog. Every distinct geohash is kept in sorted
+ * order with the rows that carry it, so all geohashes sharing a prefix form one contiguous run
+ * and a prefix query is two binary searches over the distinct cells.
+ *
+ * <p>A bounding box is answered by covering it with a few geohash cells, looking each one up
+ * as a prefix, and keeping the objects whose cell center lies inside the box. Geohashes that are
+ * missing or contain characters outside the geohash alphabet are not indexed.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * GeohashIndex index = GeohashIndex.build(manager.getRso_metrics());
+ * int[] rows = index.rowsWithPrefix("9q8");
+ * int[] inBox = index.rowsWithin(37.0, -123.0, 38.5, -121.5);
+ * Map&lt;String, Integer&gt; density = index.countsByCell(3);
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class GeohashIndex {
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final int MAX_PRECISION = 12;
+    private static final int MAX_COVER_CELLS = 64;             //Most cells used to cover a bounding box
+
+    private final String[] cells;                               //Distinct lower-cased geohashes, sorted
+    private final int[] cellStarts;                             //Rows of cells[i] are rows[cellStarts[i]..cellStarts[i + 1])
+    private final int[] rows;
+
+    private GeohashIndex(String[] cells, int[] cellStarts, int[] rows) {
+        this.cells = cells;
+        this.cellStarts = cellStarts;
+        this.rows = rows;
+    }
+
+    /**
+     * Builds the index for a list of space objects, whose positions become the row numbers
+     *
+     * @param objects - The catalog to index
+     * @return The index of the catalog's geohashes
+     */
+    public static GeohashIndex build(List<SpaceObject> objects) {
+        String[] geohashes = new String[objects.size()];
+        int row = 0;
+        for (SpaceObject object : objects) {
+            geohashes[row++] = object.getGeohash();
+        }
+        return build(geohashes);
+    }
+
+    /**
+     * Builds the index from the geohash column of a columnar catalog
+     *
+     * @param catalog - The catalog to index
+     * @return The index of the catalog's geohashes
+     */
+    public static GeohashIndex build(ColumnarCatalog catalog) {
+        String[] geohashes = new String[catalog.size()];
+        for (int row = 0; row < geohashes.length; row++) {
+            geohashes[row] = catalog.getGeohash(row);
+        }
+        return build(geohashes);
+    }
+
+    /**
+     * Builds the index from geohashes by row number
+     *
+     * @param geohashes - The geohash of each row, or null if it has none
+     * @return The index of the geohashes
+     */
+    public static GeohashIndex build(String[] geohashes) {
+        // Number the distinct cells, then sort only those and bucket the rows by their cell's rank
+        Map<String, Integer> ids = new HashMap<>();
+        int[] cellOfRow = new int[geohashes.length];
+        for (int row = 0; row < geohashes.length; row++) {
+            String cell = normalize(geohashes[row]);
+            cellOfRow[row] = cell == null ? -1 : ids.computeIfAbsent(cell, key -> ids.size());
+        }
+        String[] cells = ids.keySet().toArray(new String[0]);
+        Arrays.sort(cells);
+        int[] rankOfId = new int[cells.length];
+        for (int rank = 0; rank < cells.length; rank++) {
+            rankOfId[ids.get(cells[rank])] = rank;
+        }
+
+        int[] cellStarts = new int[cells.length + 1];
+        for (int id : cellOfRow) {
+            if (id >= 0) {
+                cellStarts[rankOfId[id] + 1]++;
+            }
+        }
+        for (int rank = 0; rank < cells.length; rank++) {
+            cellStarts[rank + 1] += cellStarts[rank];
+        }
+        int[] rows = new int[cellStarts[cells.length]];
+        int[] next = Arrays.copyOf(cellStarts, cells.length);
+        for (int row = 0; row < cellOfRow.length; row++) {
+            if (cellOfRow[row] >= 0) {
+                rows[next[rankOfId[cellOfRow[row]]]++] = row;   //Rows stay ascending within a cell
+            }
+        }
+        return new GeohashIndex(cells, cellStarts, rows);
+    }
+
+    /**
+     * Lower-cases a geohash, or returns null if it is not a valid geohash
+     */
+    private static String normalize(String geohash) {
+        if (geohash == null || geohash.isEmpty()) {
+            return null;
+        }
+        String cell = geohash.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < cell.length(); i++) {
+            if (BASE32.indexOf(cell.charAt(i)) < 0) {
+                return null;
+            }
+        }
+        return cell;
+    }
+
+    /**
+     * Returns the number of rows with a valid geohash
+     */
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * Returns the position of the first distinct cell not less than a key
+     */
+    private int firstCellAtLeast(String key) {
+        int low = 0;
+        int high = cells.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cells[mid].compareTo(key) >= 0) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the first and last-plus-one positions in rows of the cells starting with a prefix
+     */
+    private int[] prefixRange(String prefix) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+        int first = firstCellAtLeast(key);
+        int last = firstCellAtLeast(key + Character.MAX_VALUE);
+        return new int[] {cellStarts[first], cellStarts[last]};
+    }
+
+    /**
+     * Counts the rows whose geohash starts with a prefix, ignoring case
+     *
+     * @param prefix - The geohash prefix; an empty prefix matches every indexed row
+     * @return The number of matching rows
+     */
+    public int countWithPrefix(String prefix) {
+        int[] range = prefixRange(prefix);
+        return range[1] - range[0];
+    }
+
+    /**
+     * Finds the rows whose geohash starts with a prefix, ignoring case
+     *
+     * @param prefix - The geohash prefix; an empty prefix matches every indexed row
+     * @return The matching row numbers in ascending order
+     */
+    public int[] rowsWithPrefix(String prefix) {
+        int[] range = prefixRange(prefix);
+        int[] matches = Arrays.copyOfRange(rows, range[0], range[1]);
+        Arrays.sort(matches);                                   //Merge the runs of each cell
+        return matches;
+    }
+
+    /**
+     * Finds the rows whose geohash cell center lies inside a bounding box, edges included.
+     * A box whose minimum longitude is greater than its maximum crosses the antimeridian.
+     *
+     * @param minLatitude - The southern edge of the box
+     * @param minLongitude - The western edge of the box
+     * @param maxLatitude - The northern edge of the box
+     * @param maxLongitude - The eastern edge of the box
+     * @return The matching row numbers in ascending order
+     * @throws IllegalArgumentException if the box is not within -90 to 90 and -180 to 180 degrees
+     */
+    public int[] rowsWithin(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        if (!(minLatitude >= -90 && maxLatitude <= 90 && minLatitude <= maxLatitude
+              && minLongitude >= -180 && minLongitude <= 180 && maxLongitude >= -180 && maxLongitude <= 180)) {
+            throw new IllegalArgumentException("Invalid bounding box " + minLatitude + "," + minLongitude
+                                               + " to " + maxLatitude + "," + maxLongitude);
+        }
+        RowCollector matches = new RowCollector();
+        if (minLongitude > maxLongitude) {
+            collectWithin(minLatitude, minLongitude, maxLatitude, 180, matches);
+            collectWithin(minLatitude, -180, maxLatitude, maxLongitude, matches);
+        } else {
+            collectWithin(minLatitude, minLongitude, maxLatitude, maxLongitude, matches);
+        }
+        int[] result = Arrays.copyOf(matches.rows, matches.count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private void collectWithin(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude,
+                               RowCollector matches) {
+        BitSet checked = new BitSet(cells.length);
+        for (String cover : coveringCells(minLatitude, minLongitude, maxLatitude, maxLongitude)) {
+            // Geohashes shorter than the cover are larger cells that may still have their center in the box
+            for (int length = 1; length < cover.length(); length++) {
+                int i = firstCellAtLeast(cover.substring(0, length));
+                if (i < cells.length && cells[i].length() == length && cover.startsWith(cells[i])) {
+                    collectIfInside(i, checked, minLatitude, minLongitude, maxLatitude, maxLongitude, matches);
+                }
+            }
+            int last = firstCellAtLeast(cover + Character.MAX_VALUE);
+            for (int i = firstCellAtLeast(cover); i < last; i++) {
+                collectIfInside(i, checked, minLatitude, minLongitude, maxLatitude, maxLongitude, matches);
+            }
+        }
+    }
+
+    private void collectIfInside(int cell, BitSet checked, double minLatitude, double minLongitude,
+                                 double maxLatitude, double maxLongitude, RowCollector matches) {
+        if (checked.get(cell)) {
+            return;
+        }
+        checked.set(cell);
+        double[] bounds = decode(cells[cell]);                  //Once per distinct cell, not per row
+        double latitude = (bounds[0] + bounds[2]) / 2;
+        double longitude = (bounds[1] + bounds[3]) / 2;
+        if (latitude >= minLatitude && latitude <= maxLatitude
+            && longitude >= minLongitude && longitude <= maxLongitude) {
+            matches.add(rows, cellStarts[cell], cellStarts[cell + 1]);
+        }
+    }
+
+    /**
+     * Returns distinct geohash cells that together cover a bounding box, using the finest
+     * precision that needs no more than {@value #MAX_COVER_CELLS} cells
+     */
+    private static String[] coveringCells(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        int precision = 1;
+        while (precision < MAX_PRECISION
+               && cellsAcross(minLatitude, maxLatitude, cellHeight(precision + 1))
+                  * cellsAcross(minLongitude, maxLongitude, cellWidth(precision + 1)) <= MAX_COVER_CELLS) {
+            precision++;
+        }
+        double height = cellHeight(precision);
+        double width = cellWidth(precision);
+        Set<String> covering = new TreeSet<>();
+        for (double latitude = minLatitude; ; latitude = Math.min(latitude + height, maxLatitude)) {
+            for (double longitude = minLongitude; ; longitude = Math.min(longitude + width, maxLongitude)) {
+                covering.add(encode(latitude, longitude, precision));
+                if (longitude >= maxLongitude) {
+                    break;
+                }
+            }
+            if (latitude >= maxLatitude) {
+                break;
+            }
+        }
+        return covering.toArray(new String[0]);
+    }
+
+    private static long cellsAcross(double from, double to, double cellSize) {
+        return (long) Math.floor((to - from) / cellSize) + 2;
+    }
+
+    private static double cellHeight(int precision) {
+        return 180.0 / (1L << (5 * precision / 2));
+    }
+
+    private static double cellWidth(int precision) {
+        return 360.0 / (1L << ((5 * precision + 1) / 2));
+    }
+
+    /**
+     * Counts the rows in each geohash cell of a given precision, for a density map of the catalog.
+     * Rows whose geohash is shorter than the precision are counted under their full geohash.
+     *
+     * @param precision - The number of geohash characters per cell
+     * @return The number of rows by cell, in geohash order
+     */
+    public Map<String, Integer> countsByCell(int precision) {
+        if (precision < 1) {
+            throw new IllegalArgumentException("Precision must be positive: " + precision);
+        }
+        Map<String, Integer> counts = new TreeMap<>();
+        for (int i = 0; i < cells.length; i++) {
+            String cell = cells[i].length() > precision ? cells[i].substring(0, precision) : cells[i];
+            counts.merge(cell, cellStarts[i + 1] - cellStarts[i], Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Encodes a position as a geohash
+     *
+     * @param latitude - The latitude, from -90 to 90
+     * @param longitude - The longitude, from -180 to 180
+     * @param precision - The number of geohash characters
+     * @return The geohash of the cell holding the position
+     */
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLatitude = -90, maxLatitude = 90;
+        double minLongitude = -180, maxLongitude = 180;
+        StringBuilder geohash = new StringBuilder(precision);
+        boolean even = true;                                    //Bits alternate, starting with longitude
+        int bit = 0;
+        int ch = 0;
+        while (geohash.length() < precision) {
+            if (even) {
+                double mid = (minLongitude + maxLongitude) / 2;
+                if (longitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLongitude = mid;
+                } else {
+                    ch <<= 1;
+                    maxLongitude = mid;
+                }
+            } else {
+                double mid = (minLatitude + maxLatitude) / 2;
+                if (latitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLatitude = mid;
+                } else {
+                    ch <<= 1;
+                    maxLatitude = mid;
+                }
+            }
+            even = !even;
+            if (++bit == 5) {
+                geohash.append(BASE32.charAt(ch));
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return geohash.toString();
+    }
+
+    /**
+     * Decodes a geohash into the bounds of its cell
+     *
+     * @param geohash - The geohash, in either case
+     * @return The cell as {minLatitude, minLongitude, maxLatitude, maxLongitude}
+     * @throws IllegalArgumentException if the geohash contains a character outside the geohash alphabet
+     */
+    public static double[] decode(String geohash) {
+        double[] bounds = {-90, -180, 90, 180};
+        boolean even = true;
+        for (int i = 0; i < geohash.length(); i++) {
+            int value = BASE32.indexOf(Character.toLowerCase(geohash.charAt(i)));
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid geohash \"" + geohash + "\"");
+            }
+            for (int mask = 16; mask > 0; mask >>= 1) {
+                int low = even ? 1 : 0;                         //Longitude bounds at 1 and 3, latitude at 0 and 2
+                double mid = (bounds[low] + bounds[low + 2]) / 2;
+                if ((value & mask) != 0) {
+                    bounds[low] = mid;
+                } else {
+                    bounds[low + 2] = mid;
+                }
+                even = !even;
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * Gathers the runs of rows matched by a bounding box query
+     */
+    private static final class RowCollector {
+        int[] rows = new int[16];
+        int count;
+
+        void add(int[] source, int from, int to) {
+            int length = to - from;
+            if (count + length > rows.length) {
+                rows = Arrays.copyOf(rows, Math.max(rows.length * 2, count + length));
+            }
+            System.arraycopy(source, from, rows, count, length);
+            count += length;
+        }
+    }
+}
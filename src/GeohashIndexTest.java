@@ -0,0 +1,57 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public class GeohashIndexTest {
+    private static String[] randomGeohashes(int n) {
+        Random random = new Random(7);
+        String[] geohashes = new String[n];
+        for (int i = 0; i < n; i++) {
+            double latitude = random.nextDouble() * 180 - 90;
+            double longitude = random.nextDouble() * 360 - 180;
+            geohashes[i] = GeohashIndex.encode(latitude, longitude, 1 + random.nextInt(7));
+        }
+        geohashes[0] = null;
+        geohashes[1] = "not-a-geohash";
+        geohashes[2] = "9Q8YY";
+        return geohashes;
+    }
+
+    @Test
+    void testEncodeAndDecode() {
+        assertEquals("9q8yy", GeohashIndex.encode(37.7749, -122.4194, 5));
+        double[] bounds = GeohashIndex.decode("9q8yy");
+        assertTrue(bounds[0] <= 37.7749 && 37.7749 <= bounds[2]);
+        assertTrue(bounds[1] <= -122.4194 && -122.4194 <= bounds[3]);
+    }
+
+    @Test
+    void testPrefixAndBoxQueriesMatchScan() {
+        String[] geohashes = randomGeohashes(5000);
+        GeohashIndex index = GeohashIndex.build(geohashes);
+        assertEquals(geohashes.length - 2, index.size());
+
+        for (String prefix : new String[] {"9", "9q", "9q8", "u", "zz", ""}) {
+            int[] expected = IntStream.range(2, geohashes.length)
+                                      .filter(i -> geohashes[i].toLowerCase().startsWith(prefix))
+                                      .toArray();
+            assertArrayEquals(expected, index.rowsWithPrefix(prefix.toUpperCase()));
+            assertEquals(expected.length, index.countWithPrefix(prefix));
+        }
+
+        double[][] boxes = {{30, -130, 45, -110}, {-90, -180, 90, 180}, {-10, 170, 10, -170}, {0, 0, 0.5, 0.5}};
+        for (double[] box : boxes) {
+            int[] expected = IntStream.range(2, geohashes.length).filter(i -> {
+                double[] cell = GeohashIndex.decode(geohashes[i]);
+                double latitude = (cell[0] + cell[2]) / 2;
+                double longitude = (cell[1] + cell[3]) / 2;
+                boolean inLongitude = box[1] <= box[3] ? longitude >= box[1] && longitude <= box[3]
+                                                       : longitude >= box[1] || longitude <= box[3];
+                return latitude >= box[0] && latitude <= box[2] && inLongitude;
+            }).toArray();
+            assertArrayEquals(expected, index.rowsWithin(box[0], box[1], box[2], box[3]));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+/**
+ * Counts recorded values, such as durations in nanoseconds, in logarithmic buckets in the manner
+ * of an HDR histogram. Each power of two is split into {@value #SUB_BUCKETS} equal buckets, so any
+ * percentile is reported to within 1/16 (6.25%) of the true value across the whole range of a
+ * long, in a fixed amount of memory.
+ *
+ * <p>Recording never locks: each thread adds to the buckets of one of several stripes, chosen by
+ * its thread id, so threads recording at once rarely touch the same counter. Reading the
+ * percentiles adds the stripes together.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * LatencyHistogram histogram = new LatencyHistogram();
+ * long startTime = System.nanoTime();
+ * parser.readCsvFile("rso_metrics.csv");
+ * histogram.record(System.nanoTime() - startTime);
+ * long p99 = histogram.percentile(99);
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    private static final int STRIPES = Math.min(8, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructs an empty histogram
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new AtomicLongArray(BUCKETS);
+        }
+    }
+
+    /**
+     * Records one value; negative values are recorded as 0
+     *
+     * @param value - The value, such as a duration in nanoseconds
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        stripes[stripe].incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Returns the number of values recorded
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of the values recorded
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Returns the largest value recorded, or 0 if there is none
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the values recorded, or 0 if there is none
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Returns a value that the given percentage of recorded values do not exceed, to within
+     * 6.25%, or 0 if nothing was recorded
+     *
+     * @param percentile - From 0 to 100
+     */
+    public long percentile(double percentile) {
+        return percentiles(percentile)[0];
+    }
+
+    /**
+     * Returns several percentiles from one pass over the buckets
+     *
+     * @param percentiles - Each from 0 to 100
+     * @return The value at each percentile, in the same order
+     */
+    public long[] percentiles(double... percentiles) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                long n = stripe.get(bucket);
+                counts[bucket] += n;
+                total += n;
+            }
+        }
+        long[] values = new long[percentiles.length];
+        if (total == 0) {
+            return values;
+        }
+        long largest = max.get();
+        for (int i = 0; i < percentiles.length; i++) {
+            long rank = Math.max(1, (long) Math.ceil(percentiles[i] / 100 * total));
+            long seen = 0;
+            int bucket = 0;
+            while (bucket < BUCKETS - 1 && (seen += counts[bucket]) < rank) {
+                bucket++;
+            }
+            values[i] = Math.min(largest, highestValueIn(bucket));
+        }
+        return values;
+    }
+
+    /**
+     * Returns the bucket of a value: values below 16 have a bucket each, and every larger power of
+     * two is split into 16 buckets of equal width
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the largest value that falls in a bucket
+     */
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -1,10 +1,15 @@
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
 /**
- * Creates a timestamped LOGS.txt with a description of system processes and user actions
+ * Creates a timestamped LOGS.txt with a description of system processes and user actions.
+ * Entries from every Log are queued and appended in batches by one background writer.
+ * User actions can also be recorded as structured events in the {@link AuditLog} under audit/.
  *  * <p>
  * Example:
  * <pre>
@@ -20,16 +25,103 @@ import java.time.format.DateTimeFormatter;
 public class Log {
     private static final String LOG_FILE = "LOGS.txt";
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final String AUDIT_DIRECTORY = "audit";
+    private static AsyncLineWriter writer;                      //Shared by every Log, started on first use
+    private static AuditLog auditLog;
+    private static volatile Timestamp lastTimestamp = new Timestamp(Long.MIN_VALUE, null);
 
+    /**
+     * A formatted timestamp and the second it was formatted for
+     */
+    private static final class Timestamp {
+        private final long epochSecond;
+        private final String text;
+
+        private Timestamp(long epochSecond, String text) {
+            this.epochSecond = epochSecond;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Queues a timestamped entry for LOGS.txt. The entry is written by a background thread,
+     * so this returns without waiting for the file.
+     *
+     * @param description - The system process or user action being logged
+     */
     public void updateLog(String description) {
-        String timestamp = LocalDateTime.now().format(FORMATTER);
-        String entry = "[" + timestamp + "] " + description;
+        String entry = "[" + timestamp() + "] " + description;
+        writer().writeLine(entry);
+    }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(LOG_FILE, true))) {
-            writer.write(entry);
-            writer.newLine();
+    /**
+     * Records a structured event in the audit log for an action that took no measurable time
+     *
+     * @param user - The user performing the action
+     * @param action - The action performed
+     * @param parameters - The inputs of the action as alternating names and values
+     */
+    public void audit(User user, AuditAction action, String... parameters) {
+        audit(user, action, System.nanoTime(), parameters);
+    }
+
+    /**
+     * Records a structured event in the audit log for an action that has just finished
+     *
+     * @param user - The user performing the action
+     * @param action - The action performed
+     * @param startNanos - The System.nanoTime() at which the action started
+     * @param parameters - The inputs of the action as alternating names and values
+     */
+    public void audit(User user, AuditAction action, long startNanos, String... parameters) {
+        long durationMillis = (System.nanoTime() - startNanos) / 1000000;
+        Map<String, String> named = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < parameters.length; i += 2) {
+            named.put(parameters[i], parameters[i + 1]);
+        }
+        AuditEvent event = new AuditEvent(System.currentTimeMillis() - durationMillis, user.getName(),
+                                          user.getRole(), action, durationMillis, named);
+        try {
+            auditLog().record(event);
         } catch (IOException e) {
-            System.err.println("Error writing to log file: " + e.getMessage());
+            System.err.println("Error writing to audit log: " + e.getMessage());
+        }
+    }
+
+    private static synchronized AuditLog auditLog() throws IOException {
+        if (auditLog == null) {
+            auditLog = new AuditLog(Paths.get(AUDIT_DIRECTORY));
+        }
+        return auditLog;
+    }
+
+    /**
+     * Waits until every entry logged so far has been written to LOGS.txt
+     */
+    public void flush() {
+        writer().flush();
+    }
+
+    private static synchronized AsyncLineWriter writer() {
+        if (writer == null) {
+            writer = new AsyncLineWriter(Paths.get(LOG_FILE), QUEUE_CAPACITY);
+            MetricsRegistry.global().gauge("log.queue_depth", writer::getQueueDepth);
+        }
+        return writer;
+    }
+
+    /**
+     * Formats the current time, reusing the text while the second has not changed
+     */
+    private static String timestamp() {
+        long epochSecond = System.currentTimeMillis() / 1000;
+        Timestamp last = lastTimestamp;
+        if (last.epochSecond != epochSecond) {
+            LocalDateTime now = LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault());
+            last = new Timestamp(epochSecond, now.format(FORMATTER));
+            lastTimestamp = last;
         }
+        return last.text;
     }
 }
@@ -0,0 +1,265 @@
+import java.util.Arrays;
+import java.util.List;
+/**
+ * A sorted index over the longitudes of the catalog: the longitudes in ascending order together
+ * with the row each one came from. A longitude range is answered by two binary searches that
+ * bound a contiguous run of the sorted array, so counting the objects in a range takes
+ * O(log n) and listing them only touches the matching rows.
+ *
+ * <p>Many ranges can be answered together by {@link #countsInBuckets(double[])}, which bins the
+ * catalog between a series of ascending edges with one binary search per edge, for example to
+ * count the objects in every 10 degree band around the globe. Longitudes that are not a number
+ * never fall inside any range.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * LongitudeIndex index = LongitudeIndex.build(manager.getRso_metrics());
+ * int[] rows = index.rowsBetween(-10, 10);
+ * int[] counts = index.countsInBuckets(LongitudeIndex.bucketEdges(-180, 180, 10));
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class LongitudeIndex {
+    private static final int RADIX_BITS = 16;
+    private static final int MAX_BUCKETS = 1 << 20;            //Bounds the edges array for very small widths
+
+    private final double[] longitudes;                          //Ascending, without NaN
+    private final int[] rows;                                   //rows[i] holds longitudes[i]
+    private final int size;
+
+    private LongitudeIndex(double[] longitudes, int[] rows, int size) {
+        this.longitudes = longitudes;
+        this.rows = rows;
+        this.size = size;
+    }
+
+    /**
+     * Builds the index for a list of space objects, whose positions become the row numbers
+     *
+     * @param objects - The catalog to index
+     * @return The index of the catalog's longitudes
+     */
+    public static LongitudeIndex build(List<SpaceObject> objects) {
+        double[] values = new double[objects.size()];
+        int row = 0;
+        for (SpaceObject object : objects) {
+            values[row++] = object.getLongitude();
+        }
+        return build(values);
+    }
+
+    /**
+     * Builds the index from the longitude column of a columnar catalog
+     *
+     * @param catalog - The catalog to index
+     * @return The index of the catalog's longitudes
+     */
+    public static LongitudeIndex build(ColumnarCatalog catalog) {
+        double[] values = new double[catalog.size()];
+        for (int row = 0; row < values.length; row++) {
+            values[row] = catalog.getLongitude(row);
+        }
+        return build(values);
+    }
+
+    /**
+     * Builds the index from longitudes by row number
+     *
+     * @param values - The longitude of each row
+     * @return The index of the longitudes
+     */
+    public static LongitudeIndex build(double[] values) {
+        int n = values.length;
+        long[] keys = new long[n];
+        int[] rows = new int[n];
+        for (int row = 0; row < n; row++) {
+            keys[row] = sortableBits(values[row]);
+            rows[row] = row;
+        }
+        radixSort(keys, rows);
+
+        double[] sorted = new double[n];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            double value = values[rows[i]];
+            if (Double.isNaN(value)) {
+                break;                                          //NaN sorts after every number
+            }
+            sorted[i] = value;
+            size++;
+        }
+        return new LongitudeIndex(sorted, rows, size);
+    }
+
+    /**
+     * Maps a double to a long whose signed order matches the numeric order of the doubles
+     */
+    private static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);             //Collapses every NaN to one value
+        return bits < 0 ? ~bits ^ Long.MIN_VALUE : bits;
+    }
+
+    /**
+     * Sorts keys in ascending signed order, moving each row number with its key. A stable
+     * least-significant-digit radix sort takes four linear passes, where a comparison sort
+     * of the row numbers would box them or call back into a comparator n log n times.
+     */
+    private static void radixSort(long[] keys, int[] rows) {
+        int n = keys.length;
+        long[] keyBuffer = new long[n];
+        int[] rowBuffer = new int[n];
+        int[] counts = new int[1 << RADIX_BITS];
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0);
+            boolean top = shift + RADIX_BITS == Long.SIZE;
+            for (int i = 0; i < n; i++) {
+                counts[digit(keys[i], shift, top)]++;
+            }
+            int position = 0;
+            for (int d = 0; d < counts.length; d++) {
+                int count = counts[d];
+                counts[d] = position;
+                position += count;
+            }
+            for (int i = 0; i < n; i++) {
+                int target = counts[digit(keys[i], shift, top)]++;
+                keyBuffer[target] = keys[i];
+                rowBuffer[target] = rows[i];
+            }
+            System.arraycopy(keyBuffer, 0, keys, 0, n);
+            System.arraycopy(rowBuffer, 0, rows, 0, n);
+        }
+    }
+
+    private static int digit(long key, int shift, boolean top) {
+        int digit = (int) (key >>> shift) & ((1 << RADIX_BITS) - 1);
+        return top ? digit ^ (1 << (RADIX_BITS - 1)) : digit;   //Negative keys first
+    }
+
+    /**
+     * Returns the number of rows with a longitude that is a number
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the position of the first sorted longitude greater than a value
+     */
+    private int firstAbove(double value, int from) {
+        int low = from;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (longitudes[mid] > value) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the position of the first sorted longitude greater than or equal to a value
+     */
+    private int firstAtLeast(double value, int from) {
+        int low = from;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (longitudes[mid] >= value) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Counts the rows whose longitude lies strictly between two limits
+     *
+     * @param lowerLimit - The exclusive lower longitude
+     * @param upperLimit - The exclusive upper longitude
+     * @return The number of matching rows
+     */
+    public int countBetween(double lowerLimit, double upperLimit) {
+        int from = firstAbove(lowerLimit, 0);
+        return Math.max(0, firstAtLeast(upperLimit, from) - from);
+    }
+
+    /**
+     * Finds the rows whose longitude lies strictly between two limits
+     *
+     * @param lowerLimit - The exclusive lower longitude
+     * @param upperLimit - The exclusive upper longitude
+     * @return The matching row numbers in ascending order
+     */
+    public int[] rowsBetween(double lowerLimit, double upperLimit) {
+        int from = firstAbove(lowerLimit, 0);
+        int to = Math.max(from, firstAtLeast(upperLimit, from));
+        int[] matches = Arrays.copyOfRange(rows, from, to);
+        Arrays.sort(matches);                                   //Keep the catalog's order
+        return matches;
+    }
+
+    /**
+     * Counts the rows in each bucket between a series of ascending edges, where bucket i holds
+     * the longitudes from edges[i], inclusive, up to edges[i + 1], exclusive. The last bucket
+     * also holds its upper edge, so buckets from -180 to 180 cover every longitude.
+     *
+     * @param edges - The bucket boundaries in ascending order
+     * @return The number of rows in each of the edges.length - 1 buckets
+     * @throws IllegalArgumentException if the edges are not in ascending order
+     */
+    public int[] countsInBuckets(double[] edges) {
+        if (edges.length < 2) {
+            return new int[0];
+        }
+        int[] counts = new int[edges.length - 1];
+        int start = firstAtLeast(edges[0], 0);
+        for (int i = 1; i < edges.length; i++) {
+            if (!(edges[i] >= edges[i - 1])) {
+                throw new IllegalArgumentException("Bucket edges must ascend: " + edges[i - 1] + ", " + edges[i]);
+            }
+            int end = i == edges.length - 1 ? firstAbove(edges[i], start)
+                                            : firstAtLeast(edges[i], start);    //Each search starts where the last ended
+            counts[i - 1] = end - start;
+            start = end;
+        }
+        return counts;
+    }
+
+    /**
+     * Creates the edges of equal-width buckets covering a longitude range
+     *
+     * @param from - The lower edge of the first bucket
+     * @param to - The upper edge of the last bucket
+     * @param width - The width of each bucket; the last bucket is narrower if it does not divide the range
+     * @return The bucket edges in ascending order
+     * @throws IllegalArgumentException if the width is not positive or makes more than 2^20 buckets
+     */
+    public static double[] bucketEdges(double from, double to, double width) {
+        if (!(width > 0) || !(to > from)) {
+            throw new IllegalArgumentException("Invalid buckets of width " + width + " from " + from + " to " + to);
+        }
+        double bucketCount = Math.ceil((to - from) / width);
+        if (bucketCount > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Buckets of width " + width + " from " + from + " to " + to
+                                               + " would make more than " + MAX_BUCKETS + " buckets");
+        }
+        int buckets = (int) bucketCount;
+        double[] edges = new double[buckets + 1];
+        for (int i = 0; i < buckets; i++) {
+            edges[i] = from + i * width;
+        }
+        edges[buckets] = to;
+        return edges;
+    }
+}
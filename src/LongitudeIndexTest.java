@@ -0,0 +1,58 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public class LongitudeIndexTest {
+    private static double[] randomLongitudes(int n) {
+        Random random = new Random(42);
+        double[] longitudes = new double[n];
+        for (int i = 0; i < n; i++) {
+            longitudes[i] = Math.round((random.nextDouble() * 360 - 180) * 100) / 100.0;
+        }
+        longitudes[0] = Double.NaN;
+        longitudes[1] = -0.0;
+        longitudes[2] = 180;
+        longitudes[3] = -180;
+        return longitudes;
+    }
+
+    @Test
+    void testRangesMatchScan() {
+        double[] longitudes = randomLongitudes(5000);
+        LongitudeIndex index = LongitudeIndex.build(longitudes);
+        double[][] ranges = {{-10, 10}, {-180, 180}, {-181, 181}, {0, 0.5}, {-0.0, 0.0}, {50, -50}, {42.42, 42.43}};
+
+        for (double[] range : ranges) {
+            int[] expected = IntStream.range(0, longitudes.length)
+                                      .filter(i -> longitudes[i] > range[0] && longitudes[i] < range[1])
+                                      .toArray();
+            assertArrayEquals(expected, index.rowsBetween(range[0], range[1]));
+            assertEquals(expected.length, index.countBetween(range[0], range[1]));
+        }
+        assertEquals(longitudes.length - 1, index.size());
+    }
+
+    @Test
+    void testBucketsCoverTheGlobe() {
+        double[] longitudes = randomLongitudes(5000);
+        double[] edges = LongitudeIndex.bucketEdges(-180, 180, 7);
+        int[] counts = LongitudeIndex.build(longitudes).countsInBuckets(edges);
+
+        assertEquals(52, counts.length);
+        assertEquals(180, edges[edges.length - 1]);
+        for (int b = 0; b < counts.length; b++) {
+            double from = edges[b];
+            double to = edges[b + 1];
+            boolean last = b == counts.length - 1;
+            long expected = IntStream.range(0, longitudes.length)
+                                     .filter(i -> longitudes[i] >= from && (longitudes[i] < to || last && longitudes[i] == to))
+                                     .count();
+            assertEquals(expected, counts[b]);
+        }
+        assertEquals(longitudes.length - 1, IntStream.of(counts).sum());
+        assertThrows(IllegalArgumentException.class, () -> LongitudeIndex.bucketEdges(-180, 180, 0));
+        assertThrows(IllegalArgumentException.class, () -> LongitudeIndex.bucketEdges(-180, 180, 1e-9));
+    }
+}
@@ -0,0 +1,455 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+/**
+ * Reads CSV records straight out of a memory-mapped file without building a String per line.
+ * Each call to {@link #nextRecord()} only scans the raw bytes for commas, enclosing double quotes
+ * and line terminators, remembering where every field starts and ends. A field is turned into a
+ * value only when a caller asks for it, so columns that are never read cost nothing beyond the scan.
+ *
+ * <p>The quoting rules match {@link CSVParser#parseLine(String)}: a double quote toggles whether
+ * commas are part of the field and is itself dropped from the value, and a line terminator always
+ * ends the record. Blank lines are skipped. Text is decoded as UTF-8.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * try (MappedCsvReader reader = MappedCsvReader.open(Path.of("rso_metrics.csv"))) {
+ *     List&lt;String&gt; header = reader.readHeader();
+ *     while (reader.nextRecord()) {
+ *         String recordID = reader.field(0);
+ *     }
+ * }
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class MappedCsvReader implements CsvRecord, Closeable {
+    private static final long WINDOW_SIZE = 1L << 30;           //Largest slice of the file mapped at once
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final int MAX_EXACT_POWER = 22;              //Largest power of ten a double holds exactly
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;    //Largest whole number a double holds exactly
+    private static final double[] POWERS_OF_TEN = new double[MAX_EXACT_POWER + 1];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_EXACT_POWER; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final FileChannel channel;
+    private final boolean ownsChannel;
+    private final long regionEnd;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int windowLimit;
+    private int pos;
+
+    private int[] fieldStart = new int[32];
+    private int[] fieldEnd = new int[32];
+    private boolean[] fieldQuoted = new boolean[32];
+    private int fieldCount;
+    private int pendingStart;                                   //Start of the last field of the scanned record
+    private boolean pendingQuoted;
+    private byte[] scratch = new byte[256];
+
+    private static final int INTERN_CACHE_SIZE = 1024;         //Direct-mapped, so must be a power of two
+    private static final int MAX_INTERNED_LENGTH = 64;          //Longer values are decoded normally
+    private final StringDictionary[] internOwners = new StringDictionary[INTERN_CACHE_SIZE];
+    private final byte[][] internKeys = new byte[INTERN_CACHE_SIZE][];
+    private final String[] internValues = new String[INTERN_CACHE_SIZE];
+
+    /**
+     * Maps the region [from, to) of the channel for reading. The region must begin at the start of a record.
+     *
+     * @param channel - An open channel to the CSV file
+     * @param from - The byte offset of the first record in the region
+     * @param to - The byte offset just past the last record in the region
+     * @param ownsChannel - True if closing this reader should also close the channel
+     */
+    MappedCsvReader(FileChannel channel, long from, long to, boolean ownsChannel) throws IOException {
+        this.channel = channel;
+        this.ownsChannel = ownsChannel;
+        this.regionEnd = to;
+        mapWindow(from);
+    }
+
+    /**
+     * Opens and maps a whole CSV file, skipping the UTF-8 Byte Order Marker if present
+     *
+     * @param file - The CSV file to be read
+     * @return A reader positioned at the header line
+     */
+    public static MappedCsvReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            MappedCsvReader reader = new MappedCsvReader(channel, 0, channel.size(), true);
+            reader.skipByteOrderMark();
+            return reader;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the next record as the header line
+     *
+     * @return The header fields in file order, or an empty list if the file is empty
+     */
+    public List<String> readHeader() throws IOException {
+        List<String> header = new ArrayList<>();
+        if (nextRecord()) {
+            for (int i = 0; i < fieldCount; i++) {
+                header.add(field(i));
+            }
+        }
+        return header;
+    }
+
+    /**
+     * Advances to the next non-blank record and records the bounds of each of its fields
+     *
+     * @return True if a record was found, False once the end of the region is reached
+     */
+    public boolean nextRecord() throws IOException {
+        while (true) {
+            if (windowStart + pos >= regionEnd) {
+                return false;
+            }
+            int recordStart = pos;
+            if (!scanRecord()) {                                //Record runs past the mapped window
+                if (windowStart + windowLimit >= regionEnd) {
+                    finishRecord();                             //Last record of the region has no line terminator
+                    return true;
+                }
+                if (recordStart == 0) {
+                    throw new IOException("Record at offset " + windowStart + " is larger than the mapping window");
+                }
+                mapWindow(windowStart + recordStart);
+                continue;
+            }
+            if (pos == recordStart) {                           //Blank line
+                skipLineTerminator();
+                continue;
+            }
+            finishRecord();
+            skipLineTerminator();
+            return true;
+        }
+    }
+
+    /**
+     * Scans from the current position up to the next line terminator, splitting fields on unquoted commas
+     *
+     * @return True if a line terminator was reached, False if the window ran out first
+     */
+    private boolean scanRecord() {
+        MappedByteBuffer buf = window;
+        int limit = windowLimit;
+        int p = pos;
+        int start = p;
+        boolean quoted = false;
+        boolean inQuotes = false;
+        fieldCount = 0;
+
+        while (p < limit) {
+            byte b = buf.get(p);
+            if (b == '\"') {                                    //Enclosing quote detected
+                inQuotes = !inQuotes;
+                quoted = true;
+            } else if (b == ',' && !inQuotes) {                 //Comma outside of enclosing quotes means end of field
+                addField(start, p, quoted);
+                start = p + 1;
+                quoted = false;
+            } else if (b == '\n' || b == '\r') {
+                break;
+            }
+            p++;
+        }
+        pendingStart = start;
+        pendingQuoted = quoted;
+        pos = p;
+        return p < limit;
+    }
+
+    /**
+     * Adds the final field of the record that was just scanned
+     */
+    private void finishRecord() {
+        addField(pendingStart, pos, pendingQuoted);
+    }
+
+    private void addField(int start, int end, boolean quoted) {
+        if (fieldCount == fieldStart.length) {
+            int size = fieldCount * 2;
+            fieldStart = Arrays.copyOf(fieldStart, size);
+            fieldEnd = Arrays.copyOf(fieldEnd, size);
+            fieldQuoted = Arrays.copyOf(fieldQuoted, size);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = end;
+        fieldQuoted[fieldCount] = quoted;
+        fieldCount++;
+    }
+
+    /**
+     * Consumes a "\n", "\r" or "\r\n" line terminator at the current position
+     */
+    private void skipLineTerminator() throws IOException {
+        if (pos < windowLimit && window.get(pos) == '\r') {
+            pos++;
+            if (pos == windowLimit && windowStart + pos < regionEnd) {
+                mapWindow(windowStart + pos);
+            }
+        }
+        if (pos < windowLimit && window.get(pos) == '\n') {
+            pos++;
+        }
+    }
+
+    private void skipByteOrderMark() {
+        if (windowLimit >= UTF8_BOM.length && window.get(0) == UTF8_BOM[0]
+                && window.get(1) == UTF8_BOM[1] && window.get(2) == UTF8_BOM[2]) {
+            pos = UTF8_BOM.length;
+        }
+    }
+
+    private void mapWindow(long start) throws IOException {
+        long size = Math.min(WINDOW_SIZE, regionEnd - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        windowStart = start;
+        windowLimit = (int) size;
+        pos = 0;
+    }
+
+    /**
+     * Returns the file offset of the next unread byte, which is the start of the next record
+     * once the current one has been read
+     */
+    public long position() {
+        return windowStart + pos;
+    }
+
+    /**
+     * Returns the number of fields in the current record
+     */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Decodes one field of the current record, dropping any enclosing double quotes
+     *
+     * @param index - The column index of the field
+     * @return The field value, or an empty String if the record has no such column
+     */
+    @Override
+    public String field(int index) {
+        if (index < 0 || index >= fieldCount) {
+            return "";
+        }
+        int len = copyField(index);
+        return new String(scratch, 0, len, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns a field as the shared instance held by a dictionary. The raw bytes of recently seen
+     * values are cached, so a repeated value is matched without decoding a new String.
+     */
+    @Override
+    public String internedField(int index, StringDictionary dictionary) {
+        if (index < 0 || index >= fieldCount) {
+            return dictionary.intern("");
+        }
+        int len = copyField(index);
+        if (len > MAX_INTERNED_LENGTH) {
+            return dictionary.intern(new String(scratch, 0, len, StandardCharsets.UTF_8));
+        }
+        int hash = System.identityHashCode(dictionary);
+        for (int i = 0; i < len; i++) {
+            hash = 31 * hash + scratch[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & (INTERN_CACHE_SIZE - 1);
+        byte[] key = internKeys[slot];
+        if (internOwners[slot] == dictionary && key.length == len
+                && Arrays.equals(key, 0, len, scratch, 0, len)) {
+            return internValues[slot];
+        }
+        String value = dictionary.intern(new String(scratch, 0, len, StandardCharsets.UTF_8));
+        internOwners[slot] = dictionary;
+        internKeys[slot] = Arrays.copyOf(scratch, len);
+        internValues[slot] = value;
+        return value;
+    }
+
+    /**
+     * Parses a whole number straight from the mapped bytes, accepting the same text as
+     * {@link Long#parseLong(String)} once enclosing quotes are removed
+     */
+    @Override
+    public long longField(int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new NumberFormatException("missing column " + index);
+        }
+        MappedByteBuffer buf = window;
+        int end = fieldEnd[index];
+        boolean negative = false;
+        boolean signed = false;
+        boolean digits = false;
+        long value = 0;                                         //Accumulated negatively so Long.MIN_VALUE fits
+
+        for (int i = fieldStart[index]; i < end; i++) {
+            byte b = buf.get(i);
+            if (b >= '0' && b <= '9') {
+                int digit = b - '0';
+                if (value < (Long.MIN_VALUE + digit) / 10) {
+                    throw new NumberFormatException("out of range: " + field(index));
+                }
+                value = value * 10 - digit;
+                digits = true;
+            } else if ((b == '-' || b == '+') && !signed && !digits) {
+                negative = b == '-';
+                signed = true;
+            } else if (b != '\"') {
+                throw new NumberFormatException("For input string: \"" + field(index) + "\"");
+            }
+        }
+        if (!digits || (!negative && value == Long.MIN_VALUE)) {
+            throw new NumberFormatException("For input string: \"" + field(index) + "\"");
+        }
+        return negative ? value : -value;
+    }
+
+    /**
+     * Parses a decimal number straight from the mapped bytes. Plain decimals of up to 15 significant
+     * digits are converted exactly without creating a String; anything else (more digits, NaN,
+     * Infinity, surrounding spaces) is handed to {@link Double#parseDouble(String)}.
+     */
+    @Override
+    public double doubleField(int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new NumberFormatException("missing column " + index);
+        }
+        MappedByteBuffer buf = window;
+        int i = fieldStart[index];
+        int end = fieldEnd[index];
+        if (fieldQuoted[index]) {
+            return Double.parseDouble(field(index));
+        }
+
+        boolean negative = false;
+        if (i < end && (buf.get(i) == '-' || buf.get(i) == '+')) {
+            negative = buf.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int significant = 0;
+        int exponent = 0;
+        boolean digits = false;
+        boolean point = false;
+        for (; i < end; i++) {
+            byte b = buf.get(i);
+            if (b >= '0' && b <= '9') {
+                digits = true;
+                if (mantissa != 0 || b != '0') {
+                    if (++significant > 15) {
+                        return Double.parseDouble(field(index));
+                    }
+                    mantissa = mantissa * 10 + (b - '0');
+                }
+                if (point) {
+                    exponent--;
+                }
+            } else if (b == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (i < end) {
+            byte b = buf.get(i);
+            if (!digits || (b != 'e' && b != 'E') || i + 1 >= end) {
+                return Double.parseDouble(field(index));
+            }
+            i++;
+            boolean negativeExponent = buf.get(i) == '-';
+            if (buf.get(i) == '-' || buf.get(i) == '+') {
+                i++;
+            }
+            int power = 0;
+            if (i >= end) {
+                return Double.parseDouble(field(index));
+            }
+            for (; i < end; i++) {
+                b = buf.get(i);
+                if (b < '0' || b > '9' || power > 1000) {
+                    return Double.parseDouble(field(index));
+                }
+                power = power * 10 + (b - '0');
+            }
+            exponent += negativeExponent ? -power : power;
+        }
+        if (!digits) {
+            return Double.parseDouble(field(index));
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0;
+        } else if (mantissa <= MAX_EXACT_MANTISSA && exponent >= -MAX_EXACT_POWER && exponent <= MAX_EXACT_POWER) {
+            value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        } else {
+            return Double.parseDouble(field(index));
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Copies the bytes of a field into the scratch buffer, leaving out double quotes
+     *
+     * @return The number of bytes copied
+     */
+    private int copyField(int index) {
+        int start = fieldStart[index];
+        int end = fieldEnd[index];
+        int len = end - start;
+        if (len > scratch.length) {
+            scratch = new byte[Math.max(len, scratch.length * 2)];
+        }
+        if (!fieldQuoted[index]) {
+            window.get(start, scratch, 0, len);
+            return len;
+        }
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            byte b = window.get(i);
+            if (b != '\"') {
+                scratch[n++] = b;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Releases the underlying file channel if this reader owns it.
+     * The mapping itself is released by the garbage collector.
+     */
+    @Override
+    public void close() throws IOException {
+        window = null;
+        if (ownsChannel) {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,286 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+/**
+ * Holds the named counters, timers and gauges the system records while it runs, such as rows
+ * loaded per second, parse errors, filter and assessment latency, bytes exported per second and
+ * the depth of the log queue.
+ *
+ * <p>Counters and timers are created on first use and add to {@link LongAdder}s and a
+ * {@link LatencyHistogram}, so recording from many threads never locks. {@link #report()}
+ * formats every metric as text, which the administrator console shows on request and
+ * {@link #startDump(Path, long)} writes to a file on a fixed period.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * MetricsRegistry.Timer loads = MetricsRegistry.global().timer("csv.load", "rows");
+ * long startTime = System.nanoTime();
+ * List&lt;SpaceObject&gt; objects = parser.readCsvFile("rso_metrics.csv");
+ * loads.recordSince(startTime, objects.size());
+ * System.out.println(MetricsRegistry.global().report());
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, Timer> timers = new ConcurrentSkipListMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+    private ScheduledExecutorService dumper;
+    private Path dumpFile;
+
+    /**
+     * Returns the registry shared by the whole system
+     */
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Returns the counter with a name, creating it on first use
+     *
+     * @param name - The name of the counter, such as "csv.parse_errors"
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /**
+     * Returns the timer with a name, creating it on first use
+     *
+     * @param name - The name of the timer, such as "filter.leo"
+     */
+    public Timer timer(String name) {
+        return timer(name, null);
+    }
+
+    /**
+     * Returns the timer with a name, creating it on first use with the unit its work is counted in
+     *
+     * @param name - The name of the timer, such as "csv.load"
+     * @param unit - The unit of work, such as "rows", reported as a rate; ignored if the timer exists
+     */
+    public Timer timer(String name, String unit) {
+        return timers.computeIfAbsent(name, key -> new Timer(unit));
+    }
+
+    /**
+     * Registers a value that is read whenever metrics are reported, replacing any with the same name
+     *
+     * @param name - The name of the gauge, such as "log.queue_depth"
+     * @param value - Reads the current value
+     */
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Formats every metric as text, one per line, sorted by kind and name. Timers show their call
+     * count, mean and percentile latencies in milliseconds, and their rate of work if they have a unit.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append("Metrics at ").append(LocalDateTime.now().format(FORMATTER)).append(System.lineSeparator());
+        for (Map.Entry<String, Counter> counter : counters.entrySet()) {
+            report.append(String.format(Locale.ROOT, "counter %-32s %d%n", counter.getKey(), counter.getValue().get()));
+        }
+        for (Map.Entry<String, LongSupplier> gauge : gauges.entrySet()) {
+            report.append(String.format(Locale.ROOT, "gauge   %-32s %d%n", gauge.getKey(), gauge.getValue().getAsLong()));
+        }
+        for (Map.Entry<String, Timer> timer : timers.entrySet()) {
+            report.append(String.format(Locale.ROOT, "timer   %-32s %s%n", timer.getKey(), timer.getValue()));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Writes the report to a file, replacing it in one step so readers never see half a report
+     *
+     * @param file - The file to write
+     */
+    public void writeReport(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, report().getBytes(StandardCharsets.UTF_8));
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Starts writing the report to a file every period on a background thread, replacing any dump
+     * already running. The thread does not keep the program alive.
+     *
+     * @param file - The file to write
+     * @param periodSeconds - The seconds between reports
+     */
+    public synchronized void startDump(Path file, long periodSeconds) {
+        stopDump();
+        dumpFile = file;
+        dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> {
+            try {
+                writeReport(file);
+            } catch (IOException e) {
+                System.err.println("Error writing metrics to " + file + ": " + e.getMessage());
+            }
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic dump, if one is running, and writes a last report so the file is current
+     */
+    public synchronized void stopDump() {
+        if (dumper == null) {
+            return;
+        }
+        dumper.shutdownNow();
+        dumper = null;
+        try {
+            writeReport(dumpFile);
+        } catch (IOException e) {
+            System.err.println("Error writing metrics to " + dumpFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * A count that only goes up, such as parse errors
+     */
+    public static class Counter {
+        private final LongAdder count = new LongAdder();
+
+        /**
+         * Adds one to the count
+         */
+        public void increment() {
+            count.increment();
+        }
+
+        /**
+         * Adds to the count
+         *
+         * @param amount - The amount to add
+         */
+        public void add(long amount) {
+            count.add(amount);
+        }
+
+        /**
+         * Returns the count
+         */
+        public long get() {
+            return count.sum();
+        }
+    }
+
+    /**
+     * The latency of an operation, and optionally the work it did so it can be reported as a rate
+     * such as rows per second
+     */
+    public static class Timer {
+        private final String unit;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder units = new LongAdder();
+
+        Timer(String unit) {
+            this.unit = unit;
+        }
+
+        /**
+         * Records one call that started at a time from {@link System#nanoTime()}
+         *
+         * @param startNanos - When the call started
+         */
+        public void recordSince(long startNanos) {
+            recordSince(startNanos, 0);
+        }
+
+        /**
+         * Records one call that started at a time from {@link System#nanoTime()} and did some work
+         *
+         * @param startNanos - When the call started
+         * @param work - How many units of work the call did, such as rows loaded
+         */
+        public void recordSince(long startNanos, long work) {
+            record(System.nanoTime() - startNanos, work);
+        }
+
+        /**
+         * Records one call of known duration that did some work
+         *
+         * @param nanos - How long the call took
+         * @param work - How many units of work the call did
+         */
+        public void record(long nanos, long work) {
+            histogram.record(nanos);
+            units.add(work);
+        }
+
+        /**
+         * Returns the number of calls recorded
+         */
+        public long getCount() {
+            return histogram.getCount();
+        }
+
+        /**
+         * Returns the units of work recorded
+         */
+        public long getUnits() {
+            return units.sum();
+        }
+
+        /**
+         * Returns the units of work done per second spent in the recorded calls, or 0 if none took time
+         */
+        public double getUnitsPerSecond() {
+            long nanos = histogram.getSum();
+            return nanos == 0 ? 0 : units.sum() / (nanos / 1e9);
+        }
+
+        /**
+         * Returns the latencies of the recorded calls, in nanoseconds
+         */
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+
+        @Override
+        public String toString() {
+            long[] percentiles = histogram.percentiles(50, 90, 99, 99.9);
+            String latency = String.format(Locale.ROOT, "count=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms p999=%.3fms max=%.3fms",
+                                           histogram.getCount(), histogram.getMean() / 1e6, percentiles[0] / 1e6,
+                                           percentiles[1] / 1e6, percentiles[2] / 1e6, percentiles[3] / 1e6,
+                                           histogram.getMax() / 1e6);
+            if (unit == null) {
+                return latency;
+            }
+            return latency + String.format(Locale.ROOT, " %s=%d rate=%.1f %s/s", unit, units.sum(), getUnitsPerSecond(), unit);
+        }
+    }
+}
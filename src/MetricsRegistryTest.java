@@ -0,0 +1,63 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MetricsRegistryTest {
+
+    @Test
+    void testHistogramPercentilesStayWithinBucketPrecisionAcrossThreads() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (long value = 1; value <= 100000; value++) {
+                    histogram.record(value);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(400000, histogram.getCount());
+        assertEquals(100000, histogram.getMax());
+        long[] percentiles = histogram.percentiles(50, 99, 100);
+        assertTrue(Math.abs(percentiles[0] - 50000) <= 50000 / 16, "p50 was " + percentiles[0]);
+        assertTrue(Math.abs(percentiles[1] - 99000) <= 99000 / 16, "p99 was " + percentiles[1]);
+        assertEquals(100000, percentiles[2]);
+        for (long value : new long[] {0, 15, 16, 1000, 123456789, Long.MAX_VALUE}) {
+            assertTrue(LatencyHistogram.highestValueIn(LatencyHistogram.bucketOf(value)) >= value);
+        }
+    }
+
+    @Test
+    void testReportAndDumpIncludeEveryMetric() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("csv.parse_errors").add(3);
+        registry.gauge("log.queue_depth", () -> 7);
+        MetricsRegistry.Timer loads = registry.timer("csv.load", "rows");
+        loads.record(2000000000L, 1000);
+
+        assertEquals(500.0, loads.getUnitsPerSecond(), 1e-9);
+        String report = registry.report();
+        assertTrue(report.contains("csv.parse_errors"));
+        assertTrue(report.contains(" 3"));
+        assertTrue(report.contains("log.queue_depth"));
+        assertTrue(report.contains("rate=500.0 rows/s"));
+
+        Path directory = Files.createTempDirectory("metrics");
+        Path file = directory.resolve("METRICS.txt");
+        registry.writeReport(file);
+        String dumped = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assertTrue(dumped.contains("csv.load"));
+        Files.delete(file);
+        Files.delete(directory);
+    }
+}
@@ -0,0 +1,286 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+/**
+ * Holds the space object catalog outside the Java heap in direct byte buffers, so a full-size
+ * catalog adds almost nothing for the garbage collector to trace. Each object is a fixed-width
+ * record of its numeric fields, dictionary codes and assessment results, plus offsets into a
+ * separate area holding its free-text fields (record ID, name and geohash) as UTF-8.
+ *
+ * <p>Through {@link #asList()} the store can stand in for the {@code List<SpaceObject>} used by
+ * Scientists and Space Agency Representatives; each row is materialized on access, and risk levels
+ * and orbit status set on it are written back off-heap.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * OffHeapCatalog catalog = new OffHeapCatalog(new CatalogDictionaries());
+ * try (Stream&lt;SpaceObject&gt; objects = parser.streamCsvFile("rso_metrics.csv")) {
+ *     objects.forEach(catalog::add);
+ * }
+ * scientist.setEntries(catalog.asList());
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class OffHeapCatalog implements CatalogStore {
+    private static final int SEGMENT_BYTES = 64 << 20;          //Size of each direct buffer
+
+    // Record layout: 8-byte fields first so every field is naturally aligned
+    private static final int LONGITUDE = 0;
+    private static final int AVG_LONGITUDE = 8;
+    private static final int CONJUNCTION_COUNT = 16;
+    private static final int RECORD_ID = 24;                    //Offsets into the text area
+    private static final int SATELLITE_NAME = 32;
+    private static final int GEOHASH = 40;
+    private static final int LAUNCH_YEAR = 48;
+    private static final int DAYS_OLD = 52;
+    private static final int COUNTRY = 56;                      //Dictionary codes
+    private static final int ORBIT_TYPE = 60;
+    private static final int OBJECT_TYPE = 64;
+    private static final int LAUNCH_SITE = 68;
+    private static final int HRR_CATEGORY = 72;
+    private static final int RISK_CODE = 76;
+    private static final int STILL_IN_ORBIT = 77;
+    private static final int RECORD_BYTES = 80;
+    private static final int RECORDS_PER_SEGMENT = SEGMENT_BYTES / RECORD_BYTES;
+
+    private static final long NULL_TEXT = -1;
+
+    private final CatalogDictionaries dictionaries;
+    private final List<ByteBuffer> recordSegments = new ArrayList<>();
+    private final List<ByteBuffer> textSegments = new ArrayList<>();
+    private final BitSet dirtyRows = new BitSet();             //Rows whose assessment changed since the last export
+    private final AtomicLong assessmentVersion = new AtomicLong();
+    private int size;
+
+    /**
+     * Constructs an empty off-heap catalog whose categorical columns are coded through the given dictionaries
+     *
+     * @param dictionaries - The dictionaries for the low-cardinality columns
+     */
+    public OffHeapCatalog(CatalogDictionaries dictionaries) {
+        this.dictionaries = dictionaries;
+    }
+
+    private static ByteBuffer allocateSegment() {
+        return ByteBuffer.allocateDirect(SEGMENT_BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Appends a space object as the last record of the catalog
+     *
+     * @param object - The space object to store
+     */
+    public synchronized void add(SpaceObject object) {
+        if (size == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Off-heap catalog is full");
+        }
+        int row = size;
+        if (row % RECORDS_PER_SEGMENT == 0) {
+            recordSegments.add(allocateSegment());
+        }
+        ByteBuffer segment = recordSegments.get(row / RECORDS_PER_SEGMENT);
+        int base = (row % RECORDS_PER_SEGMENT) * RECORD_BYTES;
+
+        segment.putDouble(base + LONGITUDE, object.getLongitude());
+        segment.putDouble(base + AVG_LONGITUDE, object.getAverageLongitude());
+        segment.putLong(base + CONJUNCTION_COUNT, object.getConjunctionCount());
+        segment.putLong(base + RECORD_ID, appendText(object.getRecordID()));
+        segment.putLong(base + SATELLITE_NAME, appendText(object.getSatelliteName()));
+        segment.putLong(base + GEOHASH, appendText(object.getGeohash()));
+        segment.putInt(base + LAUNCH_YEAR, object.getLaunchYear());
+        segment.putInt(base + DAYS_OLD, object.getDaysOld());
+        segment.putInt(base + COUNTRY, encode(dictionaries.getCountries(), object.getCountry()));
+        segment.putInt(base + ORBIT_TYPE, encode(dictionaries.getOrbitTypes(), object.getOrbitType()));
+        segment.putInt(base + OBJECT_TYPE, encode(dictionaries.getObjectTypes(), object.getObject_type()));
+        segment.putInt(base + LAUNCH_SITE, encode(dictionaries.getLaunchSites(), object.getLaunchSite()));
+        segment.putInt(base + HRR_CATEGORY, encode(dictionaries.getHrrCategories(), object.getHrrCategory()));
+        segment.put(base + RISK_CODE, OrbitalAssessment.riskCode(object.getRiskLevel()));
+        segment.put(base + STILL_IN_ORBIT, (byte) (object.isStillInOrbit() ? 1 : 0));
+        size++;
+    }
+
+    /**
+     * Copies a String into the text area as a length followed by its UTF-8 bytes
+     *
+     * @return The offset of the text, or NULL_TEXT for null
+     */
+    private long appendText(String text) {
+        if (text == null) {
+            return NULL_TEXT;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length + Integer.BYTES > SEGMENT_BYTES) {
+            throw new IllegalArgumentException("Text field of " + bytes.length + " bytes is too long to store");
+        }
+        ByteBuffer segment = textSegments.isEmpty() ? null : textSegments.get(textSegments.size() - 1);
+        if (segment == null || segment.remaining() < bytes.length + Integer.BYTES) {
+            segment = allocateSegment();
+            textSegments.add(segment);
+        }
+        long offset = (long) (textSegments.size() - 1) * SEGMENT_BYTES + segment.position();
+        segment.putInt(bytes.length);
+        segment.put(bytes);
+        return offset;
+    }
+
+    private String readText(long offset) {
+        if (offset == NULL_TEXT) {
+            return null;
+        }
+        ByteBuffer segment = textSegments.get((int) (offset / SEGMENT_BYTES));
+        int position = (int) (offset % SEGMENT_BYTES);
+        byte[] bytes = new byte[segment.getInt(position)];
+        segment.get(position + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int encode(StringDictionary dictionary, String value) {
+        return value == null ? -1 : dictionary.encode(value);
+    }
+
+    private static String decode(StringDictionary dictionary, int code) {
+        return code < 0 ? null : dictionary.decode(code);
+    }
+
+    private ByteBuffer segmentOf(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " outside catalog of size " + size);
+        }
+        return recordSegments.get(row / RECORDS_PER_SEGMENT);
+    }
+
+    private static int baseOf(int row) {
+        return (row % RECORDS_PER_SEGMENT) * RECORD_BYTES;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the dictionaries the categorical columns are coded through
+     */
+    public CatalogDictionaries getDictionaries() {
+        return dictionaries;
+    }
+
+    /**
+     * Returns the number of bytes held off-heap by the record and text areas
+     */
+    public synchronized long getOffHeapBytes() {
+        return (long) (recordSegments.size() + textSegments.size()) * SEGMENT_BYTES;
+    }
+
+    @Override
+    public SpaceObject row(int row) {
+        ByteBuffer segment = segmentOf(row);
+        int base = baseOf(row);
+        return new CatalogRowView(this, row, readText(segment.getLong(base + RECORD_ID)),
+                readText(segment.getLong(base + SATELLITE_NAME)),
+                decode(dictionaries.getCountries(), segment.getInt(base + COUNTRY)),
+                decode(dictionaries.getOrbitTypes(), segment.getInt(base + ORBIT_TYPE)),
+                decode(dictionaries.getObjectTypes(), segment.getInt(base + OBJECT_TYPE)),
+                segment.getInt(base + LAUNCH_YEAR),
+                decode(dictionaries.getLaunchSites(), segment.getInt(base + LAUNCH_SITE)),
+                segment.getDouble(base + LONGITUDE), segment.getDouble(base + AVG_LONGITUDE),
+                readText(segment.getLong(base + GEOHASH)), segment.getInt(base + DAYS_OLD),
+                segment.getLong(base + CONJUNCTION_COUNT),
+                decode(dictionaries.getHrrCategories(), segment.getInt(base + HRR_CATEGORY)),
+                segment.get(base + RISK_CODE), segment.get(base + STILL_IN_ORBIT) != 0);
+    }
+
+    /**
+     * Returns the current longitude of a row without materializing it
+     */
+    public double getLongitude(int row) {
+        return segmentOf(row).getDouble(baseOf(row) + LONGITUDE);
+    }
+
+    /**
+     * Returns the average longitude of a row without materializing it
+     */
+    public double getAverageLongitude(int row) {
+        return segmentOf(row).getDouble(baseOf(row) + AVG_LONGITUDE);
+    }
+
+    /**
+     * Returns the age in days of a row without materializing it
+     */
+    public int getDaysOld(int row) {
+        return segmentOf(row).getInt(baseOf(row) + DAYS_OLD);
+    }
+
+    /**
+     * Returns the conjunction count of a row without materializing it
+     */
+    public long getConjunctionCount(int row) {
+        return segmentOf(row).getLong(baseOf(row) + CONJUNCTION_COUNT);
+    }
+
+    /**
+     * Returns the risk code of a row, as defined by {@link OrbitalAssessment}
+     */
+    public byte getRiskCode(int row) {
+        return segmentOf(row).get(baseOf(row) + RISK_CODE);
+    }
+
+    /**
+     * Returns whether a row was assessed as still in orbit
+     */
+    public boolean isStillInOrbit(int row) {
+        return segmentOf(row).get(baseOf(row) + STILL_IN_ORBIT) != 0;
+    }
+
+    @Override
+    public void setRiskCode(int row, byte riskCode) {
+        ByteBuffer segment = segmentOf(row);
+        if (segment.get(baseOf(row) + RISK_CODE) != riskCode) {
+            segment.put(baseOf(row) + RISK_CODE, riskCode);
+            dirtyRows.set(row);
+            assessmentVersion.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void setStillInOrbit(int row, boolean stillInOrbit) {
+        ByteBuffer segment = segmentOf(row);
+        byte value = (byte) (stillInOrbit ? 1 : 0);
+        if (segment.get(baseOf(row) + STILL_IN_ORBIT) != value) {
+            segment.put(baseOf(row) + STILL_IN_ORBIT, value);
+            dirtyRows.set(row);
+            assessmentVersion.incrementAndGet();
+        }
+    }
+
+    @Override
+    public boolean isDirty(int row) {
+        segmentOf(row);                                         //Checks the row is in range
+        return dirtyRows.get(row);
+    }
+
+    @Override
+    public int nextDirtyRow(int fromRow) {
+        return dirtyRows.nextSetBit(fromRow);
+    }
+
+    @Override
+    public void clearDirty(int row) {
+        segmentOf(row);                                         //Checks the row is in range
+        dirtyRows.clear(row);
+    }
+
+    @Override
+    public long getAssessmentVersion() {
+        return assessmentVersion.get();
+    }
+}
@@ -0,0 +1,85 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class OffHeapCatalogTest {
+
+    private static List<SpaceObject> catalog(int size) {
+        List<SpaceObject> objects = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            objects.add(new SpaceObject(String.valueOf(i), "Sat-" + i, i % 3 == 0 ? "PRC" : "USA",
+                                        i % 2 == 0 ? "LEO" : null, "DEBRIS", 1960 + i % 60, "KSC",
+                                        -179.5 + i * 0.37, 12.25 - i * 0.11, i % 5 == 0 ? null : "9q8yy",
+                                        i * 13, i * 1000003L, i % 4 == 0 ? "B" : "A"));
+        }
+        return objects;
+    }
+
+    private static void assertSameFields(SpaceObject expected, SpaceObject actual) {
+        assertEquals(expected.getRecordID(), actual.getRecordID());
+        assertEquals(expected.getSatelliteName(), actual.getSatelliteName());
+        assertEquals(expected.getCountry(), actual.getCountry());
+        assertEquals(expected.getOrbitType(), actual.getOrbitType());
+        assertEquals(expected.getObject_type(), actual.getObject_type());
+        assertEquals(expected.getLaunchYear(), actual.getLaunchYear());
+        assertEquals(expected.getLaunchSite(), actual.getLaunchSite());
+        assertEquals(expected.getLongitude(), actual.getLongitude());
+        assertEquals(expected.getAverageLongitude(), actual.getAverageLongitude());
+        assertEquals(expected.getGeohash(), actual.getGeohash());
+        assertEquals(expected.getDaysOld(), actual.getDaysOld());
+        assertEquals(expected.getConjunctionCount(), actual.getConjunctionCount());
+        assertEquals(expected.getHrrCategory(), actual.getHrrCategory());
+        assertEquals(expected.getRiskLevel(), actual.getRiskLevel());
+        assertEquals(expected.isStillInOrbit(), actual.isStillInOrbit());
+    }
+
+    @Test
+    void testEveryFieldRoundTrips() {
+        List<SpaceObject> objects = catalog(1000);
+        objects.add(new SpaceObject(null, "\u0421\u043f\u0443\u0442\u043d\u0438\u043a-1 \u2713", null, null, null, 1957, null, -0.0,
+                                    Double.MAX_VALUE, null, 0, Long.MAX_VALUE, null));
+        objects.get(7).setRiskLevel("High");
+        objects.get(7).setStillInOrbit(true);
+        OffHeapCatalog catalog = new OffHeapCatalog(new CatalogDictionaries());
+        objects.forEach(catalog::add);
+
+        assertEquals(objects.size(), catalog.size());
+        List<SpaceObject> rows = catalog.asList();
+        for (int row = 0; row < objects.size(); row++) {
+            assertSameFields(objects.get(row), rows.get(row));
+            assertEquals(objects.get(row).getLongitude(), catalog.getLongitude(row));
+            assertEquals(objects.get(row).getConjunctionCount(), catalog.getConjunctionCount(row));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> catalog.row(objects.size()));
+    }
+
+    @Test
+    void testAssessmentsAreWrittenBackAndMarkedDirty() {
+        OffHeapCatalog catalog = new OffHeapCatalog(new CatalogDictionaries());
+        catalog(100).forEach(catalog::add);
+        assertEquals(-1, catalog.nextDirtyRow(0));
+
+        SpaceObject view = catalog.asList().get(42);
+        view.setRiskLevel("Moderate");
+        view.setStillInOrbit(true);
+        view.setStillInOrbit(true);                               //Unchanged, so still one dirty row
+
+        SpaceObject reread = catalog.row(42);
+        assertEquals("Moderate", reread.getRiskLevel());
+        assertTrue(reread.isStillInOrbit());
+        assertEquals(OrbitalAssessment.RISK_MODERATE, catalog.getRiskCode(42));
+        assertEquals(42, catalog.nextDirtyRow(0));
+        assertEquals(-1, catalog.nextDirtyRow(43));
+
+        assertThrows(IllegalArgumentException.class, () -> view.setRiskLevel("Severe"));
+        assertThrows(IllegalArgumentException.class, () -> new SpaceObject("1", "Sat-1", "USA", "LEO", "DEBRIS",
+                2000, "KSC", 0, 0, null, 1, 0, "A").setRiskLevel("Severe"));   //Rejected off the store too
+        assertEquals("Moderate", catalog.row(42).getRiskLevel());
+
+        catalog.clearDirty(42);
+        assertFalse(catalog.isDirty(42));
+        assertEquals("Moderate", catalog.row(42).getRiskLevel());
+    }
+}
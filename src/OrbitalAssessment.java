@@ -0,0 +1,81 @@
+/**
+ * The rules a Scientist uses to assess space objects, kept in one place so that every store and
+ * engine (object lists, columnar arrays, parallel passes) reaches the same result.
+ *
+ * <p>Risk levels are also given compact codes so that column stores can keep them in a byte per row.</p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public final class OrbitalAssessment {
+    public static final byte RISK_UNASSESSED = 0;
+    public static final byte RISK_LOW = 1;
+    public static final byte RISK_MODERATE = 2;
+    public static final byte RISK_HIGH = 3;
+    private static final String[] RISK_LEVELS = {null, "Low", "Moderate", "High"};
+
+    public static final double HIGH_DRIFT = 50;
+    public static final double MODERATE_DRIFT = 10;
+    public static final int MAX_DAYS_OLD = 15000;
+
+    private OrbitalAssessment() {
+    }
+
+    /**
+     * Categorizes the orbital drift between the current and the average longitude
+     *
+     * @param longitude - The current longitude of the object
+     * @param averageLongitude - The long-term average longitude of the object
+     * @return RISK_HIGH for a drift of 50 or more, RISK_MODERATE for 10 or more, RISK_LOW otherwise
+     */
+    public static byte riskCode(double longitude, double averageLongitude) {
+        double orbitalDrift = Math.abs(longitude - averageLongitude);
+        if (orbitalDrift >= HIGH_DRIFT) {
+            return RISK_HIGH;
+        } else if (orbitalDrift >= MODERATE_DRIFT) {
+            return RISK_MODERATE;
+        }
+        return RISK_LOW;
+    }
+
+    /**
+     * Returns the risk level named by a code
+     *
+     * @return "Low", "Moderate", "High", or null for RISK_UNASSESSED
+     */
+    public static String riskLevel(byte code) {
+        return RISK_LEVELS[code];
+    }
+
+    /**
+     * Returns the code of a risk level name
+     *
+     * @param riskLevel - "Low", "Moderate", "High", or null
+     * @return The code of the risk level
+     * @throws IllegalArgumentException if the name is not one of those levels
+     */
+    public static byte riskCode(String riskLevel) {
+        if (riskLevel == null) {
+            return RISK_UNASSESSED;
+        }
+        for (byte code = RISK_LOW; code <= RISK_HIGH; code++) {
+            if (RISK_LEVELS[code].equals(riskLevel)) {
+                return code;
+            }
+        }
+        throw new IllegalArgumentException("Unknown risk level: " + riskLevel);
+    }
+
+    /**
+     * Decides whether an object is still in orbit. An object is considered out of orbit when it
+     * has never had a conjunction and either has no orbit type, has a longitude outside
+     * [-180, 180], or is at least 15000 days old.
+     *
+     * @return true if the object is still orbiting
+     */
+    public static boolean stillInOrbit(String orbitType, double longitude, int daysOld, long conjunctionCount) {
+        return !(((orbitType == null) || (longitude > 180) || (longitude < -180) || (daysOld >= MAX_DAYS_OLD))
+                 && (conjunctionCount == 0));
+    }
+}
@@ -0,0 +1,307 @@
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+/**
+ * Assesses the risk level and the orbit status of every object in a catalog in one fused pass,
+ * split across the threads of a fork-join pool. Each object is read once and both results are
+ * computed from the same read, instead of one sequential pass per assessment.
+ *
+ * <p>The catalog is cut into blocks of {@value #BLOCK_ROWS} rows whatever the number of threads,
+ * and every row is assessed on its own by the rules in {@link OrbitalAssessment}, so the results,
+ * the rows marked dirty and the returned {@link Summary} are identical for every thread count and
+ * every run. Blocks start on a multiple of 64 rows, so the rows whose assessment changed are
+ * collected into a bitmap in which no two threads share a word and are marked dirty once all
+ * blocks are done. Objects in a plain list are updated without touching any shared counter, and
+ * the assessment version of the catalog watching them is advanced once at the end, so workers
+ * never contend on a counter.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * ParallelAssessor.Summary summary = new ParallelAssessor(8).assess(manager.getRso_metrics());
+ * System.out.println(summary);
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class ParallelAssessor {
+    static final int BLOCK_ROWS = 1 << 14;                      //A multiple of 64, large enough to outweigh scheduling
+
+    private static final byte IN_ORBIT = 4;                     //Added to a risk code to also hold the orbit status
+
+    private final int threads;
+
+    /**
+     * Constructs an assessor that runs on the given number of threads
+     *
+     * @param threads - The number of worker threads, at least 1
+     */
+    public ParallelAssessor(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Assesses every object in a list. Lists viewing a {@link ColumnarCatalog} are assessed over its
+     * columns, and lists viewing another {@link CatalogStore} write their results back to the store.
+     *
+     * @param objects - The objects to assess
+     * @return How many objects fell into each risk level and orbit status
+     */
+    public Summary assess(List<SpaceObject> objects) {
+        if (objects instanceof CatalogListView) {
+            CatalogStore store = ((CatalogListView) objects).getStore();
+            if (store instanceof ColumnarCatalog) {
+                return assess((ColumnarCatalog) store);
+            }
+            return assess(store);
+        }
+        SpaceObject[] rows = objects.toArray(new SpaceObject[0]);
+        return run(rows.length, (from, to, changed) -> assessObjects(rows, from, to, changed),
+                   changed -> advanceVersions(rows, changed));
+    }
+
+    /**
+     * Advances the assessment version watching the changed objects, once per version rather than
+     * once per object
+     */
+    private static void advanceVersions(SpaceObject[] rows, long[] changed) {
+        Set<AtomicLong> advanced = new HashSet<>();
+        for (int word = 0; word < changed.length; word++) {
+            for (long bits = changed[word]; bits != 0; bits &= bits - 1) {
+                AtomicLong version = rows[(word << 6) + Long.numberOfTrailingZeros(bits)].getAssessmentVersion();
+                if (version != null && advanced.add(version)) {
+                    version.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Assesses every row of a columnar catalog, marking the rows whose assessment changed as dirty
+     *
+     * @param catalog - The catalog to assess
+     * @return How many rows fell into each risk level and orbit status
+     */
+    public Summary assess(ColumnarCatalog catalog) {
+        return run(catalog.size(), catalog::assessRows, catalog::markDirty);
+    }
+
+    /**
+     * Assesses every row of any other store. Rows are read in parallel, and the results are
+     * written back to the store on the calling thread, since stores are not safe for concurrent writes.
+     */
+    private Summary assess(CatalogStore store) {
+        byte[] results = new byte[store.size()];
+        Summary summary = run(results.length, (from, to, changed) -> assessStoreRows(store, results, from, to), changed -> { });
+        for (int row = 0; row < results.length; row++) {
+            byte result = results[row];
+            store.setRiskCode(row, (byte) (result & ~IN_ORBIT));
+            store.setStillInOrbit(row, (result & IN_ORBIT) != 0);
+        }
+        return summary;
+    }
+
+    private Summary run(int rows, Block block, Marker marker) {
+        long[] changed = new long[(rows + 63) >>> 6];
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            int blocks = (rows + BLOCK_ROWS - 1) / BLOCK_ROWS;
+            Summary summary = blocks == 0 ? new Summary() : pool.invoke(new BlockTask(block, rows, changed, 0, blocks));
+            marker.mark(changed);
+            return summary;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Summary assessObjects(SpaceObject[] rows, int from, int to, long[] changed) {
+        Summary summary = new Summary();
+        for (int row = from; row < to; row++) {
+            SpaceObject object = rows[row];
+            byte risk = OrbitalAssessment.riskCode(object.getLongitude(), object.getAverageLongitude());
+            boolean orbiting = OrbitalAssessment.stillInOrbit(object.getOrbitType(), object.getLongitude(),
+                                                               object.getDaysOld(), object.getConjunctionCount());
+            String riskLevel = OrbitalAssessment.riskLevel(risk);
+            if (!riskLevel.equals(object.getRiskLevel()) || orbiting != object.isStillInOrbit()) {
+                object.updateAssessment(riskLevel, orbiting);
+                changed[row >>> 6] |= 1L << row;
+                summary.changed++;
+            }
+            summary.count(risk, orbiting);
+        }
+        return summary;
+    }
+
+    private static Summary assessStoreRows(CatalogStore store, byte[] results, int from, int to) {
+        Summary summary = new Summary();
+        for (int row = from; row < to; row++) {
+            SpaceObject object = store.row(row);
+            byte risk = OrbitalAssessment.riskCode(object.getLongitude(), object.getAverageLongitude());
+            boolean orbiting = OrbitalAssessment.stillInOrbit(object.getOrbitType(), object.getLongitude(),
+                                                               object.getDaysOld(), object.getConjunctionCount());
+            results[row] = (byte) (orbiting ? risk | IN_ORBIT : risk);
+            if (risk != OrbitalAssessment.riskCode(object.getRiskLevel()) || orbiting != object.isStillInOrbit()) {
+                summary.changed++;
+            }
+            summary.count(risk, orbiting);
+        }
+        return summary;
+    }
+
+    /**
+     * Assesses rows [from, to), recording changed rows in a bitmap and returning their tally
+     */
+    interface Block {
+        Summary assess(int from, int to, long[] changed);
+    }
+
+    /**
+     * Applies the bitmap of changed rows once every block is done
+     */
+    private interface Marker {
+        void mark(long[] changed);
+    }
+
+    /**
+     * Assesses a run of consecutive blocks, splitting the run in half until a single block remains
+     */
+    private static class BlockTask extends RecursiveTask<Summary> {
+        private static final long serialVersionUID = 1L;
+
+        private final Block block;
+        private final int rows;
+        private final long[] changed;
+        private final int first;
+        private final int last;
+
+        BlockTask(Block block, int rows, long[] changed, int first, int last) {
+            this.block = block;
+            this.rows = rows;
+            this.changed = changed;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected Summary compute() {
+            if (last - first == 1) {
+                return block.assess(first * BLOCK_ROWS, (int) Math.min(rows, (long) (first + 1) * BLOCK_ROWS), changed);
+            }
+            int mid = (first + last) >>> 1;
+            BlockTask right = new BlockTask(block, rows, changed, mid, last);
+            right.fork();
+            Summary summary = new BlockTask(block, rows, changed, first, mid).compute();
+            summary.add(right.join());
+            return summary;
+        }
+    }
+
+    /**
+     * How many objects an assessment placed in each risk level and orbit status, and how many of
+     * them changed
+     */
+    public static class Summary {
+        long low;
+        long moderate;
+        long high;
+        long inOrbit;
+        long changed;
+        long rows;
+
+        /**
+         * Counts one assessed row
+         */
+        void count(byte risk, boolean orbiting) {
+            rows++;
+            if (risk == OrbitalAssessment.RISK_HIGH) {
+                high++;
+            } else if (risk == OrbitalAssessment.RISK_MODERATE) {
+                moderate++;
+            } else {
+                low++;
+            }
+            if (orbiting) {
+                inOrbit++;
+            }
+        }
+
+        void add(Summary other) {
+            low += other.low;
+            moderate += other.moderate;
+            high += other.high;
+            inOrbit += other.inOrbit;
+            changed += other.changed;
+            rows += other.rows;
+        }
+
+        /**
+         * Returns the number of objects assessed
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        /**
+         * Returns the number of objects assessed at a risk level
+         *
+         * @param riskCode - RISK_LOW, RISK_MODERATE or RISK_HIGH from {@link OrbitalAssessment}
+         */
+        public long getRiskCount(byte riskCode) {
+            switch (riskCode) {
+                case OrbitalAssessment.RISK_LOW:
+                    return low;
+                case OrbitalAssessment.RISK_MODERATE:
+                    return moderate;
+                case OrbitalAssessment.RISK_HIGH:
+                    return high;
+                default:
+                    return 0;
+            }
+        }
+
+        /**
+         * Returns the number of objects assessed as still in orbit
+         */
+        public long getInOrbitCount() {
+            return inOrbit;
+        }
+
+        /**
+         * Returns the number of objects whose risk level or orbit status changed
+         */
+        public long getChangedCount() {
+            return changed;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Summary)) {
+                return false;
+            }
+            Summary other = (Summary) o;
+            return low == other.low && moderate == other.moderate && high == other.high
+                   && inOrbit == other.inOrbit && changed == other.changed && rows == other.rows;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(low, moderate, high, inOrbit, changed, rows);
+        }
+
+        @Override
+        public String toString() {
+            return rows + " objects assessed: " + low + " Low, " + moderate + " Moderate, " + high + " High risk; "
+                   + inOrbit + " still in orbit; " + changed + " updated";
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ParallelAssessorTest {
+    private static final int KINDS = 8;
+    private static final String[] ORBITS = {"LEO", "GEO", "LEO", null, "LEO", "GEO", "LEO", null};
+    private static final double[] LONGITUDES = {10, -20, 170, 45, 200, -200, -100, 0};
+    private static final double[] AVERAGE_LONGITUDES = {10, -35, 100, 50, 195, -140, -88, 50.5};
+    private static final int[] DAYS_OLD = {100, 100, 15000, 100, 100, 100, 14999, 20000};
+    private static final long[] CONJUNCTIONS = {0, 0, 0, 0, 0, 2, 0, 1};
+
+    //The assessment of each kind of row, worked out by hand from the rules
+    private static final String[] RISK_LEVELS = {"Low", "Moderate", "High", "Low", "Low", "High", "Moderate", "High"};
+    private static final boolean[] STILL_IN_ORBIT = {true, true, false, false, false, true, true, true};
+
+    /**
+     * Builds unassessed objects where row i is kind i % 8, so together they fall on both sides of
+     * every assessment rule
+     */
+    private static List<SpaceObject> catalog(int size) {
+        List<SpaceObject> objects = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int kind = i % KINDS;
+            objects.add(new SpaceObject(String.valueOf(i), "Sat-" + i, "USA", ORBITS[kind], "DEBRIS", 2000, "KSC",
+                                        LONGITUDES[kind], AVERAGE_LONGITUDES[kind], "9q8yy", DAYS_OLD[kind],
+                                        CONJUNCTIONS[kind], "A"));
+        }
+        return objects;
+    }
+
+    @Test
+    void testEveryThreadCountGivesTheExpectedAssessment() {
+        int size = ParallelAssessor.BLOCK_ROWS * 2 + 100;      //Spans several blocks, ending in a partial one
+        ParallelAssessor.Summary first = null;
+        for (int threads : new int[] {1, 3, 8}) {
+            List<SpaceObject> objects = catalog(size);
+            ColumnarCatalog columns = ColumnarCatalog.from(catalog(size), new CatalogDictionaries());
+            ParallelAssessor assessor = new ParallelAssessor(threads);
+            ParallelAssessor.Summary summary = assessor.assess(objects);
+            assertEquals(summary, assessor.assess(columns.asList()));
+            if (first == null) {
+                first = summary;
+            }
+            assertEquals(first, summary);
+            assertEquals(size, summary.getRows());
+
+            for (int row = 0; row < size; row++) {
+                int kind = row % KINDS;
+                assertEquals(RISK_LEVELS[kind], objects.get(row).getRiskLevel());
+                assertEquals(STILL_IN_ORBIT[kind], objects.get(row).isStillInOrbit());
+                assertEquals(RISK_LEVELS[kind], OrbitalAssessment.riskLevel(columns.getRiskCode(row)));
+                assertEquals(STILL_IN_ORBIT[kind], columns.isStillInOrbit(row));
+                assertTrue(columns.isDirty(row));                 //Every row started unassessed
+            }
+            assertEquals(0, assessor.assess(objects).getChangedCount());
+        }
+        int perKind = size / KINDS;                //size % 8 == 4, so kinds 0 to 3 have one more row
+        assertEquals(3 * perKind + 2, first.getRiskCount(OrbitalAssessment.RISK_LOW));
+        assertEquals(2 * perKind + 1, first.getRiskCount(OrbitalAssessment.RISK_MODERATE));
+        assertEquals(3 * perKind + 1, first.getRiskCount(OrbitalAssessment.RISK_HIGH));
+        assertEquals(5 * perKind + 2, first.getInOrbitCount());
+    }
+
+    @Test
+    void testOnlyChangedRowsAreMarkedDirty() {
+        List<SpaceObject> objects = catalog(1000);
+        for (int row = 0; row < 500; row++) {
+            int kind = row % KINDS;
+            objects.get(row).setRiskLevel(RISK_LEVELS[kind]);
+            objects.get(row).setStillInOrbit(STILL_IN_ORBIT[kind]);
+        }
+        ColumnarCatalog columns = ColumnarCatalog.from(objects, new CatalogDictionaries());
+        OffHeapCatalog offHeap = new OffHeapCatalog(new CatalogDictionaries());
+        objects.forEach(offHeap::add);
+
+        for (CatalogStore store : new CatalogStore[] {columns, offHeap}) {
+            for (int row = 0; row < 500; row++) {
+                assertFalse(store.isDirty(row));
+            }
+            ParallelAssessor.Summary summary = new ParallelAssessor(4).assess(store.asList());
+            assertEquals(500, summary.getChangedCount());    //Every unassessed row gains a risk level
+            int dirty = 0;
+            for (int row = store.nextDirtyRow(0); row >= 0; row = store.nextDirtyRow(row + 1)) {
+                assertTrue(row >= 500, "Row " + row + " was already assessed");
+                dirty++;
+            }
+            assertEquals(summary.getChangedCount(), dirty);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+/**
+ * Loads a CSV file of Space Objects on several threads. The data after the header is split into
+ * byte ranges that each start and end on a record boundary, every range is parsed through its own
+ * {@link MappedCsvReader} on a fork-join pool, and the partial lists are concatenated once, in file
+ * order, into a list sized for every row.
+ *
+ * <p>Records never span lines ({@link CSVParser#parseLine(String)} is applied one line at a time,
+ * so a quoted comma can never hide a line break), which means the byte after any line terminator is
+ * a safe place to split.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * List&lt;SpaceObject&gt; entries = new ParallelCsvLoader(8).load(Path.of("rso_metrics.csv"));
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class ParallelCsvLoader {
+    private static final long MIN_CHUNK_SIZE = 1L << 20;        //Smaller chunks cost more to schedule than to parse
+    private static final int CHUNKS_PER_THREAD = 4;             //Extra chunks even out uneven row lengths
+
+    private final int threads;
+    private final ParseErrorPolicy policy;
+    private final CatalogDictionaries dictionaries;
+    private RowBinder binder;
+
+    /**
+     * Constructs a loader that parses with the given number of threads
+     *
+     * @param threads - The number of worker threads, at least 1
+     */
+    public ParallelCsvLoader(int threads) {
+        this(threads, new ParseErrorPolicy(), new CatalogDictionaries());
+    }
+
+    /**
+     * Constructs a loader that parses with the given number of threads and
+     * handles malformed numeric cells with the given policy
+     *
+     * @param threads - The number of worker threads, at least 1
+     * @param policy - Decides what happens to rows with malformed numeric cells
+     * @param dictionaries - The dictionaries that low-cardinality columns are interned through
+     */
+    public ParallelCsvLoader(int threads, ParseErrorPolicy policy, CatalogDictionaries dictionaries) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.threads = threads;
+        this.policy = policy;
+        this.dictionaries = dictionaries;
+    }
+
+    /**
+     * Returns the column layout of the most recently loaded file
+     */
+    public RowBinder getBinder() {
+        return binder;
+    }
+
+    /**
+     * Parses every record in the file into a Space Object
+     *
+     * @param file - The CSV file, beginning with a header line
+     * @return The Space Objects in the same order as the records in the file
+     */
+    public List<SpaceObject> load(Path file) throws IOException {
+        long dataStart;
+        RowBinder rowBinder;
+        try (MappedCsvReader headerReader = MappedCsvReader.open(file)) {
+            rowBinder = RowBinder.compile(headerReader.readHeader(), policy, dictionaries);
+            dataStart = headerReader.position();
+        }
+        binder = rowBinder;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = splitPoints(channel, dataStart, channel.size());
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            List<List<SpaceObject>> chunks = new ArrayList<>(Collections.nCopies(bounds.length - 1, null));
+            try {
+                pool.invoke(new ChunkTask(channel, bounds, rowBinder, chunks, 0, bounds.length - 1));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                Throwable cause = e.getCause();                 //Fork-join rethrows worker failures as a copy wrapping the original
+                throw cause != null && cause.getClass() == e.getClass() ? (RuntimeException) cause : e;
+            } finally {
+                pool.shutdown();
+            }
+            int rows = 0;
+            for (List<SpaceObject> chunk : chunks) {
+                rows += chunk.size();
+            }
+            List<SpaceObject> entries = new ArrayList<>(rows);
+            for (List<SpaceObject> chunk : chunks) {
+                entries.addAll(chunk);
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Divides [start, end) into ranges which each begin right after a line terminator
+     *
+     * @return The range boundaries in ascending order, from start to end inclusive
+     */
+    private long[] splitPoints(FileChannel channel, long start, long end) throws IOException {
+        long length = end - start;
+        int chunks = (int) Math.max(1, Math.min((long) threads * CHUNKS_PER_THREAD, length / MIN_CHUNK_SIZE));
+        List<Long> points = new ArrayList<>();
+        points.add(start);
+        for (int i = 1; i < chunks; i++) {
+            long boundary = nextRecordStart(channel, start + length * i / chunks, end);
+            if (boundary > points.get(points.size() - 1) && boundary < end) {
+                points.add(boundary);
+            }
+        }
+        points.add(end);
+
+        long[] bounds = new long[points.size()];
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = points.get(i);
+        }
+        return bounds;
+    }
+
+    /**
+     * Finds the offset just past the first line terminator at or after the given offset
+     */
+    private static long nextRecordStart(FileChannel channel, long offset, long end) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+        long pos = offset;
+        boolean sawCarriageReturn = false;
+        while (pos < end) {
+            buf.clear();
+            int read = channel.read(buf, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buf.get(i);
+                if (sawCarriageReturn) {
+                    return b == '\n' ? pos + i + 1 : pos + i;
+                }
+                if (b == '\n') {
+                    return pos + i + 1;
+                }
+                sawCarriageReturn = b == '\r';
+            }
+            pos += read;
+        }
+        return end;
+    }
+
+    /**
+     * Parses a run of consecutive chunks, splitting the run in half until a single chunk remains.
+     * Each chunk's objects are stored at the chunk's index so the caller can join them in file order.
+     */
+    private static class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final RowBinder binder;
+        private final List<List<SpaceObject>> chunks;
+        private final int first;
+        private final int last;
+
+        ChunkTask(FileChannel channel, long[] bounds, RowBinder binder, List<List<SpaceObject>> chunks,
+                  int first, int last) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.binder = binder;
+            this.chunks = chunks;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected void compute() {
+            if (last - first == 1) {
+                chunks.set(first, parseChunk());                //Each task writes only its own slot
+                return;
+            }
+            int mid = (first + last) >>> 1;
+            invokeAll(new ChunkTask(channel, bounds, binder, chunks, first, mid),
+                      new ChunkTask(channel, bounds, binder, chunks, mid, last));
+        }
+
+        private List<SpaceObject> parseChunk() {
+            List<SpaceObject> entries = new ArrayList<>();
+            try (MappedCsvReader reader = new MappedCsvReader(channel, bounds[first], bounds[last], false)) {
+                while (reader.nextRecord()) {
+                    SpaceObject object = binder.bind(reader);
+                    if (object != null) {                       //Rows with malformed cells may be skipped
+                        entries.add(object);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return entries;
+        }
+    }
+}
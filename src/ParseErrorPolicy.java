@@ -0,0 +1,115 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+/**
+ * Decides what happens when a numeric cell in rso_metrics.csv cannot be parsed, and keeps a record
+ * of every cell that could not. By default the offending row is skipped and the load carries on.
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * ParseErrorPolicy policy = new ParseErrorPolicy(ParseErrorPolicy.Action.USE_DEFAULT);
+ * policy.setDefault(RowBinder.Column.LAUNCH_YEAR, 1957);
+ * parser.setParseErrorPolicy(policy);
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class ParseErrorPolicy {
+    private static final int MAX_RECORDED_ERRORS = 100;        //Only the first errors are kept to bound memory use
+
+    /**
+     * What to do with a row that has a malformed numeric cell
+     */
+    public enum Action {
+        USE_DEFAULT,                                            //Replace the cell with the column's default value
+        SKIP_ROW,                                               //Leave the row out of the catalog
+        FAIL                                                    //Abort the load with a NumberFormatException
+    }
+
+    private final Action action;
+    private final Map<RowBinder.Column, Double> defaults = new EnumMap<>(RowBinder.Column.class);
+    private final AtomicLong errorCount = new AtomicLong();
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Constructs a policy that skips rows with malformed cells
+     */
+    public ParseErrorPolicy() {
+        this(Action.SKIP_ROW);
+    }
+
+    /**
+     * Constructs a policy with the given action. Defaults for every column start at 0.
+     *
+     * @param action - What to do with a row that has a malformed numeric cell
+     */
+    public ParseErrorPolicy(Action action) {
+        this.action = action;
+    }
+
+    /**
+     * Sets the value used in place of a malformed cell when the action is USE_DEFAULT
+     *
+     * @param column - The numeric column
+     * @param value - The value to substitute
+     */
+    public void setDefault(RowBinder.Column column, double value) {
+        defaults.put(column, value);
+    }
+
+    /**
+     * Returns the value used in place of a malformed cell in the given column
+     */
+    public double getDefault(RowBinder.Column column) {
+        Double value = defaults.get(column);
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * Returns what to do with a row that has a malformed numeric cell
+     */
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * Records a malformed cell, or throws if the action is FAIL
+     *
+     * @param column - The column of the malformed cell
+     * @param value - The text of the cell
+     * @param location - A description of where the row is in the file
+     */
+    void reportError(RowBinder.Column column, String value, String location) {
+        MetricsRegistry.global().counter("csv.parse_errors").increment();
+        String message = location + ": invalid " + column.getHeader() + " '" + value + "'";
+        if (action == Action.FAIL) {
+            throw new NumberFormatException(message);
+        }
+        if (errorCount.incrementAndGet() <= MAX_RECORDED_ERRORS) {
+            errors.add(message);
+        }
+    }
+
+    /**
+     * Returns how many malformed cells have been reported
+     */
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    /**
+     * Returns a description of the first malformed cells that were reported
+     */
+    public List<String> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.util.Iterator;
+import java.util.Scanner;
+import java.util.stream.Stream;
+/**
+ * Displays large sets of matching space objects on a console. Each object is formatted straight
+ * into the reusable buffer of a {@link CsvRecordWriter}, without String.format, and the text reaches
+ * the stream in blocks of up to a megabyte instead of one flushed line at a time.
+ *
+ * <p>A renderer shows either every object, pages of objects with a prompt between them, or only
+ * how many objects matched. Every mode ends with that count, and objects left after the user stops
+ * paging are counted without being formatted.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * ResultRenderer renderer = new ResultRenderer(System.out, ResultRenderer.Mode.PAGED, 50, scanner);
+ * scientist.trackObjectsInSpace("DEBRIS", renderer);
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class ResultRenderer {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    private final PrintStream out;
+    private final Mode mode;
+    private final int pageSize;
+    private final Scanner input;
+    private CsvRecordWriter writer;                             //Created on first use and reused for every render
+
+    /**
+     * How much of a result to show
+     */
+    public enum Mode {
+        ALL,                                                    //Every object
+        PAGED,                                                  //A page at a time, asking before the next
+        COUNT                                                   //Only how many matched
+    }
+
+    /**
+     * Writes one object, without a line separator
+     */
+    public interface Format {
+        void write(SpaceObject object, CsvRecordWriter out) throws IOException;
+    }
+
+    /**
+     * Constructs a renderer that shows every object
+     *
+     * @param out - The stream to display on
+     */
+    public ResultRenderer(PrintStream out) {
+        this(out, Mode.ALL, DEFAULT_PAGE_SIZE, null);
+    }
+
+    /**
+     * Constructs a renderer
+     *
+     * @param out - The stream to display on
+     * @param mode - How much of each result to show
+     * @param pageSize - The objects shown on each page in PAGED mode
+     * @param input - Where the answer to each page's prompt is read from in PAGED mode
+     */
+    public ResultRenderer(PrintStream out, Mode mode, int pageSize, Scanner input) {
+        if (mode == Mode.PAGED && (pageSize < 1 || input == null)) {
+            throw new IllegalArgumentException("Paging needs a positive page size and an input to prompt from");
+        }
+        this.out = out;
+        this.mode = mode;
+        this.pageSize = pageSize;
+        this.input = input;
+    }
+
+    /**
+     * Displays the objects of a stream as this renderer's mode says, followed by how many there were.
+     * The stream is consumed but not closed.
+     *
+     * @param objects - The objects to display
+     * @param format - Writes each object
+     * @return How many objects the stream held
+     */
+    public long render(Stream<SpaceObject> objects, Format format) {
+        long count;
+        if (mode == Mode.COUNT) {
+            count = objects.count();                            //Sized streams are counted without reading the objects
+        } else {
+            count = renderObjects(objects.iterator(), format);
+        }
+        out.println(count + (count == 1 ? " matching object" : " matching objects"));
+        return count;
+    }
+
+    private long renderObjects(Iterator<SpaceObject> objects, Format format) {
+        long count = 0;
+        try {
+            CsvRecordWriter text = writer();
+            while (objects.hasNext()) {
+                format.write(objects.next(), text);
+                text.newLine();
+                count++;
+                if (mode == Mode.PAGED && count % pageSize == 0 && objects.hasNext()) {
+                    text.flush();
+                    out.print("-- " + count + " shown. Press Enter for more or Q to stop: ");
+                    if (input.nextLine().trim().equalsIgnoreCase("q")) {
+                        while (objects.hasNext()) {
+                            objects.next();
+                            count++;
+                        }
+                    }
+                }
+            }
+            text.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the writer over the stream. It is never closed, since closing it would close the stream.
+     */
+    private CsvRecordWriter writer() {
+        if (writer == null) {
+            writer = new CsvRecordWriter(Channels.newChannel(out));
+        }
+        return writer;
+    }
+}
@@ -0,0 +1,57 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+public class ResultRendererTest {
+
+    private static List<SpaceObject> catalog(int size) {
+        List<SpaceObject> objects = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            objects.add(new SpaceObject(String.valueOf(i), "Sat, " + i, "USA", i % 2 == 0 ? "LEO" : null,
+                                        "DEBRIS", 2000 + i, "KSC", -12.3456789 * i, 45.5 + i / 3.0, "9q8yy",
+                                        100 + i, i * 7L, "A"));
+        }
+        return objects;
+    }
+
+    @Test
+    void testAllModeMatchesPrintingEachObject() {
+        List<SpaceObject> objects = catalog(500);
+        ByteArrayOutputStream rendered = new ByteArrayOutputStream();
+        ResultRenderer renderer = new ResultRenderer(new PrintStream(rendered, true));
+        assertEquals(500, renderer.render(objects.stream(), SpaceObject::writeDisplay));
+        assertEquals(500, renderer.render(objects.stream(), SpaceObject::writeImpactDisplay));
+
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        PrintStream expected = new PrintStream(printed, true);
+        objects.forEach(expected::println);
+        expected.println("500 matching objects");
+        objects.forEach(object -> expected.println(object.toImpactDisplay()));
+        expected.println("500 matching objects");
+        assertEquals(printed.toString(), rendered.toString());
+    }
+
+    @Test
+    void testPagingStopsOnRequestAndCountOnlyPrintsNoObjects() {
+        List<SpaceObject> objects = catalog(25);
+        ByteArrayOutputStream paged = new ByteArrayOutputStream();
+        ResultRenderer pager = new ResultRenderer(new PrintStream(paged, true), ResultRenderer.Mode.PAGED, 10,
+                                                  new Scanner("\nq\n"));
+        assertEquals(25, pager.render(objects.stream(), SpaceObject::writeDisplay));
+        String output = paged.toString();
+        assertTrue(output.contains(objects.get(19).toString()));
+        assertFalse(output.contains(objects.get(20).toString()));
+        assertTrue(output.contains("-- 20 shown."));
+        assertTrue(output.endsWith("25 matching objects" + System.lineSeparator()));
+
+        ByteArrayOutputStream counted = new ByteArrayOutputStream();
+        ResultRenderer counter = new ResultRenderer(new PrintStream(counted, true), ResultRenderer.Mode.COUNT, 10, null);
+        assertEquals(25, counter.render(objects.stream(), SpaceObject::writeDisplay));
+        assertEquals("25 matching objects" + System.lineSeparator(), counted.toString());
+    }
+}
@@ -0,0 +1,251 @@
+import java.util.List;
+/**
+ * Binds the columns of one CSV header to the fields of a Space Object. The header is resolved once
+ * into a fixed table of column indexes, so building a Space Object from a row is a plain array lookup
+ * per field instead of a lower-cased String and a hash lookup.
+ *
+ * <p>Each parsed file gets its own binder, which lets files with different column orders be read
+ * at the same time.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * RowBinder binder = RowBinder.compile(CSVParser.parseLine(headerLine));
+ * SpaceObject object = binder.bind(CSVParser.parseLine(line));
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class RowBinder {
+    /**
+     * The CSV columns a Space Object is built from, with their header names
+     */
+    public enum Column {
+        RECORD_ID("record_id"),
+        SATELLITE_NAME("satellite_name"),
+        COUNTRY("country"),
+        ORBIT_TYPE("approximate_orbit_type"),
+        OBJECT_TYPE("object_type"),
+        LAUNCH_YEAR("launch_year"),
+        LAUNCH_SITE("launch_site"),
+        LONGITUDE("longitude"),
+        AVG_LONGITUDE("avg_longitude"),
+        GEOHASH("geohash"),
+        HRR_CATEGORY("HRR_Category"),
+        DAYS_OLD("days_old"),
+        CONJUNCTION_COUNT("conjunction_count");
+
+        private final String header;
+
+        Column(String header) {
+            this.header = header;
+        }
+
+        /**
+         * Returns the header name of this column as it appears in rso_metrics.csv
+         */
+        public String getHeader() {
+            return header;
+        }
+    }
+
+    /**
+     * Thrown to abandon a row whose malformed cell the policy says to skip. A single
+     * instance without a stack trace is reused since it never escapes this class.
+     */
+    private static final class SkipRowException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        SkipRowException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final SkipRowException SKIP_ROW = new SkipRowException();
+    private static final Column[] COLUMNS = Column.values();
+    private final int[] indexes;
+    private final ParseErrorPolicy policy;
+    private final CatalogDictionaries dictionaries;
+
+    private RowBinder(int[] indexes, ParseErrorPolicy policy, CatalogDictionaries dictionaries) {
+        this.indexes = indexes;
+        this.policy = policy;
+        this.dictionaries = dictionaries;
+    }
+
+    /**
+     * Resolves a header line into a binder. Header names are matched without regard to case,
+     * and a Byte Order Marker at the start of the first header is ignored.
+     *
+     * @param headerFields - The parsed header line
+     * @return A binder for rows laid out like the header
+     */
+    public static RowBinder compile(List<String> headerFields) {
+        return compile(headerFields, new ParseErrorPolicy(), new CatalogDictionaries());
+    }
+
+    /**
+     * Resolves a header line into a binder that handles malformed numeric cells with the given policy
+     * and shares the values of low-cardinality columns through the given dictionaries
+     *
+     * @param headerFields - The parsed header line
+     * @param policy - Decides what happens to rows with malformed numeric cells
+     * @param dictionaries - The dictionaries for country, orbit type, object type, launch site and HRR category
+     * @return A binder for rows laid out like the header
+     */
+    public static RowBinder compile(List<String> headerFields, ParseErrorPolicy policy,
+                                    CatalogDictionaries dictionaries) {
+        int[] indexes = new int[COLUMNS.length];
+        for (int c = 0; c < COLUMNS.length; c++) {
+            indexes[c] = -1;
+            for (int i = 0; i < headerFields.size(); i++) {
+                String header = headerFields.get(i);
+                if (i == 0 && header.startsWith("\uFEFF")) {
+                    header = header.substring(1);
+                }
+                if (header.trim().equalsIgnoreCase(COLUMNS[c].header)) {
+                    indexes[c] = i;
+                    break;
+                }
+            }
+        }
+        return new RowBinder(indexes, policy, dictionaries);
+    }
+
+    /**
+     * Returns the index of a column in the bound header
+     *
+     * @return The column index, or -1 if the header has no such column
+     */
+    public int index(Column column) {
+        return indexes[column.ordinal()];
+    }
+
+    /**
+     * Retrieves the value of a column from a parsed row
+     *
+     * @param fields - A row parsed by {@link CSVParser#parseLine(String)}
+     * @return The value of the column, or an empty String if the row or header lacks it
+     */
+    public String get(List<String> fields, Column column) {
+        int index = indexes[column.ordinal()];
+        if (index < 0 || index >= fields.size()) {
+            return "";
+        }
+        return fields.get(index);
+    }
+
+    /**
+     * Creates a new Space Object from a parsed row
+     *
+     * @param fields - A row parsed by {@link CSVParser#parseLine(String)}
+     * @return A new Space Object with the given attributes, or null if the row was skipped
+     *         because of a malformed numeric cell
+     */
+    public SpaceObject bind(List<String> fields) {
+        return bind(new CsvRecord() {
+            @Override
+            public String field(int index) {
+                return index < 0 || index >= fields.size() ? "" : fields.get(index);
+            }
+
+            @Override
+            public long longField(int index) {
+                return Long.parseLong(field(index));
+            }
+
+            @Override
+            public double doubleField(int index) {
+                return Double.parseDouble(field(index));
+            }
+        });
+    }
+
+    /**
+     * Creates a new Space Object from a record, decoding only the columns that the Space Object stores.
+     * Numeric columns are parsed by the record itself, so a mapped record never builds a String for them.
+     *
+     * @param record - The record to read, such as a {@link MappedCsvReader} positioned on a record
+     * @return A new Space Object with the given attributes, or null if the row was skipped
+     *         because of a malformed numeric cell
+     */
+    public SpaceObject bind(CsvRecord record) {
+        String recordID = get(record, Column.RECORD_ID);
+        try {
+            return new SpaceObject(recordID, get(record, Column.SATELLITE_NAME),
+                    interned(record, Column.COUNTRY), interned(record, Column.ORBIT_TYPE),
+                    interned(record, Column.OBJECT_TYPE), intValue(record, Column.LAUNCH_YEAR, recordID),
+                    interned(record, Column.LAUNCH_SITE), doubleValue(record, Column.LONGITUDE, recordID),
+                    doubleValue(record, Column.AVG_LONGITUDE, recordID), get(record, Column.GEOHASH),
+                    intValue(record, Column.DAYS_OLD, recordID), longValue(record, Column.CONJUNCTION_COUNT, recordID),
+                    interned(record, Column.HRR_CATEGORY));
+        } catch (SkipRowException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Decodes the value of a column from a record
+     *
+     * @return The value of the column, or an empty String if the record or header lacks it
+     */
+    public String get(CsvRecord record, Column column) {
+        return record.field(indexes[column.ordinal()]);
+    }
+
+    /**
+     * Decodes a low-cardinality column as the shared instance held by its dictionary
+     */
+    private String interned(CsvRecord record, Column column) {
+        return record.internedField(indexes[column.ordinal()], dictionaries.forColumn(column));
+    }
+
+    /**
+     * Returns the dictionaries that low-cardinality columns are interned through
+     */
+    public CatalogDictionaries getDictionaries() {
+        return dictionaries;
+    }
+
+    private int intValue(CsvRecord record, Column column, String recordID) {
+        try {
+            long value = record.longField(indexes[column.ordinal()]);
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("out of range: " + value);
+            }
+            return (int) value;
+        } catch (NumberFormatException e) {
+            return (int) recover(record, column, recordID);
+        }
+    }
+
+    private long longValue(CsvRecord record, Column column, String recordID) {
+        try {
+            return record.longField(indexes[column.ordinal()]);
+        } catch (NumberFormatException e) {
+            return (long) recover(record, column, recordID);
+        }
+    }
+
+    private double doubleValue(CsvRecord record, Column column, String recordID) {
+        try {
+            return record.doubleField(indexes[column.ordinal()]);
+        } catch (NumberFormatException e) {
+            return recover(record, column, recordID);
+        }
+    }
+
+    /**
+     * Reports a malformed cell to the policy and either abandons the row or returns the column's default
+     */
+    private double recover(CsvRecord record, Column column, String recordID) {
+        policy.reportError(column, get(record, column), "record_id " + recordID);
+        if (policy.getAction() == ParseErrorPolicy.Action.SKIP_ROW) {
+            throw SKIP_ROW;
+        }
+        return policy.getDefault(column);
+    }
+}
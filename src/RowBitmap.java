@@ -0,0 +1,473 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+/**
+ * A compressed set of row numbers in the style of a roaring bitmap. Rows are grouped into
+ * chunks of 65536 by their upper 16 bits, and each chunk is stored in whichever form is smaller:
+ * a sorted array of the lower 16 bits while it holds at most 4096 rows, or a 65536-bit bitmap
+ * once it holds more. Sparse results therefore cost two bytes per row and dense ones one bit,
+ * and AND, OR and AND NOT work a chunk at a time without touching absent chunks.
+ *
+ * <p>A bitmap never changes once built, so results may share chunks with their operands and a
+ * cached bitmap can be handed to any number of callers. Bitmaps are built with a {@link Builder},
+ * which is fastest when rows arrive in ascending order.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * RowBitmap leo = new RowBitmap.Builder().add(1).add(5).add(70000).build();
+ * RowBitmap old = RowBitmap.range(0, 10);
+ * int[] rows = leo.and(old).toArray();                        // {1, 5}
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class RowBitmap {
+    private static final int ARRAY_LIMIT = 4096;                //Largest chunk kept as an array
+    private static final int WORDS = 1024;                      //Longs in a chunk bitmap
+
+    private char[] keys = new char[4];                          //Upper 16 bits of each chunk, ascending
+    private Chunk[] chunks = new Chunk[4];
+    private int chunkCount;
+
+    /**
+     * Creates a bitmap holding the given rows
+     *
+     * @param rows - Non-negative row numbers, in any order
+     * @return The bitmap of the rows
+     */
+    public static RowBitmap of(int... rows) {
+        Builder builder = new Builder();
+        for (int row : rows) {
+            builder.add(row);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates a bitmap holding the rows set in a bit set
+     */
+    public static RowBitmap of(BitSet rows) {
+        Builder builder = new Builder();
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            builder.add(row);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates a bitmap holding every row from one number up to another
+     *
+     * @param from - The first row, inclusive
+     * @param to - The last row, exclusive
+     * @return The bitmap of the rows
+     */
+    public static RowBitmap range(int from, int to) {
+        RowBitmap bitmap = new RowBitmap();
+        if (from < 0 || to <= from) {
+            return bitmap;
+        }
+        for (int high = from >>> 16; high <= (to - 1) >>> 16; high++) {
+            int low = Math.max(from, high << 16) & 0xFFFF;
+            int end = Math.min(to - 1, (high << 16) | 0xFFFF) & 0xFFFF;
+            Chunk chunk;
+            if (end - low + 1 <= ARRAY_LIMIT) {
+                char[] values = new char[end - low + 1];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = (char) (low + i);
+                }
+                chunk = new Chunk(values, values.length);
+            } else {
+                long[] words = new long[WORDS];
+                for (int value = low; value <= end; value++) {
+                    words[value >>> 6] |= 1L << value;
+                }
+                chunk = new Chunk(words, end - low + 1);
+            }
+            bitmap.append((char) high, chunk);
+        }
+        return bitmap;
+    }
+
+    private void insert(int position, char key, Chunk chunk) {
+        if (chunkCount == keys.length) {
+            keys = Arrays.copyOf(keys, chunkCount * 2);
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+        }
+        System.arraycopy(keys, position, keys, position + 1, chunkCount - position);
+        System.arraycopy(chunks, position, chunks, position + 1, chunkCount - position);
+        keys[position] = key;
+        chunks[position] = chunk;
+        chunkCount++;
+    }
+
+    private void append(char key, Chunk chunk) {
+        if (chunk != null) {
+            insert(chunkCount, key, chunk);
+        }
+    }
+
+    /**
+     * Returns whether a row is in this bitmap
+     */
+    public boolean contains(int row) {
+        if (row < 0) {
+            return false;
+        }
+        int position = Arrays.binarySearch(keys, 0, chunkCount, (char) (row >>> 16));
+        return position >= 0 && chunks[position].contains((char) row);
+    }
+
+    /**
+     * Returns the number of rows in this bitmap
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            cardinality += chunks[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    /**
+     * Returns whether this bitmap holds no rows
+     */
+    public boolean isEmpty() {
+        return chunkCount == 0;
+    }
+
+    /**
+     * Returns the rows in both this bitmap and another
+     */
+    public RowBitmap and(RowBitmap other) {
+        RowBitmap result = new RowBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < chunkCount && j < other.chunkCount) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.append(keys[i], chunks[i].and(other.chunks[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the rows in either this bitmap or another
+     */
+    public RowBitmap or(RowBitmap other) {
+        RowBitmap result = new RowBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < chunkCount || j < other.chunkCount) {
+            if (j == other.chunkCount || (i < chunkCount && keys[i] < other.keys[j])) {
+                result.append(keys[i], chunks[i]);              //Chunks are never changed once shared
+                i++;
+            } else if (i == chunkCount || keys[i] > other.keys[j]) {
+                result.append(other.keys[j], other.chunks[j]);
+                j++;
+            } else {
+                result.append(keys[i], chunks[i].or(other.chunks[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the rows in this bitmap but not in another
+     */
+    public RowBitmap andNot(RowBitmap other) {
+        RowBitmap result = new RowBitmap();
+        int j = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            while (j < other.chunkCount && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.chunkCount && other.keys[j] == keys[i]) {
+                result.append(keys[i], chunks[i].andNot(other.chunks[j]));
+            } else {
+                result.append(keys[i], chunks[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calls an action for each row in ascending order
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < chunkCount; i++) {
+            chunks[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * Returns the rows in ascending order
+     */
+    public int[] toArray() {
+        int[] rows = new int[cardinality()];
+        int[] count = new int[1];
+        forEach(row -> rows[count[0]++] = row);
+        return rows;
+    }
+
+    /**
+     * Streams the rows in ascending order
+     */
+    public IntStream stream() {
+        return IntStream.of(toArray());
+    }
+
+    /**
+     * Returns the approximate memory held by the chunks of this bitmap, in bytes
+     */
+    public long getSizeInBytes() {
+        long bytes = keys.length * 2L + chunks.length * 8L;
+        for (int i = 0; i < chunkCount; i++) {
+            bytes += chunks[i].words != null ? WORDS * 8L : chunks[i].values.length * 2L;
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "RowBitmap of " + cardinality() + " rows in " + chunkCount + " chunks";
+    }
+
+    /**
+     * Collects rows into a new bitmap
+     */
+    public static final class Builder {
+        private RowBitmap bitmap = new RowBitmap();
+
+        /**
+         * Adds a row to the bitmap being built
+         *
+         * @param row - A non-negative row number
+         * @return This builder
+         */
+        public Builder add(int row) {
+            if (row < 0) {
+                throw new IllegalArgumentException("Row numbers cannot be negative: " + row);
+            }
+            char high = (char) (row >>> 16);
+            int count = bitmap.chunkCount;
+            int position;
+            if (count > 0 && bitmap.keys[count - 1] == high) {
+                position = count - 1;                           //Ascending rows land in the last chunk
+            } else {
+                position = Arrays.binarySearch(bitmap.keys, 0, count, high);
+                if (position < 0) {
+                    position = -position - 1;
+                    bitmap.insert(position, high, new Chunk(new char[4], 0));
+                }
+            }
+            bitmap.chunks[position] = bitmap.chunks[position].add((char) row);
+            return this;
+        }
+
+        /**
+         * Returns the bitmap of the rows added so far; the builder starts again empty
+         */
+        public RowBitmap build() {
+            RowBitmap built = bitmap;
+            bitmap = new RowBitmap();
+            return built;
+        }
+    }
+
+    /**
+     * The rows sharing the same upper 16 bits, stored as a sorted array of their lower bits or,
+     * when there are more than {@value #ARRAY_LIMIT}, as a bitmap. Only a {@link Builder} changes
+     * a chunk, through {@link #add}, before any other bitmap can share it.
+     */
+    private static final class Chunk {
+        final char[] values;                                    //Sorted, or null when words is used
+        final long[] words;
+        final int cardinality;
+
+        Chunk(char[] values, int cardinality) {
+            this.values = values;
+            this.words = null;
+            this.cardinality = cardinality;
+        }
+
+        Chunk(long[] words, int cardinality) {
+            this.values = null;
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        /**
+         * Wraps words as a chunk, converting back to an array when few enough bits are set
+         */
+        static Chunk ofWords(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            if (cardinality == 0) {
+                return null;
+            }
+            if (cardinality > ARRAY_LIMIT) {
+                return new Chunk(words, cardinality);
+            }
+            char[] values = new char[cardinality];
+            int count = 0;
+            for (int w = 0; w < WORDS; w++) {
+                for (long word = words[w]; word != 0; word &= word - 1) {
+                    values[count++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                }
+            }
+            return new Chunk(values, cardinality);
+        }
+
+        static Chunk ofValues(char[] values, int cardinality) {
+            return cardinality == 0 ? null : new Chunk(values, cardinality);
+        }
+
+        boolean contains(char value) {
+            if (words != null) {
+                return (words[value >>> 6] & (1L << value)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        Chunk add(char value) {
+            if (words != null) {
+                long bit = 1L << value;
+                if ((words[value >>> 6] & bit) != 0) {
+                    return this;
+                }
+                words[value >>> 6] |= bit;
+                return new Chunk(words, cardinality + 1);
+            }
+            int position = cardinality > 0 && values[cardinality - 1] < value
+                           ? -cardinality - 1 : Arrays.binarySearch(values, 0, cardinality, value);
+            if (position >= 0) {
+                return this;
+            }
+            position = -position - 1;
+            if (cardinality == ARRAY_LIMIT) {
+                long[] converted = toWords();
+                converted[value >>> 6] |= 1L << value;
+                return new Chunk(converted, cardinality + 1);
+            }
+            char[] grown = cardinality == values.length ? Arrays.copyOf(values, Math.min(ARRAY_LIMIT, cardinality * 2)) : values;
+            System.arraycopy(grown, position, grown, position + 1, cardinality - position);
+            grown[position] = value;
+            return new Chunk(grown, cardinality + 1);
+        }
+
+        long[] toWords() {
+            if (words != null) {
+                return words.clone();
+            }
+            long[] converted = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                converted[values[i] >>> 6] |= 1L << values[i];
+            }
+            return converted;
+        }
+
+        Chunk and(Chunk other) {
+            if (words != null && other.words != null) {
+                long[] result = new long[WORDS];
+                for (int w = 0; w < WORDS; w++) {
+                    result[w] = words[w] & other.words[w];
+                }
+                return ofWords(result);
+            }
+            Chunk array = words == null ? this : other;
+            Chunk probe = array == this ? other : this;
+            char[] result = new char[Math.min(array.cardinality, probe.cardinality)];
+            int count = 0;
+            for (int i = 0; i < array.cardinality; i++) {
+                if (probe.contains(array.values[i])) {
+                    result[count++] = array.values[i];
+                }
+            }
+            return ofValues(result, count);
+        }
+
+        Chunk or(Chunk other) {
+            if (words == null && other.words == null && cardinality + other.cardinality <= ARRAY_LIMIT) {
+                char[] result = new char[cardinality + other.cardinality];
+                int count = 0;
+                int i = 0;
+                int j = 0;
+                while (i < cardinality || j < other.cardinality) {
+                    if (j == other.cardinality || (i < cardinality && values[i] < other.values[j])) {
+                        result[count++] = values[i++];
+                    } else if (i == cardinality || values[i] > other.values[j]) {
+                        result[count++] = other.values[j++];
+                    } else {
+                        result[count++] = values[i++];
+                        j++;
+                    }
+                }
+                return ofValues(result, count);
+            }
+            long[] result = toWords();
+            if (other.words != null) {
+                for (int w = 0; w < WORDS; w++) {
+                    result[w] |= other.words[w];
+                }
+            } else {
+                for (int i = 0; i < other.cardinality; i++) {
+                    result[other.values[i] >>> 6] |= 1L << other.values[i];
+                }
+            }
+            return ofWords(result);
+        }
+
+        Chunk andNot(Chunk other) {
+            if (words == null) {
+                char[] result = new char[cardinality];
+                int count = 0;
+                for (int i = 0; i < cardinality; i++) {
+                    if (!other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+                return ofValues(result, count);
+            }
+            long[] result = words.clone();
+            if (other.words != null) {
+                for (int w = 0; w < WORDS; w++) {
+                    result[w] &= ~other.words[w];
+                }
+            } else {
+                for (int i = 0; i < other.cardinality; i++) {
+                    result[other.values[i] >>> 6] &= ~(1L << other.values[i]);
+                }
+            }
+            return ofWords(result);
+        }
+
+        void forEach(int base, IntConsumer action) {
+            if (words == null) {
+                for (int i = 0; i < cardinality; i++) {
+                    action.accept(base | values[i]);
+                }
+                return;
+            }
+            for (int w = 0; w < WORDS; w++) {
+                for (long word = words[w]; word != 0; word &= word - 1) {
+                    action.accept(base | (w << 6) + Long.numberOfTrailingZeros(word));
+                }
+            }
+        }
+    }
+}
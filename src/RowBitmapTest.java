@@ -0,0 +1,60 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+public class RowBitmapTest {
+    /**
+     * Mixes sparse chunks, dense chunks and chunks near the 4096-row switch between the two
+     */
+    private static BitSet randomRows(Random random) {
+        BitSet rows = new BitSet();
+        int[] perChunk = {10, 4096, 4097, 30000, 0, 65536};
+        for (int chunk = 0; chunk < perChunk.length; chunk++) {
+            for (int i = 0; i < perChunk[chunk]; i++) {
+                rows.set((chunk << 16) + random.nextInt(65536));
+            }
+        }
+        return rows;
+    }
+
+    private static int[] rowsOf(BitSet rows) {
+        return rows.stream().toArray();
+    }
+
+    @Test
+    void testOperationsMatchBitSet() {
+        Random random = new Random(3);
+        BitSet a = randomRows(random);
+        BitSet b = randomRows(random);
+        RowBitmap left = RowBitmap.of(a);
+        RowBitmap right = RowBitmap.of(rowsOf(b));
+
+        BitSet and = (BitSet) a.clone();
+        and.and(b);
+        BitSet or = (BitSet) a.clone();
+        or.or(b);
+        BitSet andNot = (BitSet) a.clone();
+        andNot.andNot(b);
+
+        assertArrayEquals(rowsOf(a), left.toArray());
+        assertEquals(a.cardinality(), left.cardinality());
+        assertArrayEquals(rowsOf(and), left.and(right).toArray());
+        assertArrayEquals(rowsOf(or), left.or(right).toArray());
+        assertArrayEquals(rowsOf(andNot), left.andNot(right).toArray());
+        assertArrayEquals(rowsOf(a), left.toArray());
+        assertTrue(left.contains(a.nextSetBit(0)));
+        assertFalse(left.contains(a.nextClearBit(0)));
+    }
+
+    @Test
+    void testRange() {
+        BitSet expected = new BitSet();
+        expected.set(100, 200000);
+
+        assertArrayEquals(rowsOf(expected), RowBitmap.range(100, 200000).toArray());
+        assertTrue(RowBitmap.range(5, 5).isEmpty());
+        assertArrayEquals(new int[] {65535, 65536}, RowBitmap.range(65535, 65537).toArray());
+    }
+}
@@ -1,3 +1,4 @@
+import java.nio.file.Paths;
 import java.util.Scanner;
 /**
  * Entry point for the Space Object Info System simulation.
@@ -11,8 +12,14 @@ import java.util.Scanner;
  */
 public class RunSimulation {
     public static void main(String[] args) {
+        String metricsFile = System.getProperty("rso.metrics.file");                                // -Drso.metrics.file=METRICS.txt turns the dump on
+        if(metricsFile != null){
+            MetricsRegistry.global().startDump(Paths.get(metricsFile),                                  // Rewritten every -Drso.metrics.interval seconds
+                                               Long.getLong("rso.metrics.interval", 60));
+        }
         DataManager userManager = new DataManager("users");
-        DataManager metricsManager = new DataManager("metrics");
+        String metricsStorage = Boolean.getBoolean("rso.offheap") ? "off-heap metrics" : "metrics";  // -Drso.offheap=true keeps the catalog off-heap
+        DataManager metricsManager = new DataManager(metricsStorage);
         Log logger = new Log();
         logger.updateLog("Sytem initialized");
 
@@ -60,5 +67,6 @@ public class RunSimulation {
             }
         }
         scanner.close();
+        MetricsRegistry.global().stopDump();
     }
 }
@@ -1,5 +1,5 @@
-import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Represents a Scientist user in the Space Object Info System.
@@ -18,6 +18,10 @@ import java.util.List;
  * @version 1.0
  */
 public class Scientist extends User implements FilterInterface{
+    private static final String LEO_FILTER_TIMER = "filter.leo";
+    private static final String OBJECT_TYPE_FILTER_TIMER = "filter.object_type";
+    private static final String CUSTOM_FILTER_TIMER = "filter.custom";                   // Filters built from queries
+
     private DataManager manager;
     private List<SpaceObject> entries;
     /**
@@ -60,42 +64,167 @@ public class Scientist extends User implements FilterInterface{
      */
     @Override
     public void filterByField(List<SpaceObject> filteredEntries, String criteria){
-        for(SpaceObject object : entries){
-            if(criteria.equalsIgnoreCase("leo")){
-                if(object.getOrbitType().toLowerCase().contains("leo")){
-                    filteredEntries.add(object);
-                }
-            }
-            if(object.getObject_type().toLowerCase().contains(criteria.toLowerCase())){
-                filteredEntries.add(object);
-            }
+        long startTime = System.nanoTime();
+        try(Stream<SpaceObject> objects = streamMatching(criteria)){
+            objects.forEach(filteredEntries::add);
+        }
+        filterTimer(criteria).recordSince(startTime);
+    }
+
+    /**
+     * Allows the scientist user to filter the list of space objects by any combination of
+     * conditions on their fields
+     * 
+     * @param filteredEntries - The empty list of space objects to be filled
+     * @param filter - The conditions the objects must satisfy
+     */
+    @Override
+    public void filterByField(List<SpaceObject> filteredEntries, CatalogFilter filter){
+        long startTime = System.nanoTime();
+        try(Stream<SpaceObject> objects = streamMatching(filter)){
+            objects.forEach(filteredEntries::add);
+        }
+        MetricsRegistry.global().timer(CUSTOM_FILTER_TIMER).recordSince(startTime);
+    }
+
+    /**
+     * Streams the objects matching a criteria
+     * 
+     * @param criteria - Either LEO or an Object_type
+     * @return The matching objects in catalog order
+     */
+    private Stream<SpaceObject> streamMatching(String criteria){
+        return streamMatching(matches(criteria));
+    }
+
+    /**
+     * Streams the objects satisfying a filter. When the entries are the manager's loaded catalog,
+     * the filter is evaluated by its filter engine instead of testing every object.
+     * 
+     * @param filter - The conditions the objects must satisfy
+     * @return The matching objects in catalog order
+     */
+    private Stream<SpaceObject> streamMatching(CatalogFilter filter){
+        FilterEngine engine = null;
+        if(manager != null && entries != null && entries == manager.getRso_metrics()){
+            engine = manager.getFilterEngine();
+        }
+        if(engine == null){
+            return streamEntries().filter(filter::test);
+        }
+        return engine.select(filter);
+    }
+
+    /**
+     * Builds the filter used by {@link #filterByField(List, String)}: objects in Low Earth Orbit
+     * when the criteria is LEO, or objects whose type contains the criteria
+     * 
+     * @param criteria - Either LEO or an Object_type
+     * @return The filter matching the requested objects
+     */
+    private static CatalogFilter matches(String criteria){
+        CatalogFilter objectType = CatalogFilter.contains(RowBinder.Column.OBJECT_TYPE, criteria);
+        if(criteria.equalsIgnoreCase("leo")){
+            return CatalogFilter.or(CatalogFilter.contains(RowBinder.Column.ORBIT_TYPE, "leo"), objectType);
         }
+        return objectType;
+    }
+
+    /**
+     * Returns the timer of a filter criteria. LEO and object type filters are timed separately, but
+     * every object type shares one timer so free-form input cannot create timers without limit.
+     */
+    private static MetricsRegistry.Timer filterTimer(String criteria){
+        return MetricsRegistry.global().timer(criteria.equalsIgnoreCase("leo") ? LEO_FILTER_TIMER : OBJECT_TYPE_FILTER_TIMER);
+    }
+
+    /**
+     * Streams the assigned list of space objects, or the manager's catalog if no list was assigned
+     */
+    private Stream<SpaceObject> streamEntries(){
+        return entries != null ? entries.stream() : manager.streamMetricData();
     }
 
     /**
      * Filters and displays all space objects that match a specified object type.
-     * Also prints the time taken to complete the filtering and display.
+     * Objects are printed as they match, without first being collected into a list.
      *
      * @param object_type the type of object to track (e.g., "debris", "satellite")
      */
     public void trackObjectsInSpace(String object_type){
-        List<SpaceObject> filteredEntries = new ArrayList<>();
-        filterByField(filteredEntries, object_type);
-        for(SpaceObject object : filteredEntries){
-            System.out.println(object);
+        trackObjectsInSpace(object_type, new ResultRenderer(System.out));
+    }
+
+    /**
+     * Filters space objects that match a specified object type and displays them through a renderer,
+     * which may show them a page at a time or only count them
+     *
+     * @param object_type the type of object to track (e.g., "debris", "satellite")
+     * @param renderer how the matching objects are displayed
+     * @return the number of matching objects
+     */
+    public long trackObjectsInSpace(String object_type, ResultRenderer renderer){
+        long startTime = System.nanoTime();
+        long count;
+        try(Stream<SpaceObject> objects = streamMatching(object_type)){
+            count = renderer.render(objects, SpaceObject::writeDisplay);
         }
+        filterTimer(object_type).recordSince(startTime);
+        return count;
     }
 
     /**
      * Filters and displays all space objects currently in Low Earth Orbit (LEO).
-     * Also prints the time taken to complete the filtering and display.
+     * Objects are printed as they match, without first being collected into a list.
      */
     public void trackObjectsInLEO(){
-        List<SpaceObject> filteredEntries = new ArrayList<>();
-        filterByField(filteredEntries, "leo");
-        for(SpaceObject object : filteredEntries){
-            System.out.println(object);
+        trackObjectsInLEO(new ResultRenderer(System.out));
+    }
+
+    /**
+     * Filters space objects currently in Low Earth Orbit (LEO) and displays them through a renderer
+     *
+     * @param renderer how the matching objects are displayed
+     * @return the number of matching objects
+     */
+    public long trackObjectsInLEO(ResultRenderer renderer){
+        long startTime = System.nanoTime();
+        long count;
+        try(Stream<SpaceObject> objects = streamMatching("leo")){
+            count = renderer.render(objects, SpaceObject::writeDisplay);
         }
+        filterTimer("leo").recordSince(startTime);
+        return count;
+    }
+
+    /**
+     * Displays all space objects matching a query such as
+     * {@code orbit~LEO AND days_old>200 AND conjunction_count>0}; see {@link CatalogQuery}
+     * 
+     * @param query - The query text
+     * @throws IllegalArgumentException if the query is not valid
+     */
+    public void queryObjects(String query){
+        queryObjects(query, new ResultRenderer(System.out));
+    }
+
+    /**
+     * Displays all space objects matching a query through a renderer
+     * 
+     * @param query - The query text
+     * @param renderer - How the matching objects are displayed
+     * @return The number of matching objects
+     * @throws IllegalArgumentException if the query is not valid
+     */
+    public long queryObjects(String query, ResultRenderer renderer){
+        long startTime = System.nanoTime();
+        CatalogQuery compiled = CatalogQuery.parse(query);
+        long count;
+        try(Stream<SpaceObject> objects = entries != null ? compiled.select(entries) : compiled.select(streamEntries())){
+            count = renderer.render(objects, SpaceObject::writeDisplay);
+        }
+        MetricsRegistry.global().timer("query").recordSince(startTime);
+        return count;
     }
 
     /**
@@ -104,18 +233,17 @@ public class Scientist extends User implements FilterInterface{
      * Also prints the time taken to complete the assessment.
      */
     public void assessRiskLevel(){
-        for(SpaceObject object : entries){
-            double orbitalDrift = Math.abs((object.getLongitude() - object.getAverageLongitude()));
-            if(orbitalDrift >= 50){
-                object.setRiskLevel("High");
-            }
-            else if(orbitalDrift < 50 && orbitalDrift >= 10){
-                object.setRiskLevel("Moderate");
-            }
-            else{
-                object.setRiskLevel("Low");
+        long startTime = System.nanoTime();
+        if(entries instanceof CatalogListView && ((CatalogListView) entries).getStore() instanceof ColumnarCatalog){
+            ((ColumnarCatalog) ((CatalogListView) entries).getStore()).assessRiskLevel();    // Reads the longitude columns directly
+        }
+        else{
+            for(SpaceObject object : entries){
+                byte risk = OrbitalAssessment.riskCode(object.getLongitude(), object.getAverageLongitude());
+                object.setRiskLevel(OrbitalAssessment.riskLevel(risk));
             }
         }
+        MetricsRegistry.global().timer("assess.risk_level", "rows").recordSince(startTime, entries.size());
         manager.setRso_metrics(entries);
     }
 
@@ -125,15 +253,27 @@ public class Scientist extends User implements FilterInterface{
      * Also prints the time taken to complete the evaluation.
      */
     public void assessStillInOrbit(){
+        long startTime = System.nanoTime();
         for(SpaceObject object : entries){
-            if(((object.getOrbitType() == null) || ((object.getLongitude() > 180) ||
-                (object.getLongitude() < -180)) || (object.getDaysOld() >= 15000)) &&
-                (object.getConjunctionCount() == 0)){
-                    object.setStillInOrbit(false);
-            } else {
-                    object.setStillInOrbit(true);   
-            }
+            object.setStillInOrbit(OrbitalAssessment.stillInOrbit(object.getOrbitType(), object.getLongitude(),
+                                                                  object.getDaysOld(), object.getConjunctionCount()));
         }
+        MetricsRegistry.global().timer("assess.still_in_orbit", "rows").recordSince(startTime, entries.size());
+        manager.setRso_metrics(entries);
+    }
+
+    /**
+     * Assesses both the risk level and whether each space object is still in orbit in one pass,
+     * split across every available processor; see {@link ParallelAssessor}
+     *
+     * @return How many objects fell into each risk level and orbit status
+     */
+    public ParallelAssessor.Summary assessObjects(){
+        long startTime = System.nanoTime();
+        ParallelAssessor assessor = new ParallelAssessor(Runtime.getRuntime().availableProcessors());
+        ParallelAssessor.Summary summary = assessor.assess(entries);
+        MetricsRegistry.global().timer("assess.all", "rows").recordSince(startTime, summary.getRows());
         manager.setRso_metrics(entries);
+        return summary;
     }
 }
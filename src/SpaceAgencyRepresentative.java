@@ -1,6 +1,9 @@
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.stream.Stream;
 
 /**
  * Represents a Space Agency Representative in the Space Object Info System.
@@ -19,6 +22,8 @@ import java.util.Scanner;
  * @version 1.0
  */
 public class SpaceAgencyRepresentative extends User implements FilterInterface{
+    private static final CatalogFilter IN_LOW_EARTH_ORBIT = CatalogFilter.contains(RowBinder.Column.ORBIT_TYPE, "leo");
+
     private DataManager manager;
     private List<SpaceObject> entries;
 
@@ -45,12 +50,22 @@ public class SpaceAgencyRepresentative extends User implements FilterInterface{
      * and their conjunction count is greater than 0.
      */
     public void analyzeLongTermImpact() {
-        List<SpaceObject> filteredEntries = new ArrayList<>();
-        filterByField(filteredEntries, "leo");
-        for(SpaceObject object : filteredEntries){
-            if(object.getDaysOld() > 200 && object.getConjunctionCount() > 0){
-                System.out.println(object.toImpactDisplay());
-            }
+        analyzeLongTermImpact(new ResultRenderer(System.out));
+    }
+
+    /**
+     * Analyze the long-term impact for all objects in LEO, displaying them through a renderer
+     * which may show them a page at a time or only count them.
+     *
+     * @param renderer - How the objects with a long-term impact are displayed
+     * @return The number of objects with a long-term impact
+     */
+    public long analyzeLongTermImpact(ResultRenderer renderer) {
+        CatalogFilter longTermImpact = CatalogFilter.and(IN_LOW_EARTH_ORBIT,
+                CatalogFilter.compare(RowBinder.Column.DAYS_OLD, CatalogFilter.Comparison.GREATER, 200),
+                CatalogFilter.compare(RowBinder.Column.CONJUNCTION_COUNT, CatalogFilter.Comparison.GREATER, 0));
+        try(Stream<SpaceObject> objects = streamMatching(longTermImpact)){
+            return renderer.render(objects, SpaceObject::writeImpactDisplay);
         }
     }
 
@@ -59,11 +74,148 @@ public class SpaceAgencyRepresentative extends User implements FilterInterface{
      * The user will be prompted to enter two values for longitudes.
      */
     public void generateDensityReport(Scanner scnr) {
-        List<SpaceObject> filteredEntries = new ArrayList<>();
-        filterByLongitude(filteredEntries, scnr);
-        System.out.println("Please enter the identifier for your report: ");
-        String identifier = scnr.nextLine();
-        manager.generateDensityReport(filteredEntries, identifier);
+        try(Stream<SpaceObject> objects = streamEntries()){
+            Stream<SpaceObject> filteredEntries = filterByLongitude(objects, scnr);
+            System.out.println("Please enter the identifier for your report: ");
+            String identifier = scnr.nextLine();
+            manager.generateDensityReport(filteredEntries, identifier);
+        }
+    }
+
+    /**
+     * Displays how many space objects lie in each longitude band around the globe.
+     * The user will be prompted to enter the width of a band in degrees.
+     */
+    public void displayLongitudeDensity(Scanner scnr) {
+        System.out.println("Please enter the width of each longitude band: ");
+        double width = Double.parseDouble(scnr.nextLine());
+        double[] edges = LongitudeIndex.bucketEdges(-180, 180, width);
+        int[] counts;
+        LongitudeIndex index = longitudeIndex();
+        if (index != null) {
+            counts = index.countsInBuckets(edges);
+        } else {
+            try(Stream<SpaceObject> objects = streamEntries()){
+                double[] longitudes = objects.mapToDouble(SpaceObject::getLongitude).toArray();
+                counts = LongitudeIndex.build(longitudes).countsInBuckets(edges);
+            }
+        }
+        for (int i = 0; i < counts.length; i++) {
+            System.out.printf("Longitude %8.2f to %8.2f: %d%n", edges[i], edges[i + 1], counts[i]);
+        }
+    }
+
+    /**
+     * Displays the space objects in an area, given either as a geohash prefix or as a bounding box.
+     * The user will be prompted to enter the area.
+     * 
+     * @throws IllegalArgumentException if the bounding box is not valid
+     */
+    public void displayObjectsInArea(Scanner scnr) {
+        displayObjectsInArea(scnr, new ResultRenderer(System.out));
+    }
+
+    /**
+     * Displays the space objects in an area through a renderer, which may show them a page at a
+     * time or only count them. The user will be prompted to enter the area.
+     *
+     * @param scnr - Where the area is read from
+     * @param renderer - How the objects in the area are displayed
+     * @return The number of objects in the area, or -1 if the area could not be read
+     * @throws IllegalArgumentException if the bounding box is not valid
+     */
+    public long displayObjectsInArea(Scanner scnr, ResultRenderer renderer) {
+        System.out.println("Please enter a geohash prefix, or a bounding box as minLat,minLon,maxLat,maxLon: ");
+        String area = scnr.nextLine().trim();
+        List<SpaceObject> objects = loadedEntries();
+        GeohashIndex index = geohashIndex(objects);
+        int[] rows;
+        if (area.contains(",")) {
+            String[] bounds = area.split(",");
+            if (bounds.length != 4) {
+                System.out.println("A bounding box needs four values: minLat,minLon,maxLat,maxLon");
+                return -1;
+            }
+            double[] box = new double[4];
+            for (int i = 0; i < box.length; i++) {
+                try {
+                    box[i] = Double.parseDouble(bounds[i].trim());
+                } catch (NumberFormatException e) {
+                    System.out.println("\"" + bounds[i].trim() + "\" is not a number");
+                    return -1;
+                }
+            }
+            rows = index.rowsWithin(box[0], box[1], box[2], box[3]);
+        } else {
+            rows = index.rowsWithPrefix(area);
+        }
+        if (objects != null) {
+            return renderer.render(Arrays.stream(rows).mapToObj(objects::get), SpaceObject::writeDisplay);
+        }
+        BitSet matching = new BitSet();
+        for (int row : rows) {
+            matching.set(row);
+        }
+        int[] row = {0};
+        try(Stream<SpaceObject> streamed = streamEntries()){                  // Read again in the same order as indexed
+            return renderer.render(streamed.filter(object -> matching.get(row[0]++)), SpaceObject::writeDisplay);
+        }
+    }
+
+    /**
+     * Displays how many space objects lie in each geohash cell.
+     * The user will be prompted to enter the number of geohash characters per cell.
+     */
+    public void displayGeohashDensity(Scanner scnr) {
+        System.out.println("Please enter the geohash precision (1 - 12): ");
+        String input = scnr.nextLine().trim();
+        int precision;
+        try {
+            precision = Integer.parseInt(input);
+        } catch (NumberFormatException e) {
+            precision = 0;
+        }
+        if (precision < 1 || precision > 12) {
+            System.out.println("The precision must be a whole number from 1 to 12, not \"" + input + "\"");
+            return;
+        }
+        Map<String, Integer> counts = geohashIndex(loadedEntries()).countsByCell(precision);
+        counts.forEach((cell, count) -> System.out.println(cell + ": " + count));
+    }
+
+    /**
+     * Returns the assigned list of space objects, or the manager's loaded catalog
+     *
+     * @return The objects, or null if the catalog is only streamed from disk
+     */
+    private List<SpaceObject> loadedEntries(){
+        return entries != null ? entries : manager.getRso_metrics();
+    }
+
+    /**
+     * Returns the manager's geohash index for its loaded catalog, or indexes another list on the spot.
+     * Without a list, the catalog is streamed once and only its geohashes are kept.
+     */
+    private GeohashIndex geohashIndex(List<SpaceObject> objects){
+        if (objects == null) {
+            try(Stream<SpaceObject> streamed = streamEntries()){
+                return GeohashIndex.build(streamed.map(SpaceObject::getGeohash).toArray(String[]::new));
+            }
+        }
+        if (manager != null && objects == manager.getRso_metrics()) {
+            return manager.getGeohashIndex();
+        }
+        return GeohashIndex.build(objects);
+    }
+
+    /**
+     * Returns the manager's longitude index when the entries are its loaded catalog
+     */
+    private LongitudeIndex longitudeIndex(){
+        if (manager != null && entries != null && entries == manager.getRso_metrics()) {
+            return manager.getLongitudeIndex();
+        }
+        return null;
     }
 
     /**
@@ -80,28 +232,76 @@ public class SpaceAgencyRepresentative extends User implements FilterInterface{
      */
     @Override
     public void filterByField(List<SpaceObject> filteredEntries, String criteria){
-        for(SpaceObject object : entries){
-            if(object.getOrbitType().toLowerCase().contains("leo")){
-                filteredEntries.add(object);
-            }
+        try(Stream<SpaceObject> objects = streamMatching(IN_LOW_EARTH_ORBIT)){
+            objects.forEach(filteredEntries::add);
+        }
+    }
+
+    /**
+     * Filters the list of all Space Objects into the provided filtered list by any combination
+     * of conditions on their fields
+     *
+     * @param filteredEntries - The empty list of space objects to be filled
+     * @param filter - The conditions the objects must satisfy
+     */
+    @Override
+    public void filterByField(List<SpaceObject> filteredEntries, CatalogFilter filter){
+        try(Stream<SpaceObject> objects = streamMatching(filter)){
+            objects.forEach(filteredEntries::add);
+        }
+    }
+
+    /**
+     * Streams the objects satisfying a filter. When the entries are the manager's loaded catalog,
+     * the filter is evaluated by its filter engine instead of testing every object.
+     */
+    private Stream<SpaceObject> streamMatching(CatalogFilter filter){
+        FilterEngine engine = null;
+        if (manager != null && entries != null && entries == manager.getRso_metrics()) {
+            engine = manager.getFilterEngine();
+        }
+        if (engine == null) {
+            return streamEntries().filter(filter::test);
         }
+        return engine.select(filter);
     }
 
     /**
-     * Filters the list of all Objects to include only those with a Longitude within the upper and lower limit
+     * Streams the assigned list of space objects, or the manager's catalog if no list was assigned
+     */
+    private Stream<SpaceObject> streamEntries(){
+        return entries != null ? entries.stream() : manager.streamMetricData();
+    }
+
+    /**
+     * Filters a stream of Objects to include only those with a Longitude within the upper and lower limit
      * 
-     * @param filteredEntries - An empty list to store the filtered entries
+     * @param objects - The stream of objects to be filtered
+     * @return - The stream of objects within the limits entered by the user
      */
-    private void filterByLongitude(List<SpaceObject> filteredEntries, Scanner scnr){
+    private Stream<SpaceObject> filterByLongitude(Stream<SpaceObject> objects, Scanner scnr){
         System.out.println("Please enter the lower longitude limit: ");
         double lowerLimit = Double.parseDouble(scnr.nextLine());
         System.out.println("Please enter the upper longitude limit: ");
         double upperLimit = Double.parseDouble(scnr.nextLine());
+        return filterByLongitude(objects, lowerLimit, upperLimit);
+    }
 
-        for(SpaceObject object : entries){
-            if(object.getLongitude() < upperLimit && object.getLongitude() > lowerLimit){
-                filteredEntries.add(object);
-            }
+    /**
+     * Filters a stream of Objects to include only those with a Longitude strictly between two limits
+     * 
+     * @param objects - The stream of objects to be filtered, used when the entries have no longitude index
+     * @param lowerLimit - The lower longitude limit
+     * @param upperLimit - The upper longitude limit
+     * @return - The stream of objects within the limits
+     */
+    Stream<SpaceObject> filterByLongitude(Stream<SpaceObject> objects, double lowerLimit, double upperLimit){
+        LongitudeIndex index = longitudeIndex();
+        if (index != null) {
+            // Binary search the sorted longitudes instead of scanning every object
+            int[] rows = index.rowsBetween(lowerLimit, upperLimit);
+            return Arrays.stream(rows).mapToObj(entries::get);
         }
+        return objects.filter(object -> object.getLongitude() < upperLimit && object.getLongitude() > lowerLimit);
     }
 }
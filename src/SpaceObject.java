@@ -1,4 +1,7 @@
+import java.io.IOException;
 import java.security.Timestamp;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a space object being tracked, such as a satellite or debris,
@@ -55,6 +58,8 @@ public class SpaceObject {
     // Risk and status assessments
     private boolean stillInOrbit;
     private String riskLevel;
+    private boolean dirty;                                      // Assessment changed since the last export
+    private AtomicLong assessmentVersion;                       // Version of the catalog watching this object, if any
 
     /**
      * Constructs a space object with essential tracking data.
@@ -92,6 +97,33 @@ public class SpaceObject {
         this.hrr_category = hrr_category;
     }
 
+    /**
+     * Returns the record ID of this space object.
+     * 
+     * @return the record ID
+     */
+    public String getRecordID() {
+        return recordID;
+    }
+
+    /**
+     * Returns the name of the satellite.
+     * 
+     * @return the satellite name
+     */
+    public String getSatelliteName() {
+        return sattelliteName;
+    }
+
+    /**
+     * Returns the country of origin.
+     * 
+     * @return the country
+     */
+    public String getCountry() {
+        return country;
+    }
+
     /**
      * Returns the type of orbit for this space object.
      * 
@@ -101,6 +133,24 @@ public class SpaceObject {
         return orbitType;
     }
 
+    /**
+     * Returns the year the object was launched.
+     * 
+     * @return the launch year
+     */
+    public int getLaunchYear() {
+        return launchYear;
+    }
+
+    /**
+     * Returns the site the object was launched from.
+     * 
+     * @return the launch site
+     */
+    public String getLaunchSite() {
+        return launchSite;
+    }
+
     /**
      * Returns the current longitude of the space object.
      * 
@@ -119,6 +169,24 @@ public class SpaceObject {
         return averageLongitude;
     }
 
+    /**
+     * Returns the encoded geohash location of the object.
+     * 
+     * @return the geohash
+     */
+    public String getGeohash() {
+        return geohash;
+    }
+
+    /**
+     * Returns the HRR category of the object.
+     * 
+     * @return the HRR category
+     */
+    public String getHrrCategory() {
+        return hrr_category;
+    }
+
     /**
      * Returns the object type, such as "satellite" or "debris".
      * 
@@ -146,22 +214,124 @@ public class SpaceObject {
         return conjunctionCount;
     }
 
+    /**
+     * Returns whether the object was assessed as still in orbit.
+     * 
+     * @return true if still orbiting, false otherwise
+     */
+    public boolean isStillInOrbit() {
+        return stillInOrbit;
+    }
+
+    /**
+     * Returns the assessed risk level for this object.
+     * 
+     * @return the risk level, or null if it has not been assessed
+     */
+    public String getRiskLevel() {
+        return riskLevel;
+    }
+
     /**
      * Sets whether the object is still in orbit.
      * 
      * @param stillInOrbit true if still orbiting, false otherwise
      */
     public void setStillInOrbit(boolean stillInOrbit) {
-        this.stillInOrbit = stillInOrbit;
+        if (this.stillInOrbit != stillInOrbit) {
+            this.stillInOrbit = stillInOrbit;
+            this.dirty = true;
+            assessmentChanged();
+        }
     }
 
     /**
-     * Sets the assessed risk level for this object.
+     * Sets the assessed risk level for this object. Only the levels an assessment produces are
+     * accepted, so the same call behaves alike here and on objects backed by a catalog store,
+     * which keep the level as a code.
      * 
-     * @param riskLevel a risk category like "Low", "Moderate", or "High"
+     * @param riskLevel "Low", "Moderate", "High", or null for not assessed
+     * @throws IllegalArgumentException if the risk level is any other value
      */
     public void setRiskLevel(String riskLevel) {
+        OrbitalAssessment.riskCode(riskLevel);                 // Rejects unknown levels
+        if (!Objects.equals(this.riskLevel, riskLevel)) {
+            this.riskLevel = riskLevel;
+            this.dirty = true;
+            assessmentChanged();
+        }
+    }
+
+    /**
+     * Sets the risk level and orbit status together, marking the object dirty if either changed
+     * but without advancing the assessment version, for bulk assessments that advance it once
+     * when they finish instead of once per object.
+     * 
+     * @param riskLevel the assessed risk level
+     * @param stillInOrbit the assessed orbit status
+     */
+    void updateAssessment(String riskLevel, boolean stillInOrbit) {
+        if (!Objects.equals(this.riskLevel, riskLevel) || this.stillInOrbit != stillInOrbit) {
+            this.riskLevel = riskLevel;
+            this.stillInOrbit = stillInOrbit;
+            this.dirty = true;
+        }
+    }
+
+    /**
+     * Sets the assessment of an object being built from stored data, without marking it changed.
+     * 
+     * @param riskLevel the stored risk level, or null if it has not been assessed
+     * @param stillInOrbit the stored orbit status
+     */
+    void initAssessment(String riskLevel, boolean stillInOrbit) {
         this.riskLevel = riskLevel;
+        this.stillInOrbit = stillInOrbit;
+    }
+
+    /**
+     * Reports this object's assessment changes to a catalog's version, which advances whenever the
+     * risk level or orbit status of one of its objects changes. An object reports to the catalog
+     * that watched it most recently, and an object no catalog watches reports to none.
+     * 
+     * @param version the version of the catalog holding this object
+     */
+    void watchAssessments(AtomicLong version) {
+        this.assessmentVersion = version;
+    }
+
+    /**
+     * Returns the version this object reports its assessment changes to, or null if none
+     */
+    AtomicLong getAssessmentVersion() {
+        return assessmentVersion;
+    }
+
+    /**
+     * Advances the version of the catalog watching this object, if any
+     */
+    void assessmentChanged() {
+        AtomicLong version = assessmentVersion;
+        if (version != null) {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns whether the risk level or orbit status has changed since the object
+     * was loaded or last exported.
+     * 
+     * @return true if the object must be written by the next export
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Records that the object's current assessment has been exported.
+     */
+    public void clearDirty() {
+        this.dirty = false;
     }
 
     /**
@@ -177,6 +347,18 @@ public class SpaceObject {
                              launchSite,longitude,averageLongitude,geohash,daysOld);
     }
 
+    /**
+     * Writes this space object as {@link #toString()} formats it, without String.format
+     * 
+     * @param out the writer receiving the text, without a line separator
+     */
+    public void writeDisplay(CsvRecordWriter out) throws IOException {
+        out.append(recordID).append(", ").append(sattelliteName).append(", ").append(country).append(", ")
+           .append(orbitType).append(", ").append(launchYear).append(", ").append(launchSite).append(", ")
+           .appendFixed(longitude, 8).append(", ").appendFixed(averageLongitude, 8).append(", ")
+           .append(geohash).append(", ").append(daysOld);
+    }
+
     /**
      * Formats this space object as a CSV row in Updated_RSO_Metrics
      * 
@@ -191,6 +373,26 @@ public class SpaceObject {
                             recentManeuvers, deltaV90day, has_sister_debris, stillInOrbit, riskLevel);
     }
 
+    /**
+     * Writes this space object as a CSV row in Updated_RSO_Metrics, producing exactly the
+     * text of {@link #toCsvMetrics()} without formatting it through String.format
+     * 
+     * @param out the writer receiving the row, without a line separator
+     */
+    public void writeCsvMetrics(CsvRecordWriter out) throws IOException {
+        out.append(recordID).append(',').append(norad_cat_id).append(',').append(sattelliteName).append(',')
+           .append(country).append(',').append(orbitType).append(',').append(object_type).append(',')
+           .append(launchYear).append(',').append(launchSite).append(',')
+           .appendFixed(longitude, 8).append(',').appendFixed(averageLongitude, 8).append(',')
+           .append('"').append(geohash).append('"').append(',').append(hrr_category).append(',')
+           .append(is_nominated).append(',').append(nominated_at).append(',').append(has_dossier).append(',')
+           .append(last_updated).append(',').append(justification).append(',').append(focusedAnalysis).append(',')
+           .append(daysOld).append(',').append(conjunctionCount).append(',').append(is_unk_obj).append(',')
+           .append(allManeuvers).append(',').append(days_since_ob).append(',').append(recentManeuvers).append(',')
+           .append((Object) deltaV90day).append(',').append(has_sister_debris).append(',')
+           .append(stillInOrbit).append(',').append(riskLevel);
+    }
+
     /**
      * Formats this space objects as a row in a Density_Report
      */
@@ -209,6 +411,17 @@ public class SpaceObject {
                             object_type,daysOld,conjunctionCount);
     }
 
+    /**
+     * Writes this space object as {@link #toImpactDisplay()} formats it, without String.format
+     * 
+     * @param out the writer receiving the text, without a line separator
+     */
+    public void writeImpactDisplay(CsvRecordWriter out) throws IOException {
+        out.append(recordID).append(", ").append(sattelliteName).append(", ").append(country).append(", ")
+           .append(orbitType).append(", ").append(object_type).append(", ").append(daysOld).append(", ")
+           .append(conjunctionCount);
+    }
+
     /**
      * Escapes a string for safe CSV output.
      * 
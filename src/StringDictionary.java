@@ -0,0 +1,93 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+/**
+ * Dictionary encoding for a low-cardinality column such as country or object_type. Every distinct
+ * value is stored once and given a small integer code, so millions of rows can share a single String
+ * instance per value, or hold just the code.
+ *
+ * <p>Safe for use by several loader threads at once. Codes are assigned in first-seen order and
+ * never change.</p>
+ *
+ * <p>
+ * Example:
+ * <pre>
+ * StringDictionary countries = new StringDictionary();
+ * int code = countries.encode("USA");
+ * String canonical = countries.decode(code);      // the shared "USA" instance
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class StringDictionary {
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private int size;
+
+    /**
+     * Returns the code of a value, adding the value to the dictionary if it is new
+     *
+     * @param value - The value to encode
+     * @return The code of the value
+     */
+    public int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        synchronized (this) {
+            code = codes.get(value);
+            if (code == null) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                code = size;
+                String[] current = values;
+                current[code] = value;
+                values = current;                               //Volatile write publishes the new entry before its code
+                codes.put(value, code);
+                size++;
+            }
+            return code;
+        }
+    }
+
+    /**
+     * Returns the shared instance of a value, adding the value to the dictionary if it is new
+     *
+     * @param value - The value to intern
+     * @return The canonical instance equal to the value
+     */
+    public String intern(String value) {
+        return decode(encode(value));
+    }
+
+    /**
+     * Returns the value that was given a code
+     *
+     * @param code - A code returned by {@link #encode(String)}
+     * @return The canonical value for the code
+     */
+    public String decode(int code) {
+        return values[code];
+    }
+
+    /**
+     * Returns the code of a value without adding it
+     *
+     * @return The code of the value, or -1 if the dictionary does not hold it
+     */
+    public int codeOf(String value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * Returns the number of distinct values in the dictionary
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
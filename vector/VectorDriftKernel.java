@@ -0,0 +1,86 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+/**
+ * A {@link DriftKernel} that computes the drift of several rows at once with the incubating
+ * Vector API. Each group of eight rows is loaded as vectors of longitudes, compared against both
+ * drift thresholds, and the two comparison masks are spread into eight one-byte codes that are
+ * stored with a single write.
+ *
+ * <p>This class lives outside {@code src} because it only compiles and loads with
+ * {@code --add-modules jdk.incubator.vector}; {@link DriftKernel#best()} falls back to the scalar
+ * loop whenever it is missing.</p>
+ *
+ * <p>
+ * Usage:
+ * <pre>
+ * javac --add-modules jdk.incubator.vector -d out -cp out vector/*.java
+ * java --add-modules jdk.incubator.vector -cp out RunSimulation
+ * </pre>
+ * </p>
+ *
+ * @author David Jones
+ * @author Fabian Ornelas
+ * @version 1.0
+ */
+public class VectorDriftKernel extends DriftKernel {
+    private static final int GROUP = 8;                         //Rows whose codes fill one long
+    private static final VectorSpecies<Double> SPECIES =
+            DoubleVector.SPECIES_PREFERRED.length() <= GROUP ? DoubleVector.SPECIES_PREFERRED : DoubleVector.SPECIES_512;
+    private static final int LANES = SPECIES.length();
+    private static final long LOW_CODES = 0x0101010101010101L;  //RISK_LOW in every byte
+    private static final long[] SPREAD = new long[1 << GROUP];  //Bit i of the index becomes 1 in byte i
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    static {
+        for (int mask = 0; mask < SPREAD.length; mask++) {
+            for (int bit = 0; bit < GROUP; bit++) {
+                if ((mask >>> bit & 1) != 0) {
+                    SPREAD[mask] |= 1L << (bit * 8);
+                }
+            }
+        }
+    }
+
+    /**
+     * Constructs the kernel
+     *
+     * @throws UnsupportedOperationException if this processor has no vector of several doubles
+     */
+    public VectorDriftKernel() {
+        if (LANES < 2) {
+            throw new UnsupportedOperationException("No vector shape holds more than one double");
+        }
+    }
+
+    @Override
+    public void riskCodes(double[] longitudes, double[] averageLongitudes, int from, int to, byte[] codes) {
+        int length = to - from;
+        int upper = length - length % GROUP;
+        int k = 0;
+        for (; k < upper; k += GROUP) {
+            long moderate = 0;
+            long high = 0;
+            for (int lane = 0; lane < GROUP; lane += LANES) {
+                int row = from + k + lane;
+                DoubleVector drift = DoubleVector.fromArray(SPECIES, longitudes, row)
+                                                 .sub(DoubleVector.fromArray(SPECIES, averageLongitudes, row))
+                                                 .abs();
+                moderate |= drift.compare(VectorOperators.GE, OrbitalAssessment.MODERATE_DRIFT).toLong() << lane;
+                high |= drift.compare(VectorOperators.GE, OrbitalAssessment.HIGH_DRIFT).toLong() << lane;
+            }
+            LONGS.set(codes, k, LOW_CODES + SPREAD[(int) moderate] + SPREAD[(int) high]);
+        }
+        for (; k < length; k++) {
+            codes[k] = OrbitalAssessment.riskCode(longitudes[from + k], averageLongitudes[from + k]);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "vector " + SPECIES;
+    }
+}